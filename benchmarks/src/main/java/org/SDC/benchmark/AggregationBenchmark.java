@@ -0,0 +1,92 @@
+package org.SDC.benchmark;
+
+import org.SDC.CSVLineDecoder;
+import org.SDC.DataProcessor;
+import org.SDC.DataQuery;
+import org.SDC.ProcessingResult;
+import org.SDC.QueryAccumulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of `QueryAccumulator.processData`, i.e. the aggregation done by `DataProcessor`
+ * for every row, without and with a chosen day of the week.
+ * <p>
+ * The rows of one year of 15-minute data are decoded in advance, so only the aggregation is measured;
+ * the reported time is per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregationBenchmark {
+
+    private static final int ROWS = ParsingBenchmark.ROWS;
+
+    /**
+     * The chosen day of the week, 0 if none.
+     */
+    @Param({"0", "3"})
+    public int day;
+
+    private final DataProcessor dataProcessor = new DataProcessor();
+    private DataQuery query;
+    private final int[] years = new int[ROWS];
+    private final int[] months = new int[ROWS];
+    private final int[] daysOfMonth = new int[ROWS];
+    private final double[] values = new double[ROWS];
+
+    @Setup
+    public void setUp() {
+        query = new DataQuery(YearMonth.of(2010, 1), YearMonth.of(2011, 1), day);
+
+        byte[] bytes = SyntheticSolarData.generate(YearMonth.of(2010, 1), 12, SyntheticSolarData.DEFAULT_INTERVAL_MINUTES,
+                SyntheticSolarData.DEFAULT_SEED).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CSVLineDecoder decoder = new CSVLineDecoder();
+        int row = 0;
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                if (decoder.decode(buffer, start, i)) {
+                    years[row] = decoder.getYear();
+                    months[row] = decoder.getMonth();
+                    daysOfMonth[row] = decoder.getDayOfMonth();
+                    values[row] = decoder.getValue();
+                    row++;
+                }
+                start = i + 1;
+            }
+        }
+        if (row != ROWS) {
+            throw new IllegalStateException("Neočekávaný počet řádků: " + row);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ProcessingResult processData() {
+        QueryAccumulator accumulator = dataProcessor.newAccumulator(query);
+        for (int i = 0; i < ROWS; i++) {
+            accumulator.processData(years[i], months[i], daysOfMonth[i], values[i]);
+        }
+        return accumulator.toResult();
+    }
+}
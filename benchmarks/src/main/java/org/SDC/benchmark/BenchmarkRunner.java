@@ -0,0 +1,30 @@
+package org.SDC.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Entry point of the benchmark jar.
+ * <p>
+ * Runs the JMH benchmarks of this module with the GC profiler enabled, so every result is reported together
+ * with its allocation rate ({@code gc.alloc.rate.norm} = bytes allocated per operation). All other arguments
+ * are passed to JMH unchanged, e.g.
+ * <pre>{@code
+ * mvn -f pom.xml install
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar                       # všechny benchmarky
+ * java -jar benchmarks/target/benchmarks.jar EndToEnd -p months=12 # jen vybrané
+ * java -jar benchmarks/target/benchmarks.jar -rf json -rff result.json
+ * }</pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] jmhArgs = Arrays.copyOf(args, args.length + 2);
+        jmhArgs[args.length] = "-prof";
+        jmhArgs[args.length + 1] = "gc";
+        org.openjdk.jmh.Main.main(jmhArgs);
+    }
+}
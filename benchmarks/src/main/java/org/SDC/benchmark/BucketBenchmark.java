@@ -0,0 +1,97 @@
+package org.SDC.benchmark;
+
+import org.SDC.BucketAggregator;
+import org.SDC.BucketSeries;
+import org.SDC.CSVLineDecoder;
+import org.SDC.TimeBucket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of `BucketAggregator` for one granularity and for several granularities
+ * aggregated in the same pass, to show the cost added by every further granularity.
+ * <p>
+ * The rows of one year of 15-minute data are decoded in advance, so only the aggregation is measured;
+ * the reported time is per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BucketBenchmark {
+
+    private static final int ROWS = ParsingBenchmark.ROWS;
+
+    /**
+     * The granularities, separated by commas.
+     */
+    @Param({"month", "hour,day,week,month", "hour,day,week,month,15min"})
+    public String granularities;
+
+    private List<TimeBucket> buckets;
+    private final int[] years = new int[ROWS];
+    private final int[] months = new int[ROWS];
+    private final int[] daysOfMonth = new int[ROWS];
+    private final int[] minutesOfDay = new int[ROWS];
+    private final double[] values = new double[ROWS];
+
+    @Setup
+    public void setUp() {
+        buckets = new ArrayList<>();
+        for (String granularity : granularities.split(",")) {
+            buckets.add(TimeBucket.parse(granularity));
+        }
+
+        byte[] bytes = SyntheticSolarData.generate(YearMonth.of(2010, 1), 12, SyntheticSolarData.DEFAULT_INTERVAL_MINUTES,
+                SyntheticSolarData.DEFAULT_SEED).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CSVLineDecoder decoder = new CSVLineDecoder();
+        int row = 0;
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                if (decoder.decode(buffer, start, i)) {
+                    years[row] = decoder.getYear();
+                    months[row] = decoder.getMonth();
+                    daysOfMonth[row] = decoder.getDayOfMonth();
+                    minutesOfDay[row] = decoder.getHour() * 60 + decoder.getMinute();
+                    values[row] = decoder.getValue();
+                    row++;
+                }
+                start = i + 1;
+            }
+        }
+        if (row != ROWS) {
+            throw new IllegalStateException("Neočekávaný počet řádků: " + row);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<BucketSeries> aggregate() {
+        BucketAggregator aggregator = new BucketAggregator(buckets);
+        for (int i = 0; i < ROWS; i++) {
+            aggregator.handle(years[i], months[i], daysOfMonth[i], minutesOfDay[i], values[i]);
+        }
+        return aggregator.toResult();
+    }
+}
@@ -0,0 +1,97 @@
+package org.SDC.benchmark;
+
+import org.SDC.CSVReaderService;
+import org.SDC.DataProcessor;
+import org.SDC.DataQuery;
+import org.SDC.IngestMode;
+import org.SDC.ProcessingResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the latency of a whole query, from opening the file to the finished `ProcessingResult`,
+ * for one month, one year and ten years of 15-minute data and for every ingest strategy.
+ * <p>
+ * This is the work done by `CSVReaderService.readAndProcessCSV` without the interactive part and without
+ * logging the result. The data file covers ten years starting with January 2010; every query starts
+ * with its first month, so the shorter queries show how much of the file is read needlessly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    private static final YearMonth START = YearMonth.of(2010, 1);
+    private static final int FILE_MONTHS = 120;
+
+    /**
+     * The number of months of the query.
+     */
+    @Param({"1", "12", "120"})
+    public int months;
+
+    /**
+     * The strategy used to read the file.
+     */
+    @Param({"FAST", "PARALLEL_MAPPED", "ORDERED", "COLUMNAR_CACHE", "AGGREGATE_INDEX", "COMMONS_CSV"})
+    public IngestMode ingestMode;
+
+    private Path directory;
+    private String filePath;
+    private CSVReaderService csvReaderService;
+    private DataQuery query;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("sdc-benchmark");
+        Path file = directory.resolve("dataexport.csv");
+        SyntheticSolarData.write(file, START, FILE_MONTHS, SyntheticSolarData.DEFAULT_INTERVAL_MINUTES, SyntheticSolarData.DEFAULT_SEED);
+        filePath = file.toString();
+        csvReaderService = new CSVReaderService(new DataProcessor(), ingestMode);
+        // Poslední měsíc dotazu se do výsledků nezapočítává, proto "to" leží o měsíc dál.
+        query = new DataQuery(START, START.plusMonths(months), 3);
+
+        // Hlavička souboru se vypisuje při každém čtení; do měření nepatří.
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public ProcessingResult query() throws IOException {
+        return csvReaderService.process(filePath, query);
+    }
+}
@@ -0,0 +1,81 @@
+package org.SDC.benchmark;
+
+import org.SDC.DataProcessor;
+import org.SDC.DataQuery;
+import org.SDC.InMemoryDataset;
+import org.SDC.IngestMode;
+import org.SDC.ProcessingResult;
+import org.SDC.RowSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures queries over an `InMemoryDataset` of forty years of 15-minute data (about 1.4 million rows), once over
+ * the day totals summed by the dataset and once row by row through the `RowSource` interface, for one month,
+ * ten years and the whole dataset. The longest query sums its months in parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InMemoryBenchmark {
+
+    private static final YearMonth START = YearMonth.of(1990, 1);
+    private static final int FILE_MONTHS = 480;
+
+    /**
+     * The number of months of the query.
+     */
+    @Param({"1", "120", "480"})
+    public int months;
+
+    private final DataProcessor dataProcessor = new DataProcessor();
+    private InMemoryDataset dataset;
+    private DataQuery query;
+
+    @Setup
+    public void setUp() throws IOException {
+        Path file = Files.createTempFile("sdc-benchmark", ".csv");
+        PrintStream originalOut = System.out;
+        try {
+            SyntheticSolarData.write(file, START, FILE_MONTHS, SyntheticSolarData.DEFAULT_INTERVAL_MINUTES, SyntheticSolarData.DEFAULT_SEED);
+            // Hlavička souboru se vypisuje při načítání; do výstupu benchmarku nepatří.
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            dataset = InMemoryDataset.load(file.toString(), IngestMode.FAST);
+        } finally {
+            System.setOut(originalOut);
+            Files.delete(file);
+        }
+        // Poslední měsíc dotazu se do výsledků nezapočítává, proto "to" leží o měsíc dál.
+        query = new DataQuery(START, START.plusMonths(months), 3);
+    }
+
+    @Benchmark
+    public ProcessingResult dayTotals() {
+        return dataProcessor.process(query, dataset);
+    }
+
+    @Benchmark
+    public ProcessingResult rows() throws IOException {
+        return dataProcessor.process(query, (RowSource) dataset);
+    }
+}
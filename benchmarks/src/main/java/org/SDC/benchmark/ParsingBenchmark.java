@@ -0,0 +1,97 @@
+package org.SDC.benchmark;
+
+import org.SDC.CSVLineDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the decoding of single data rows (timestamp and value) by `CSVLineDecoder`:
+ * the allocation-free byte fast path against the commons-csv and `LocalDateTime.parse` path
+ * the application originally used for every row.
+ * <p>
+ * The input is one year of 15-minute rows; the reported time is per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParsingBenchmark {
+
+    // Rok 2010 není přestupný: 365 dní po 96 řádcích.
+    static final int ROWS = 365 * 96;
+    private static final int HEADER_LINES = 10;
+
+    private final CSVLineDecoder decoder = new CSVLineDecoder();
+    private ByteBuffer buffer;
+    private int[] lineStarts;
+    private int[] lineEnds;
+    private String[] lines;
+
+    @Setup
+    public void setUp() {
+        byte[] bytes = SyntheticSolarData.generate(YearMonth.of(2010, 1), 12, SyntheticSolarData.DEFAULT_INTERVAL_MINUTES,
+                SyntheticSolarData.DEFAULT_SEED).getBytes(StandardCharsets.UTF_8);
+        buffer = ByteBuffer.wrap(bytes);
+        lineStarts = new int[ROWS];
+        lineEnds = new int[ROWS];
+        lines = new String[ROWS];
+
+        int line = 0;
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                if (line >= HEADER_LINES) {
+                    lineStarts[line - HEADER_LINES] = start;
+                    lineEnds[line - HEADER_LINES] = i;
+                    lines[line - HEADER_LINES] = new String(bytes, start, i - start, StandardCharsets.UTF_8);
+                }
+                line++;
+                start = i + 1;
+            }
+        }
+        if (line - HEADER_LINES != ROWS) {
+            throw new IllegalStateException("Neočekávaný počet řádků: " + (line - HEADER_LINES));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double fastPath() throws IOException {
+        double checksum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            if (!decoder.decode(buffer, lineStarts[i], lineEnds[i])) {
+                decoder.decodeSlow(buffer, lineStarts[i], lineEnds[i]);
+            }
+            checksum += decoder.getValue() + decoder.getDayOfMonth() + decoder.getMinute();
+        }
+        return checksum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double commonsCsv() throws IOException {
+        double checksum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            decoder.decodeSlow(lines[i]);
+            checksum += decoder.getValue() + decoder.getDayOfMonth() + decoder.getMinute();
+        }
+        return checksum;
+    }
+}
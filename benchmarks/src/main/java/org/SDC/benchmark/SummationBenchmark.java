@@ -0,0 +1,97 @@
+package org.SDC.benchmark;
+
+import org.SDC.CSVLineDecoder;
+import org.SDC.FixedPointSum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of the exact fixed-point summation used by `QueryAccumulator` with a plain double sum,
+ * and measures the cost of summing in partitions that are merged afterwards, as parallel processing does.
+ * <p>
+ * The values of one year of 15-minute data are decoded in advance; the reported time is per value.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SummationBenchmark {
+
+    private static final int ROWS = ParsingBenchmark.ROWS;
+    private static final int PARTITIONS = 8;
+
+    private final double[] values = new double[ROWS];
+
+    @Setup
+    public void setUp() {
+        byte[] bytes = SyntheticSolarData.generate(YearMonth.of(2010, 1), 12, SyntheticSolarData.DEFAULT_INTERVAL_MINUTES,
+                SyntheticSolarData.DEFAULT_SEED).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CSVLineDecoder decoder = new CSVLineDecoder();
+        int row = 0;
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                if (decoder.decode(buffer, start, i)) {
+                    values[row++] = decoder.getValue();
+                }
+                start = i + 1;
+            }
+        }
+        if (row != ROWS) {
+            throw new IllegalStateException("Neočekávaný počet řádků: " + row);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double naive() {
+        double sum = 0;
+        for (int i = 0; i < ROWS; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double fixedPoint() {
+        FixedPointSum sum = new FixedPointSum();
+        for (int i = 0; i < ROWS; i++) {
+            sum.add(values[i]);
+        }
+        return sum.sum();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public double fixedPointPartitions() {
+        FixedPointSum total = new FixedPointSum();
+        int partitionSize = ROWS / PARTITIONS;
+        for (int p = 0; p < PARTITIONS; p++) {
+            FixedPointSum partition = new FixedPointSum();
+            int end = p == PARTITIONS - 1 ? ROWS : (p + 1) * partitionSize;
+            for (int i = p * partitionSize; i < end; i++) {
+                partition.add(values[i]);
+            }
+            total.add(partition);
+        }
+        return total.sum();
+    }
+}
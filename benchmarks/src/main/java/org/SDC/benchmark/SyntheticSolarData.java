@@ -0,0 +1,133 @@
+package org.SDC.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic solar radiation series in the layout of the real data export:
+ * the same ten header lines followed by "yyyyMMdd'T'HHmm,value" rows at a fixed interval.
+ * <p>
+ * Values follow a daily sine curve whose height and length change with the season, multiplied
+ * by a random cloudiness of the day; nights are 0.0. The series is deterministic for a given seed,
+ * so benchmark runs are comparable.
+ */
+public final class SyntheticSolarData {
+
+    /**
+     * The interval of the generated rows used by the benchmarks.
+     */
+    public static final int DEFAULT_INTERVAL_MINUTES = 15;
+
+    /**
+     * The seed used by the benchmarks.
+     */
+    public static final long DEFAULT_SEED = 20100101L;
+
+    private static final String HEADER = """
+            location,Basilej
+            lat,47.54694
+            lon,7.56892
+            asl,283.697
+            variable,Shortwave Radiation
+            unit,W/m²
+            level,sfc
+            resolution,15 min
+            aggregation,None
+            timestamp,Basilej Shortwave Radiation
+            """;
+
+    private SyntheticSolarData() {
+    }
+
+    /**
+     * Writes a synthetic data file.
+     * <p>
+     * Usage: {@code SyntheticSolarData <output file> <number of months> [interval in minutes]}
+     *
+     * @param args the output file, the number of months starting with January 2010 and optionally the interval.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Použití: SyntheticSolarData <výstupní soubor> <počet měsíců> [interval v minutách]");
+            return;
+        }
+        int intervalMinutes = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_INTERVAL_MINUTES;
+        write(Path.of(args[0]), YearMonth.of(2010, 1), Integer.parseInt(args[1]), intervalMinutes, DEFAULT_SEED);
+    }
+
+    /**
+     * Writes a synthetic data file.
+     *
+     * @param file            the file to write.
+     * @param start           the first month of the series.
+     * @param months          the number of months of the series.
+     * @param intervalMinutes the interval between two rows, a divisor of 1440.
+     * @param seed            the seed of the random cloudiness.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(Path file, YearMonth start, int months, int intervalMinutes, long seed) throws IOException {
+        Files.writeString(file, generate(start, months, intervalMinutes, seed), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Generates the content of a synthetic data file, including the header.
+     *
+     * @param start           the first month of the series.
+     * @param months          the number of months of the series.
+     * @param intervalMinutes the interval between two rows, a divisor of 1440.
+     * @param seed            the seed of the random cloudiness.
+     * @return the content of the file.
+     * @throws IllegalArgumentException if the number of months or the interval is not valid.
+     */
+    public static String generate(YearMonth start, int months, int intervalMinutes, long seed) {
+        if (months < 1) {
+            throw new IllegalArgumentException("Počet měsíců musí být kladný: " + months);
+        }
+        if (intervalMinutes < 1 || 1440 % intervalMinutes != 0) {
+            throw new IllegalArgumentException("Interval musí dělit 1440 minut: " + intervalMinutes);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDateTime end = start.plusMonths(months).atDay(1).atStartOfDay();
+        StringBuilder csv = new StringBuilder(HEADER.length() + months * 31 * (1440 / intervalMinutes) * 24);
+        csv.append(HEADER);
+
+        double cloudiness = 1;
+        for (LocalDateTime time = start.atDay(1).atStartOfDay(); time.isBefore(end); time = time.plusMinutes(intervalMinutes)) {
+            if (time.getHour() == 0 && time.getMinute() == 0) {
+                // Oblačnost se mění jednou za den.
+                cloudiness = 0.2 + 0.8 * random.nextDouble();
+            }
+            // Sezónní průběh: nejdelší a nejsilnější slunce v červnu, nejslabší v prosinci.
+            double season = Math.cos(2 * Math.PI * (time.getDayOfYear() - 172) / 365.25);
+            double dayLength = 12 + 4 * season;
+            double peak = 550 + 350 * season;
+            double hourOfDay = time.getHour() + time.getMinute() / 60.0;
+            double sinceSunrise = hourOfDay - (12 - dayLength / 2);
+            double value = sinceSunrise > 0 && sinceSunrise < dayLength
+                    ? peak * cloudiness * Math.sin(Math.PI * sinceSunrise / dayLength)
+                    : 0;
+
+            appendTimestamp(csv, time).append(',').append(Math.round(value * 100) / 100.0).append('\n');
+        }
+        return csv.toString();
+    }
+
+    private static StringBuilder appendTimestamp(StringBuilder csv, LocalDateTime time) {
+        csv.append(time.getYear());
+        appendTwoDigits(csv, time.getMonthValue());
+        appendTwoDigits(csv, time.getDayOfMonth());
+        csv.append('T');
+        appendTwoDigits(csv, time.getHour());
+        return appendTwoDigits(csv, time.getMinute());
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder csv, int value) {
+        return csv.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
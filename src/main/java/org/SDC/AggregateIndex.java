@@ -0,0 +1,158 @@
+package org.SDC;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Pre-aggregated daily rollup of a solar data export.
+ * <p>
+ * The index is built once per data file and stored next to it (with the suffix {@value #SUFFIX}).
+ * It holds the header lines and, for every run of consecutive rows of the same day, the day total
+ * and the number of rows, as a `DaySeries`. Monthly sums, season totals and the chosen day of the week averages
+ * are derived from these entries by `QueryAccumulator.processDay`, without touching the raw rows.
+ * <p>
+ * Daily totals are exact sums, see `FixedPointSum`, so the monthly and season totals derived from them are identical
+ * to row-by-row processing.
+ * <p>
+ * The index remembers the size and modification time of the CSV file and is rebuilt automatically
+ * whenever they change.
+ */
+public class AggregateIndex {
+
+    public static final String SUFFIX = ".sdcagg";
+
+    private static final int MAGIC = 0x53444341; // "SDCA"
+    private static final int VERSION = 3;
+
+    private final Path csvPath;
+    private final Path indexPath;
+
+    private List<String> headers;
+    private DaySeries days;
+
+    /**
+     * Creates an index for the given CSV file.
+     *
+     * @param filePath the path to the CSV file.
+     */
+    public AggregateIndex(String filePath) {
+        this.csvPath = Path.of(filePath);
+        this.indexPath = Path.of(filePath + SUFFIX);
+    }
+
+    /**
+     * Passes the day totals within the month range to the consumer, building or rebuilding the index first if needed.
+     *
+     * @param headerLines    the number of non-empty header lines preceding the data in the CSV file.
+     * @param headerConsumer receives the raw header lines.
+     * @param fromIndex      the first month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param toIndex        the last month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param dayConsumer    receives the day totals within the range in file order.
+     * @throws IOException if the CSV file or the index cannot be read or written.
+     */
+    public void read(int headerLines, Consumer<String> headerConsumer,
+                     int fromIndex, int toIndex, DayConsumer dayConsumer) throws IOException {
+        if (!load(headerLines)) {
+            build(headerLines);
+        }
+        headers.forEach(headerConsumer);
+        days.forEachDay((year, month, dayOfMonth, total, rowCount) -> {
+            int monthIndex = CalendarMath.monthIndex(year, month);
+            if (monthIndex >= fromIndex && monthIndex <= toIndex) {
+                dayConsumer.accept(year, month, dayOfMonth, total, rowCount);
+            }
+        });
+    }
+
+    /**
+     * Aggregates the CSV file into day totals and stores them.
+     */
+    private void build(int headerLines) throws IOException {
+        SourceFingerprint source = SourceFingerprint.of(csvPath);
+        headers = new ArrayList<>();
+        days = new DaySeries();
+        new SequentialCSVReader().read(csvPath.toString(), headerLines, headers::add, Integer.MIN_VALUE, Integer.MAX_VALUE, days);
+
+        Path tempPath = Files.createTempFile(indexPath.toAbsolutePath().getParent(), "sdc-agg", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(source.size());
+                out.writeLong(source.lastModified());
+                out.writeInt(headerLines);
+                out.writeInt(headers.size());
+                for (String header : headers) {
+                    out.writeUTF(header);
+                }
+                days.write(out);
+            }
+            try {
+                Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    /**
+     * Loads the stored index.
+     *
+     * @return false if the index is missing, damaged or out of date.
+     */
+    private boolean load(int headerLines) throws IOException {
+        if (!Files.isRegularFile(indexPath)) {
+            return false;
+        }
+        SourceFingerprint source = SourceFingerprint.of(csvPath);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || !source.matches(in.readLong(), in.readLong())
+                    || in.readInt() != headerLines) {
+                return false;
+            }
+            int headerCount = in.readInt();
+            List<String> loadedHeaders = new ArrayList<>(headerCount);
+            for (int i = 0; i < headerCount; i++) {
+                loadedHeaders.add(in.readUTF());
+            }
+            DaySeries loadedDays = DaySeries.read(in);
+            headers = loadedHeaders;
+            days = loadedDays;
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Receives the pre-aggregated totals of one day.
+     */
+    @FunctionalInterface
+    public interface DayConsumer {
+
+        /**
+         * Handles the totals of one day.
+         *
+         * @param year       the year of the day.
+         * @param month      the month of the day (1 = January, ..., 12 = December).
+         * @param dayOfMonth the day of the month.
+         * @param total      the exact sum of the values of the day; valid only during the call, it is reused for the next day.
+         * @param rowCount   the number of rows of the day.
+         */
+        void accept(int year, int month, int dayOfMonth, FixedPointSum total, int rowCount);
+    }
+}
@@ -26,7 +26,9 @@ public class ApplicationRunner {
      */
     public void run() {
         DataProcessor dataProcessor = new DataProcessor();
-        CSVReaderService csvReaderService = new CSVReaderService(dataProcessor);
+        // Cache je sdílená napříč opakováními, opakovaný dotaz se tak nemusí znovu počítat ze souboru.
+        CSVReaderService csvReaderService = new CSVReaderService(dataProcessor, IngestMode.fromSystemProperty(),
+                new LoggingResultSink(), ResultCache.fromSystemProperties());
         UserChoicesHandler userChoicesHandler = new UserChoicesHandler();
 
         String fromDate;
@@ -40,6 +42,8 @@ public class ApplicationRunner {
 
         try {
             csvReaderService.readAndProcessCSV("src/main/resources/dataexport.csv", fromDate, toDate, chosenDay == null ? 0 : chosenDay);
+        } catch (MalformedDataException e) {
+            System.out.println(e.getMessage());
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,176 @@
+package org.SDC;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Non-interactive batch mode.
+ * <p>
+ * Evaluates any number of from/to/day queries over one data file in a single pass: the file is read once
+ * and every row is passed to the `QueryAccumulator` of each query whose period contains it. The results of
+ * every query are logged through its own logger named after the query, e.g. {@code org.SDC.batch.201001-201012/3}.
+ * The lines of the individual chosen days can be left out with {@code -Dsdc.batchLogDays=false}.
+ */
+public class BatchRunner {
+
+    private static final Logger logger = LogManager.getLogger(BatchRunner.class);
+    // U velkých dávek lze výpis jednotlivých zvolených dnů vypnout (-Dsdc.batchLogDays=false).
+    private static final boolean LOG_DAYS = Boolean.parseBoolean(System.getProperty("sdc.batchLogDays", "true"));
+
+    private final IngestMode ingestMode;
+    private final boolean printHeader;
+
+    /**
+     * Creates a batch runner reading the data file with the given strategy.
+     *
+     * @param ingestMode the strategy used to read the CSV file.
+     */
+    public BatchRunner(IngestMode ingestMode) {
+        this(ingestMode, true);
+    }
+
+    private BatchRunner(IngestMode ingestMode, boolean printHeader) {
+        this.ingestMode = ingestMode;
+        this.printHeader = printHeader;
+    }
+
+    /**
+     * Reads queries from a file, one query per line. Empty lines and lines starting with '#' are ignored.
+     *
+     * @param queryFile the path to the file with queries.
+     * @return the parsed queries.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if a query is not valid.
+     */
+    public static List<DataQuery> readQueries(String queryFile) throws IOException {
+        List<DataQuery> queries = new ArrayList<>();
+        for (String line : Files.readAllLines(Path.of(queryFile))) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                queries.add(DataQuery.parse(trimmed));
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Evaluates all queries in a single pass over the data file and logs their results.
+     * When the export is enabled, every query gets its own export file, see {@link ResultExporter#fromSystemProperties(DataQuery)}.
+     * <p>
+     * With the ordered ingest the queries are evaluated again over the whole file if it turns out not to be sorted;
+     * the results are therefore exported only once the read has succeeded, and the header is printed only once.
+     *
+     * @param filePath the path to the CSV file.
+     * @param queries  the queries to evaluate.
+     * @return the results of the queries, in the order of the queries.
+     * @throws IOException if the file cannot be read or processed.
+     */
+    public List<ProcessingResult> run(String filePath, List<DataQuery> queries) throws IOException {
+        if (queries.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return runOnce(filePath, queries);
+        } catch (UnorderedDataException e) {
+            logger.warn("{} Dotazy se zpracují znovu nad celým souborem.", e.getMessage());
+            return new BatchRunner(IngestMode.FAST, false).runOnce(filePath, queries);
+        }
+    }
+
+    private List<ProcessingResult> runOnce(String filePath, List<DataQuery> queries) throws IOException {
+        DataProcessor dataProcessor = new DataProcessor();
+        int count = queries.size();
+        ResultExporter[] exporters = new ResultExporter[count];
+        // Seřazený soubor se může číst znovu celý, dny a měsíce se pak exportují až z hotových výsledků.
+        boolean streamed = ingestMode != IngestMode.ORDERED;
+        try {
+            if (streamed) {
+                createExporters(queries, exporters);
+            }
+            QueryAccumulator[] accumulators = evaluate(filePath, queries, dataProcessor, exporters);
+            if (!streamed) {
+                createExporters(queries, exporters);
+            }
+            List<ProcessingResult> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ProcessingResult result = accumulators[i].toResult();
+                results.add(result);
+                new LoggingResultSink(LogManager.getLogger("org.SDC.batch." + queries.get(i)), LOG_DAYS).accept(result);
+                if (exporters[i] != null) {
+                    if (!streamed) {
+                        ResultListener.replay(result, exporters[i]);
+                    }
+                    exporters[i].accept(result);
+                }
+            }
+            return results;
+        } finally {
+            for (ResultExporter exporter : exporters) {
+                if (exporter != null) {
+                    exporter.close();
+                }
+            }
+        }
+    }
+
+    private static void createExporters(List<DataQuery> queries, ResultExporter[] exporters) throws IOException {
+        for (int i = 0; i < exporters.length; i++) {
+            exporters[i] = ResultExporter.fromSystemProperties(queries.get(i));
+        }
+    }
+
+    private QueryAccumulator[] evaluate(String filePath, List<DataQuery> queries, DataProcessor dataProcessor,
+                                        ResultExporter[] exporters) throws IOException {
+        long start = ProcessingMetrics.start();
+        int count = queries.size();
+        QueryAccumulator[] accumulators = new QueryAccumulator[count];
+        int[] fromIndexes = new int[count];
+        int[] toIndexes = new int[count];
+        int fromIndex = Integer.MAX_VALUE;
+        int toIndex = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            DataQuery query = queries.get(i);
+            accumulators[i] = dataProcessor.newAccumulator(query, exporters[i] != null ? exporters[i] : ResultListener.NONE);
+            fromIndexes[i] = query.fromIndex();
+            toIndexes[i] = query.toIndex();
+            fromIndex = Math.min(fromIndex, fromIndexes[i]);
+            toIndex = Math.max(toIndex, toIndexes[i]);
+        }
+
+        CSVReaderService csvReaderService = new CSVReaderService(dataProcessor, ingestMode);
+        if (!printHeader) {
+            csvReaderService = csvReaderService.withoutHeader();
+        }
+        csvReaderService.readRows(filePath, fromIndex, toIndex, ProcessingMetrics.timed(new RowHandler() {
+            // Seznam dotazů, do jejichž období patří aktuální měsíc, se přepočítá jen při změně měsíce.
+            private int activeMonthIndex = Integer.MIN_VALUE;
+            private final int[] active = new int[count];
+            private int activeCount;
+
+            @Override
+            public void handle(int year, int month, int dayOfMonth, int minuteOfDay, double value) {
+                int monthIndex = CalendarMath.monthIndex(year, month);
+                if (monthIndex != activeMonthIndex) {
+                    activeMonthIndex = monthIndex;
+                    activeCount = 0;
+                    for (int i = 0; i < count; i++) {
+                        if (monthIndex >= fromIndexes[i] && monthIndex <= toIndexes[i]) {
+                            active[activeCount++] = i;
+                        }
+                    }
+                }
+                for (int a = 0; a < activeCount; a++) {
+                    accumulators[active[a]].processData(year, month, dayOfMonth, value);
+                }
+            }
+        }));
+        ProcessingMetrics.recordQueries(start, count);
+        return accumulators;
+    }
+}
@@ -0,0 +1,208 @@
+package org.SDC;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aggregates data rows into time buckets of one or more granularities in a single pass: for every bucket
+ * the count, sum, mean, minimum and maximum of the values.
+ * <p>
+ * The statistics of a granularity are kept in primitive arrays indexed by the bucket key relative to the
+ * smallest key seen, so a row costs a few array updates per granularity and no objects are created for
+ * the buckets. The arrays cover the whole span of keys between the first and the last bucket; windows of
+ * a few minutes over many years therefore need arrays of millions of entries. The sums are exact,
+ * see `FixedPointSum`.
+ * <p>
+ * A bucket takes {@value #BYTES_PER_BUCKET} bytes and growing the arrays briefly needs the old and the new ones,
+ * so the span of a granularity is limited to what fits into the maximum heap divided among the granularities.
+ * A period whose span does not fit fails with an `IllegalArgumentException` naming the needed and the available
+ * number of buckets before the arrays are allocated, instead of running out of memory.
+ * <p>
+ * Unlike `QueryAccumulator`, the aggregator has no notion of a period: it takes every row it is given.
+ * An aggregator is not thread-safe; it is used by one reading thread.
+ *
+ * @see DataProcessor#aggregate(DataQuery, RowSource, List)
+ */
+public final class BucketAggregator implements RowHandler {
+
+    static final int BYTES_PER_BUCKET = Long.BYTES * (3 + FixedPointSum.SLOTS);
+    // Největší pole, které JVM vytvoří, pro součty o FixedPointSum.SLOTS prvcích na kus.
+    private static final int MAX_ARRAY_BUCKETS = (Integer.MAX_VALUE - 8) / FixedPointSum.SLOTS;
+
+    private final Buckets[] buckets;
+    private int lastDate = Integer.MIN_VALUE;
+    private long epochDay;
+
+    /**
+     * Creates an aggregator for the given granularities.
+     *
+     * @param granularities the granularities to aggregate into, at least one.
+     */
+    public BucketAggregator(List<TimeBucket> granularities) {
+        this(granularities, Runtime.getRuntime().maxMemory() / (2L * BYTES_PER_BUCKET * Math.max(1, granularities.size())));
+    }
+
+    /**
+     * Creates an aggregator whose granularities span at most the given number of buckets each.
+     *
+     * @param granularities the granularities to aggregate into, at least one.
+     * @param maxBuckets    the maximum span of a granularity in buckets.
+     */
+    BucketAggregator(List<TimeBucket> granularities, long maxBuckets) {
+        if (granularities.isEmpty()) {
+            throw new IllegalArgumentException("Zadejte alespoň jedno členění.");
+        }
+        int limit = (int) Math.min(MAX_ARRAY_BUCKETS, maxBuckets);
+        buckets = new Buckets[granularities.size()];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Buckets(granularities.get(i), limit);
+        }
+    }
+
+    @Override
+    public void handle(int year, int month, int dayOfMonth, int minuteOfDay, double value) {
+        // Den se přepočítává jen při změně data, ostatní klíče jsou jednoduchá aritmetika.
+        int date = CalendarMath.packDate(year, month, dayOfMonth);
+        if (date != lastDate) {
+            epochDay = CalendarMath.epochDay(year, month, dayOfMonth);
+            lastDate = date;
+        }
+        for (Buckets granularity : buckets) {
+            granularity.add(granularity.bucket.key(year, month, epochDay, minuteOfDay), value);
+        }
+    }
+
+    /**
+     * Returns the non-empty buckets aggregated so far.
+     *
+     * @return one series per granularity, in the order the granularities were given.
+     */
+    public List<BucketSeries> toResult() {
+        List<BucketSeries> result = new ArrayList<>(buckets.length);
+        for (Buckets granularity : buckets) {
+            result.add(granularity.toSeries());
+        }
+        return result;
+    }
+
+    /**
+     * Statistics of the buckets of one granularity.
+     */
+    private static final class Buckets {
+
+        private final TimeBucket bucket;
+        private final int maxBuckets;
+        private long firstKey;
+        private int span;
+        private long[] counts = new long[0];
+        private long[] sums = new long[0];
+        private double[] minimums = new double[0];
+        private double[] maximums = new double[0];
+
+        Buckets(TimeBucket bucket, int maxBuckets) {
+            this.bucket = bucket;
+            this.maxBuckets = maxBuckets;
+        }
+
+        void add(long key, double value) {
+            int index = indexOf(key);
+            FixedPointSum.add(sums, index, value);
+            if (counts[index]++ == 0) {
+                minimums[index] = value;
+                maximums[index] = value;
+            } else if (value < minimums[index]) {
+                minimums[index] = value;
+            } else if (value > maximums[index]) {
+                maximums[index] = value;
+            }
+        }
+
+        private int indexOf(long key) {
+            if (span == 0) {
+                firstKey = key;
+                resize(16, 0);
+                span = 1;
+                return 0;
+            }
+            long offset = key - firstKey;
+            if (offset >= 0 && offset < span) {
+                return (int) offset;
+            }
+            if (offset >= span) {
+                ensureSpan(offset + 1);
+                if (offset >= counts.length) {
+                    resize(grownCapacity(offset + 1), 0);
+                }
+                span = (int) offset + 1;
+                return (int) offset;
+            }
+            // Řádek před dosud nejstarším kusem: pole se posunou doprava.
+            long shift = -offset;
+            ensureSpan(span + shift);
+            resize(grownCapacity(span + shift), (int) shift);
+            firstKey = key;
+            span += (int) shift;
+            return 0;
+        }
+
+        private void ensureSpan(long needed) {
+            if (needed > maxBuckets) {
+                throw new IllegalArgumentException("Členění " + bucket + " potřebuje pro zvolené období " + needed
+                        + " kusů, do paměti (-Xmx) se jich vejde nejvýš " + maxBuckets + "; zvolte delší okno nebo kratší období.");
+            }
+        }
+
+        private int grownCapacity(long needed) {
+            return (int) Math.min(maxBuckets, Math.max(needed, counts.length * 2L));
+        }
+
+        private void resize(int capacity, int shift) {
+            counts = copy(counts, capacity, shift);
+            sums = copy(sums, capacity, shift, FixedPointSum.SLOTS);
+            minimums = copy(minimums, capacity, shift);
+            maximums = copy(maximums, capacity, shift);
+        }
+
+        private long[] copy(long[] array, int capacity, int shift) {
+            return copy(array, capacity, shift, 1);
+        }
+
+        private long[] copy(long[] array, int capacity, int shift, int slots) {
+            long[] copy = new long[capacity * slots];
+            System.arraycopy(array, 0, copy, shift * slots, span * slots);
+            return copy;
+        }
+
+        private double[] copy(double[] array, int capacity, int shift) {
+            double[] copy = new double[capacity];
+            System.arraycopy(array, 0, copy, shift, span);
+            return copy;
+        }
+
+        BucketSeries toSeries() {
+            int size = 0;
+            for (int i = 0; i < span; i++) {
+                if (counts[i] > 0) {
+                    size++;
+                }
+            }
+            long[] keys = new long[size];
+            long[] nonEmptyCounts = new long[size];
+            double[] nonEmptySums = new double[size];
+            double[] nonEmptyMinimums = new double[size];
+            double[] nonEmptyMaximums = new double[size];
+            int k = 0;
+            for (int i = 0; i < span; i++) {
+                if (counts[i] > 0) {
+                    keys[k] = firstKey + i;
+                    nonEmptyCounts[k] = counts[i];
+                    nonEmptySums[k] = FixedPointSum.value(sums, i);
+                    nonEmptyMinimums[k] = minimums[i];
+                    nonEmptyMaximums[k] = maximums[i];
+                    k++;
+                }
+            }
+            return new BucketSeries(bucket, keys, nonEmptyCounts, nonEmptySums, nonEmptyMinimums, nonEmptyMaximums);
+        }
+    }
+}
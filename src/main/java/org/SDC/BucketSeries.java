@@ -0,0 +1,98 @@
+package org.SDC;
+
+/**
+ * Immutable result of a bucketed aggregation for one granularity: the count, sum, mean, minimum and maximum
+ * of the values of every non-empty bucket, in the order of the bucket keys.
+ * <p>
+ * The statistics are kept in primitive arrays; bucket {@code i} is described by the values at index {@code i}.
+ *
+ * @see BucketAggregator
+ */
+public final class BucketSeries {
+
+    private final TimeBucket bucket;
+    private final long[] keys;
+    private final long[] counts;
+    private final double[] sums;
+    private final double[] minimums;
+    private final double[] maximums;
+
+    BucketSeries(TimeBucket bucket, long[] keys, long[] counts, double[] sums, double[] minimums, double[] maximums) {
+        this.bucket = bucket;
+        this.keys = keys;
+        this.counts = counts;
+        this.sums = sums;
+        this.minimums = minimums;
+        this.maximums = maximums;
+    }
+
+    /**
+     * @return the granularity of the buckets.
+     */
+    public TimeBucket bucket() {
+        return bucket;
+    }
+
+    /**
+     * @return the number of non-empty buckets.
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @param index the index of the bucket.
+     * @return the key of the bucket, see {@link TimeBucket#key(int, int, long, int)}.
+     */
+    public long key(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @param index the index of the bucket.
+     * @return the readable label of the bucket, see {@link TimeBucket#label(long)}.
+     */
+    public String label(int index) {
+        return bucket.label(keys[index]);
+    }
+
+    /**
+     * @param index the index of the bucket.
+     * @return the number of values in the bucket.
+     */
+    public long count(int index) {
+        return counts[index];
+    }
+
+    /**
+     * @param index the index of the bucket.
+     * @return the sum of the values in the bucket.
+     */
+    public double sum(int index) {
+        return sums[index];
+    }
+
+    /**
+     * @param index the index of the bucket.
+     * @return the mean of the values in the bucket.
+     */
+    public double mean(int index) {
+        return sums[index] / counts[index];
+    }
+
+    /**
+     * @param index the index of the bucket.
+     * @return the smallest value in the bucket.
+     */
+    public double min(int index) {
+        return minimums[index];
+    }
+
+    /**
+     * @param index the index of the bucket.
+     * @return the largest value in the bucket.
+     */
+    public double max(int index) {
+        return maximums[index];
+    }
+}
@@ -0,0 +1,207 @@
+package org.SDC;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Decodes a single data row of the solar export ("yyyyMMdd'T'HHmm,value") into primitive fields.
+ * <p>
+ * The fast path reads the bytes of the line directly and creates no objects. Rows that do not
+ * match the regular layout (quoted fields, exponents, unusual whitespace...) are decoded by the
+ * commons-csv and `java.time` based fallback, which behaves exactly like the original reader,
+ * including the exceptions it throws for malformed data.
+ * <p>
+ * An instance keeps the fields of the last decoded row and is meant to be reused by one thread.
+ */
+public final class CSVLineDecoder {
+
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmm");
+    private static final int TIMESTAMP_LENGTH = 13;
+    // 10^15 < 2^53, takže mantisa i dělitel jsou v double přesné a dělení je správně zaokrouhlené.
+    private static final int MAX_EXACT_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private int year;
+    private int month;
+    private int dayOfMonth;
+    private int hour;
+    private int minute;
+    private double value;
+
+    /**
+     * Decodes a line using the allocation-free fast path.
+     *
+     * @param buffer the buffer containing the line.
+     * @param start  the index of the first byte of the line.
+     * @param end    the index after the last byte of the line, without the line terminator.
+     * @return true if the line was decoded, false if it has to be decoded by {@link #decodeSlow(ByteBuffer, int, int)}.
+     */
+    public boolean decode(ByteBuffer buffer, int start, int end) {
+        if (end - start < TIMESTAMP_LENGTH + 1 || buffer.get(start + 8) != 'T' || buffer.get(start + TIMESTAMP_LENGTH) != ',') {
+            return false;
+        }
+        int y = digits(buffer, start, 4);
+        int mo = digits(buffer, start + 4, 2);
+        int d = digits(buffer, start + 6, 2);
+        int h = digits(buffer, start + 9, 2);
+        int mi = digits(buffer, start + 11, 2);
+        if (y < 0 || mo < 1 || mo > 12 || d < 1 || d > CalendarMath.lengthOfMonth(y, mo)
+                || h < 0 || h > 23 || mi < 0 || mi > 59) {
+            return false;
+        }
+        if (!decodeValue(buffer, start + TIMESTAMP_LENGTH + 1, end)) {
+            return false;
+        }
+        year = y;
+        month = mo;
+        dayOfMonth = d;
+        hour = h;
+        minute = mi;
+        return true;
+    }
+
+    /**
+     * Decodes a line that the fast path rejected, using commons-csv and `LocalDateTime.parse`.
+     *
+     * @param buffer the buffer containing the line.
+     * @param start  the index of the first byte of the line.
+     * @param end    the index after the last byte of the line, without the line terminator.
+     * @throws IOException if the line is not valid CSV.
+     */
+    public void decodeSlow(ByteBuffer buffer, int start, int end) throws IOException {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        decodeSlow(new String(bytes, Charset.defaultCharset()));
+    }
+
+    /**
+     * Decodes a line using commons-csv and `LocalDateTime.parse`.
+     *
+     * @param line the text of the line.
+     * @throws IOException if the line is not valid CSV.
+     */
+    public void decodeSlow(String line) throws IOException {
+        try (CSVParser csvParser = CSVParser.parse(line, CSVFormat.DEFAULT)) {
+            CSVRecord csvRecord = csvParser.iterator().next();
+            String timestampStr = csvRecord.get(0);
+            String valueStr = csvRecord.get(1);
+            if (valueStr == null || valueStr.isEmpty()) { // If empty = 0.
+                valueStr = "0";
+            }
+            LocalDateTime timestamp = LocalDateTime.parse(timestampStr, formatter);
+            value = Double.parseDouble(valueStr);
+            year = timestamp.getYear();
+            month = timestamp.getMonthValue();
+            dayOfMonth = timestamp.getDayOfMonth();
+            hour = timestamp.getHour();
+            minute = timestamp.getMinute();
+        }
+    }
+
+    private static int digits(ByteBuffer buffer, int from, int count) {
+        int result = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private boolean decodeValue(ByteBuffer buffer, int from, int end) {
+        if (from == end) { // If empty = 0.
+            value = 0;
+            return true;
+        }
+        int position = from;
+        boolean negative = false;
+        byte first = buffer.get(position);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            position++;
+        }
+        long mantissa = 0;
+        int digitCount = 0;
+        int fractionDigits = 0;
+        boolean dot = false;
+        for (int i = position; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b == '.' && !dot) {
+                dot = true;
+                continue;
+            }
+            int digit = b - '0';
+            if (digit < 0 || digit > 9 || ++digitCount > MAX_EXACT_DIGITS) {
+                return decodeNumericValue(buffer, from, end);
+            }
+            mantissa = mantissa * 10 + digit;
+            if (dot) {
+                fractionDigits++;
+            }
+        }
+        if (digitCount == 0) {
+            return false;
+        }
+        double result = mantissa / POWERS_OF_TEN[fractionDigits];
+        value = negative ? -result : result;
+        return true;
+    }
+
+    /**
+     * Parses values that are numeric but too long or written with an exponent through `Double.parseDouble`.
+     *
+     * @return false if the field contains anything else than a plain number.
+     */
+    private boolean decodeNumericValue(ByteBuffer buffer, int from, int end) {
+        byte[] bytes = new byte[end - from];
+        for (int i = from; i < end; i++) {
+            byte b = buffer.get(i);
+            if (!(b >= '0' && b <= '9' || b == '.' || b == 'e' || b == 'E' || b == '+' || b == '-')) {
+                return false;
+            }
+            bytes[i - from] = b;
+        }
+        try {
+            value = Double.parseDouble(new String(bytes, StandardCharsets.ISO_8859_1));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public int getDayOfMonth() {
+        return dayOfMonth;
+    }
+
+    public int getHour() {
+        return hour;
+    }
+
+    public int getMinute() {
+        return minute;
+    }
+
+    public double getValue() {
+        return value;
+    }
+}
@@ -3,13 +3,22 @@ package org.SDC;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class is responsible for reading and processing CSV files containing solar data.
@@ -20,22 +29,67 @@ import java.time.format.DateTimeFormatter;
  */
 public class CSVReaderService {
 
-    private static final int HEADER_LINES = 10;
+    private static final Logger logger = LogManager.getLogger(CSVReaderService.class);
+    static final int HEADER_LINES = 10;
     private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmm");
 
     private DataProcessor dataProcessor;
+    private IngestMode ingestMode;
+    private ResultSink resultSink;
+    private ResultCache resultCache;
+    private boolean printHeader = true;
 
     /**
      * Constructor to initialize CSVReaderService with a DataProcessor instance.
+     * The fast ingest path is used.
      *
      * @param dataProcessor an instance of DataProcessor that handles data calculations.
      */
     public CSVReaderService(DataProcessor dataProcessor) {
+        this(dataProcessor, IngestMode.FAST);
+    }
+
+    /**
+     * Constructor to initialize CSVReaderService with a DataProcessor instance and an ingest strategy.
+     *
+     * @param dataProcessor an instance of DataProcessor that handles data calculations.
+     * @param ingestMode    the strategy used to read the CSV file.
+     */
+    public CSVReaderService(DataProcessor dataProcessor, IngestMode ingestMode) {
+        this(dataProcessor, ingestMode, new LoggingResultSink());
+    }
+
+    /**
+     * Constructor to initialize CSVReaderService with a DataProcessor instance, an ingest strategy
+     * and the sink receiving the results of the interactive queries.
+     *
+     * @param dataProcessor an instance of DataProcessor that handles data calculations.
+     * @param ingestMode    the strategy used to read the CSV file.
+     * @param resultSink    the sink receiving the results, e.g. a `LoggingResultSink`.
+     */
+    public CSVReaderService(DataProcessor dataProcessor, IngestMode ingestMode, ResultSink resultSink) {
+        this(dataProcessor, ingestMode, resultSink, null);
+    }
+
+    /**
+     * Constructor to initialize CSVReaderService with a DataProcessor instance, an ingest strategy, the sink receiving
+     * the results of the interactive queries and a cache answering repeated queries without reading the file.
+     *
+     * @param dataProcessor an instance of DataProcessor that handles data calculations.
+     * @param ingestMode    the strategy used to read the CSV file.
+     * @param resultSink    the sink receiving the results, e.g. a `LoggingResultSink`.
+     * @param resultCache   the cache of query results, null to always read the file.
+     */
+    public CSVReaderService(DataProcessor dataProcessor, IngestMode ingestMode, ResultSink resultSink, ResultCache resultCache) {
         this.dataProcessor = dataProcessor;
+        this.ingestMode = ingestMode;
+        this.resultSink = resultSink;
+        this.resultCache = resultCache;
     }
 
     /**
      * Reads and processes a CSV file by filtering the data based on date range and optional day selection.
+     * The results are exported to a file as well when enabled, see {@link ResultExporter#fromSystemProperties(DataQuery)}.
      * After processing the CSV, it logs the results and asks if the user wants to repeat the process or exit the program.
      *
      * @param filePath the path to the CSV file.
@@ -51,43 +105,371 @@ public class CSVReaderService {
 
         YearMonth fromDate = YearMonth.parse(from, DateTimeFormatter.ofPattern("yyyyMM"));
         YearMonth toDate = YearMonth.parse(to, DateTimeFormatter.ofPattern("yyyyMM"));
-        YearMonth theLastMonthYear = toDate;
 
+        DataQuery query = new DataQuery(fromDate, toDate, day);
+        try (ResultExporter exporter = ResultExporter.fromSystemProperties(query)) {
+            ProcessingResult result = process(filePath, query, exporter != null ? exporter : ResultListener.NONE);
+            resultSink.accept(result);
+            if (exporter != null) {
+                exporter.accept(result);
+            }
+        }
+        if (userChoicesHandler.askForRepeatOrExit()) {
+            applicationRunner.run();
+        } else {
+            System.out.println("Program ukončen.");
+        }
+    }
+
+    /**
+     * Evaluates a query over the CSV file using the configured ingest strategy.
+     *
+     * @param filePath the path to the CSV file.
+     * @param query    the query to evaluate.
+     * @return the result of the query.
+     * @throws IOException if the file cannot be read or processed.
+     */
+    public ProcessingResult process(String filePath, DataQuery query) throws IOException {
+        return process(filePath, query, ResultListener.NONE);
+    }
+
+    /**
+     * Evaluates a query over the CSV file using the configured ingest strategy, passing the days and months
+     * to the listener as soon as they are completed.
+     * <p>
+     * If a result cache is configured and holds the result of the query over the current version of the file,
+     * only the file header is read; the cached days and months are then passed to the listener at once.
+     * The cache is not used with the lenient ingest or the report of missing intervals, whose reports belong to every
+     * read, nor with the in-memory dataset, whose results are less precise, see {@link ResultCache#applies()}.
+     * With {@code -Dsdc.inMemory=true} the file is loaded into a shared `InMemoryDataset` by the first query
+     * and the following queries are answered from memory until the file changes. The dataset keeps the values
+     * as floats, so its totals may differ from reading the file from about the 7th significant digit on.
+     *
+     * @param filePath       the path to the CSV file.
+     * @param query          the query to evaluate.
+     * @param resultListener receives the days and months as they are completed, e.g. a `ResultExporter`.
+     * @return the result of the query.
+     * @throws IOException if the file cannot be read or processed.
+     */
+    public ProcessingResult process(String filePath, DataQuery query, ResultListener resultListener) throws IOException {
+        if (resultCache == null || !ResultCache.applies()) {
+            return evaluate(filePath, query, resultListener);
+        }
+        ResultCache.Key key = new ResultCache.Key(SourceFingerprint.of(Path.of(filePath)), ingestMode, query);
+        ProcessingResult cached = resultCache.get(key);
+        if (cached != null) {
+            printHeader(filePath);
+            ResultListener.replay(cached, resultListener);
+            return cached;
+        }
+        ProcessingResult result = evaluate(filePath, query, resultListener);
+        resultCache.put(key, result);
+        return result;
+    }
+
+    private ProcessingResult evaluate(String filePath, DataQuery query, ResultListener resultListener) throws IOException {
+        if (InMemoryDataset.enabled()) {
+            // Hlavičku vypíše jen načtení souboru, dotazy nad již načtenými daty ji vypisují samy.
+            if (InMemoryDataset.isShared(filePath, ingestMode)) {
+                printHeader(filePath);
+            }
+            return dataProcessor.process(query, InMemoryDataset.shared(filePath, ingestMode), resultListener);
+        }
+        // Kontroly jednotlivých řádků potřebují řádky, index denních součtů je nemá.
+        if (ingestMode == IngestMode.AGGREGATE_INDEX && !Quarantine.enabled() && !GapDetector.enabled()) {
+            return processAggregateIndex(filePath, query, resultListener);
+        }
+        if (ingestMode == IngestMode.PARALLEL_MAPPED && !Quarantine.enabled() && !GapDetector.enabled()) {
+            return processParallel(filePath, query, resultListener);
+        }
+        if (ingestMode == IngestMode.ORDERED) {
+            return processOrdered(filePath, query, resultListener);
+        }
+        return dataProcessor.process(query, rowSource(filePath), resultListener);
+    }
+
+    /**
+     * Creates a follower keeping the results of a query up to date while new rows are appended to the CSV file.
+     * The follower counts the rows of the {@code to} month too, see {@link DataProcessor#newRunningAccumulator(DataQuery)}.
+     *
+     * @param filePath the path to the CSV file.
+     * @param query    the query to evaluate.
+     * @return the follower; the file is read by its first poll.
+     */
+    public TailFollower follower(String filePath, DataQuery query) {
+        return new TailFollower(Path.of(filePath), HEADER_LINES, this::printHeaderLineUnchecked, query,
+                () -> dataProcessor.newRunningAccumulator(query));
+    }
+
+    /**
+     * Returns the CSV file as a source of rows read with the configured ingest strategy.
+     *
+     * @param filePath the path to the CSV file.
+     * @return the row source reading the file.
+     */
+    public RowSource rowSource(String filePath) {
+        return (fromIndex, toIndex, rowHandler) -> readRows(filePath, fromIndex, toIndex, rowHandler);
+    }
+
+    /**
+     * Prints the file header and passes the data rows within the month range to the row handler in file order,
+     * using the configured ingest strategy. Strategies that do not work with individual rows fall back to the fast path.
+     * The read is measured by the `ProcessingMetrics`.
+     * <p>
+     * With the lenient ingest (see {@link Quarantine#fromSystemProperties(Path)}) malformed rows are quarantined
+     * instead of aborting the read; only the fast path and the commons-csv reader can skip rows, so the other
+     * strategies fall back to the fast path. Missing intervals in the rows read are reported per month when enabled,
+     * see {@link GapDetector#fromSystemProperties(RowHandler)}.
+     *
+     * @param filePath   the path to the CSV file.
+     * @param fromIndex  the first month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param toIndex    the last month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param rowHandler receives the data rows within the range.
+     * @throws IOException if the file cannot be read or processed, or a `MalformedDataException` if too many rows are malformed.
+     */
+    public void readRows(String filePath, int fromIndex, int toIndex, RowHandler rowHandler) throws IOException {
+        long start = ProcessingMetrics.start();
+        GapDetector gapDetector = GapDetector.fromSystemProperties(rowHandler);
+        try (Quarantine quarantine = Quarantine.fromSystemProperties(Path.of(filePath))) {
+            readRowsWithIngestMode(filePath, fromIndex, toIndex, gapDetector != null ? gapDetector : rowHandler, quarantine);
+        } catch (DateTimeException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            // Řádek, který nelze přečíst ani pomalou cestou.
+            ProcessingMetrics.recordParseError();
+            throw e;
+        } finally {
+            ProcessingMetrics.recordRead(start);
+        }
+        if (gapDetector != null) {
+            gapDetector.logGaps(filePath);
+        }
+    }
+
+    private void readRowsWithIngestMode(String filePath, int fromIndex, int toIndex, RowHandler rowHandler,
+                                        Quarantine quarantine) throws IOException {
+        if (quarantine != null && ingestMode != IngestMode.COMMONS_CSV) {
+            if (ingestMode != IngestMode.FAST) {
+                logger.info("Tolerantní čtení souboru probíhá sekvenčně místo režimu {}.", ingestMode);
+            }
+            new SequentialCSVReader().read(filePath, HEADER_LINES, this::printHeaderLineUnchecked, fromIndex, toIndex, rowHandler, quarantine);
+            return;
+        }
+        switch (ingestMode) {
+            case COMMONS_CSV -> readWithCommonsCsv(filePath, fromIndex, toIndex, rowHandler, quarantine);
+            // Paměťově mapovaný soubor rozdělený na bloky zpracovávané paralelně.
+            case PARALLEL_MAPPED -> new ParallelCSVReader().read(filePath, HEADER_LINES, this::printHeaderLineUnchecked, fromIndex, toIndex, rowHandler);
+            // Seřazený soubor, čte se jen úsek s požadovanými měsíci.
+            case ORDERED -> new OrderedCSVReader().read(filePath, HEADER_LINES, this::printHeaderLineUnchecked, fromIndex, toIndex, rowHandler);
+            // Binární sloupcová kopie souboru, čtou se jen požadované měsíce.
+            case COLUMNAR_CACHE -> new ColumnarCache(filePath).read(HEADER_LINES, this::printHeaderLineUnchecked, fromIndex, toIndex, rowHandler);
+            default -> new SequentialCSVReader().read(filePath, HEADER_LINES, this::printHeaderLineUnchecked, fromIndex, toIndex, rowHandler);
+        }
+    }
+
+    /**
+     * Reads the file record by record through commons-csv.
+     *
+     * @param filePath   the path to the CSV file.
+     * @param fromIndex  the first month to accept.
+     * @param toIndex    the last month to accept.
+     * @param rowHandler receives the data rows within the range.
+     * @param quarantine receives the malformed rows, null to abort the read on the first one.
+     * @throws IOException if the file cannot be read or processed.
+     */
+    private void readWithCommonsCsv(String filePath, int fromIndex, int toIndex, RowHandler rowHandler,
+                                    Quarantine quarantine) throws IOException {
         try (Reader reader = new FileReader(filePath);
              CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT)) {
 
             int currentLine = 0;
+            long rows = 0;
+            long filteredRows = 0;
 
             for (CSVRecord csvRecord : csvParser) {
                 currentLine++;
                 // Přeskočení hlavičky
                 if (currentLine <= HEADER_LINES) {
                     // Vypisování hlavičky
-                    System.out.println(csvRecord.get(0) + ": " + csvRecord.get(1));
+                    if (printHeader) {
+                        System.out.println(csvRecord.get(0) + ": " + csvRecord.get(1));
+                    }
                     continue;
                 }
 
-                String timestampStr = csvRecord.get(0); // First column.
-                String valueStr = csvRecord.get(1);     // Second column.
-                if (valueStr == null || valueStr.isEmpty()) { // If empty = 0.
-                    valueStr = "0";
-                }
+                LocalDateTime timestamp;
+                double value;
+                try {
+                    String timestampStr = csvRecord.get(0); // First column.
+                    String valueStr = csvRecord.get(1);     // Second column.
+                    if (valueStr == null || valueStr.isEmpty()) { // If empty = 0.
+                        valueStr = "0";
+                    }
 
-                LocalDateTime timestamp = LocalDateTime.parse(timestampStr, formatter);
-                double value = Double.parseDouble(valueStr);
+                    timestamp = LocalDateTime.parse(timestampStr, formatter);
+                    value = Double.parseDouble(valueStr);
+                } catch (RuntimeException e) {
+                    if (quarantine == null) {
+                        throw e;
+                    }
+                    quarantine.reject(csvParser.getCurrentLineNumber(), String.join(",", csvRecord), e, rows);
+                    continue;
+                }
+                rows++;
 
                 // From/To filtration.
-                YearMonth recordYearMonth = YearMonth.from(timestamp);
-                if (!recordYearMonth.isBefore(fromDate) && !recordYearMonth.isAfter(toDate)) {
-                    dataProcessor.processData(timestamp, value, day, theLastMonthYear);
+                int recordIndex = CalendarMath.monthIndex(timestamp.getYear(), timestamp.getMonthValue());
+                if (recordIndex >= fromIndex && recordIndex <= toIndex) {
+                    rowHandler.handle(timestamp.getYear(), timestamp.getMonthValue(), timestamp.getDayOfMonth(),
+                            timestamp.getHour() * 60 + timestamp.getMinute(), value);
+                } else {
+                    filteredRows++;
                 }
             }
+            ProcessingMetrics.recordRows(rows, filteredRows, 0, ProcessingMetrics.ENABLED ? Files.size(Path.of(filePath)) : 0);
+            if (quarantine != null) {
+                quarantine.finish(rows);
+            }
         }
-        dataProcessor.logTotalResults();
-        if (userChoicesHandler.askForRepeatOrExit()) {
-            applicationRunner.run();
-        } else {
-            System.out.println("Program ukončen.");
+    }
+
+    /**
+     * Evaluates a query by reading the file in parallel chunks that are aggregated into day totals on the workers,
+     * see {@link ParallelCSVReader#readDays}.
+     *
+     * @param filePath       the path to the CSV file.
+     * @param query          the query to evaluate.
+     * @param resultListener receives the days and months as they are completed.
+     * @return the result of the query.
+     * @throws IOException if the file cannot be read or processed.
+     */
+    private ProcessingResult processParallel(String filePath, DataQuery query, ResultListener resultListener) throws IOException {
+        long start = ProcessingMetrics.start();
+        QueryAccumulator accumulator = dataProcessor.newAccumulator(query, resultListener);
+        try {
+            new ParallelCSVReader().readDays(filePath, HEADER_LINES, this::printHeaderLineUnchecked, query.fromIndex(), query.toIndex(),
+                    accumulator::processDay);
+        } catch (DateTimeException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            // Řádek, který nelze přečíst ani pomalou cestou.
+            ProcessingMetrics.recordParseError();
+            throw e;
+        } finally {
+            ProcessingMetrics.recordRead(start);
+        }
+        ProcessingResult result = accumulator.toResult();
+        ProcessingMetrics.recordQueries(start, 1);
+        return result;
+    }
+
+    /**
+     * Answers the query from the pre-aggregated daily index of the file, building it first if it does not
+     * exist or is out of date. If the index cannot be stored next to the file, the raw rows are processed instead.
+     *
+     * @param filePath       the path to the CSV file.
+     * @param query          the query to evaluate.
+     * @param resultListener receives the days and months as they are completed.
+     * @return the result of the query.
+     * @throws IOException if the file or the index cannot be read or processed.
+     */
+    private ProcessingResult processAggregateIndex(String filePath, DataQuery query, ResultListener resultListener) throws IOException {
+        long start = ProcessingMetrics.start();
+        QueryAccumulator accumulator = dataProcessor.newAccumulator(query, resultListener);
+        try {
+            new AggregateIndex(filePath).read(HEADER_LINES, this::printHeaderLineUnchecked, query.fromIndex(), query.toIndex(),
+                    accumulator::processDay);
+            ProcessingMetrics.recordRead(start);
+        } catch (AccessDeniedException e) {
+            logger.warn("Index souboru nelze uložit ({}), data budou zpracována přímo ze souboru.", e.getFile());
+            return dataProcessor.process(query, rowSource(filePath), resultListener);
+        }
+        ProcessingResult result = accumulator.toResult();
+        ProcessingMetrics.recordQueries(start, 1);
+        return result;
+    }
+
+    /**
+     * Evaluates the query over the part of the sorted file within the period. If the file turns out not to be
+     * sorted, the query is evaluated again over the whole file. The completed days and months are therefore passed
+     * to the listener only once the read has succeeded.
+     *
+     * @param filePath       the path to the CSV file.
+     * @param query          the query to evaluate.
+     * @param resultListener receives the days and months of the successful read.
+     * @return the result of the query.
+     * @throws IOException if the file cannot be read or processed.
+     */
+    private ProcessingResult processOrdered(String filePath, DataQuery query, ResultListener resultListener) throws IOException {
+        List<Object> completed = new ArrayList<>();
+        ProcessingResult result;
+        try {
+            result = dataProcessor.process(query, rowSource(filePath), new ResultListener() {
+                @Override
+                public void monthCompleted(ProcessingResult.MonthResult month) {
+                    completed.add(month);
+                }
+
+                @Override
+                public void dayCompleted(ProcessingResult.DayResult day) {
+                    completed.add(day);
+                }
+            });
+        } catch (UnorderedDataException e) {
+            logger.warn("{} Zpracuje se celý soubor.", e.getMessage());
+            return new CSVReaderService(dataProcessor, IngestMode.FAST, resultSink).withoutHeader().evaluate(filePath, query, resultListener);
+        }
+        for (Object item : completed) {
+            if (item instanceof ProcessingResult.MonthResult month) {
+                resultListener.monthCompleted(month);
+            } else {
+                resultListener.dayCompleted((ProcessingResult.DayResult) item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a service with the same settings that does not print the file header, for a query repeated
+     * after a read that has already printed it.
+     *
+     * @return the new service.
+     */
+    CSVReaderService withoutHeader() {
+        CSVReaderService service = new CSVReaderService(dataProcessor, ingestMode, resultSink, resultCache);
+        service.printHeader = false;
+        return service;
+    }
+
+    /**
+     * Prints the file header in the same form as a read of the file does, without reading the data rows.
+     *
+     * @param filePath the path to the CSV file.
+     * @throws IOException if the header cannot be read.
+     */
+    private void printHeader(String filePath) throws IOException {
+        if (printHeader) {
+            DataFileInfo.read(Path.of(filePath), HEADER_LINES).header().forEach((name, value) -> System.out.println(name + ": " + value));
+        }
+    }
+
+    private void printHeaderLineUnchecked(String line) {
+        try {
+            printHeaderLine(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Prints one line of the file header in the same form as the commons-csv reader does.
+     *
+     * @param line the raw header line.
+     * @throws IOException if the line is not valid CSV.
+     */
+    private void printHeaderLine(String line) throws IOException {
+        if (!printHeader) {
+            return;
+        }
+        try (CSVParser csvParser = CSVParser.parse(line, CSVFormat.DEFAULT)) {
+            CSVRecord csvRecord = csvParser.iterator().next();
+            System.out.println(csvRecord.get(0) + ": " + csvRecord.get(1));
         }
     }
 }
@@ -0,0 +1,159 @@
+package org.SDC;
+
+/**
+ * Allocation-free calendar arithmetic used on the ingest hot path.
+ * <p>
+ * The methods mirror the rules of the ISO-8601 calendar used by `java.time`,
+ * but work on primitive year/month/day values so that no `LocalDate` or
+ * `LocalDateTime` has to be created for every row of the CSV file.
+ */
+public final class CalendarMath {
+
+    public static final int MINUTES_PER_DAY = 1440;
+
+    private static final int DAYS_PER_CYCLE = 146097;
+    private static final int DAYS_0000_TO_1970 = (DAYS_PER_CYCLE * 5) - (30 * 365 + 7);
+
+    private CalendarMath() {
+    }
+
+    /**
+     * Checks whether the given year is a leap year.
+     *
+     * @param year the proleptic year.
+     * @return true if the year is a leap year.
+     */
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * Returns the number of days of the given month.
+     *
+     * @param year  the proleptic year.
+     * @param month the month of the year (1 = January, ..., 12 = December).
+     * @return the length of the month in days.
+     */
+    public static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Converts a date to the number of days since 1970-01-01, using the same algorithm as `LocalDate.toEpochDay`.
+     *
+     * @param year       the proleptic year.
+     * @param month      the month of the year (1 = January, ..., 12 = December).
+     * @param dayOfMonth the day of the month.
+     * @return the epoch day.
+     */
+    public static long epochDay(int year, int month, int dayOfMonth) {
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367L * month - 362) / 12;
+        total += dayOfMonth - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * Converts the number of days since 1970-01-01 to a date packed as yyyyMMdd,
+     * using the same algorithm as `LocalDate.ofEpochDay`.
+     *
+     * @param epochDay the epoch day.
+     * @return the date packed as year * 10000 + month * 100 + dayOfMonth.
+     */
+    public static int packedDateOfEpochDay(long epochDay) {
+        long zeroDay = epochDay + DAYS_0000_TO_1970;
+        // Výpočet od 1. března, aby byl přestupný den na konci roku.
+        zeroDay -= 60;
+        long adjust = 0;
+        if (zeroDay < 0) {
+            long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+            adjust = adjustCycles * 400;
+            zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+        }
+        long yearEstimate = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+        long dayOfYearEstimate = zeroDay - (365 * yearEstimate + yearEstimate / 4 - yearEstimate / 100 + yearEstimate / 400);
+        if (dayOfYearEstimate < 0) {
+            yearEstimate--;
+            dayOfYearEstimate = zeroDay - (365 * yearEstimate + yearEstimate / 4 - yearEstimate / 100 + yearEstimate / 400);
+        }
+        yearEstimate += adjust;
+        int marchDayOfYear = (int) dayOfYearEstimate;
+        int marchMonth = (marchDayOfYear * 5 + 2) / 153;
+        int month = (marchMonth + 2) % 12 + 1;
+        int dayOfMonth = marchDayOfYear - (marchMonth * 306 + 5) / 10 + 1;
+        int year = (int) (yearEstimate + marchMonth / 10);
+        return packDate(year, month, dayOfMonth);
+    }
+
+    /**
+     * Packs a date into a single int of the form yyyyMMdd.
+     *
+     * @param year       the year, between 0 and 9999.
+     * @param month      the month of the year (1 = January, ..., 12 = December).
+     * @param dayOfMonth the day of the month.
+     * @return the date packed as year * 10000 + month * 100 + dayOfMonth.
+     */
+    public static int packDate(int year, int month, int dayOfMonth) {
+        return (year * 100 + month) * 100 + dayOfMonth;
+    }
+
+    /**
+     * Returns the year of a date packed by {@link #packDate(int, int, int)}.
+     */
+    public static int packedYear(int packedDate) {
+        return packedDate / 10000;
+    }
+
+    /**
+     * Returns the month of a date packed by {@link #packDate(int, int, int)}.
+     */
+    public static int packedMonth(int packedDate) {
+        return packedDate / 100 % 100;
+    }
+
+    /**
+     * Returns the day of the month of a date packed by {@link #packDate(int, int, int)}.
+     */
+    public static int packedDayOfMonth(int packedDate) {
+        return packedDate % 100;
+    }
+
+    /**
+     * Returns the ISO day of the week of the given date.
+     *
+     * @param year       the proleptic year.
+     * @param month      the month of the year (1 = January, ..., 12 = December).
+     * @param dayOfMonth the day of the month.
+     * @return the day of the week, where 1 = Monday, ..., 7 = Sunday.
+     */
+    public static int dayOfWeek(int year, int month, int dayOfMonth) {
+        return (int) Math.floorMod(epochDay(year, month, dayOfMonth) + 3, 7L) + 1;
+    }
+
+    /**
+     * Combines a year and a month into a single comparable month index.
+     *
+     * @param year  the proleptic year.
+     * @param month the month of the year (1 = January, ..., 12 = December).
+     * @return the number of months since year 0, suitable for range comparisons.
+     */
+    public static int monthIndex(int year, int month) {
+        return year * 12 + month - 1;
+    }
+}
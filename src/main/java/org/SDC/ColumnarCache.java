@@ -0,0 +1,321 @@
+package org.SDC;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Binary columnar copy of a solar data export that can be queried by month range without parsing CSV.
+ * <p>
+ * The cache is stored next to the CSV file (with the suffix {@value #SUFFIX}) and holds the header lines,
+ * an index of runs of consecutive rows belonging to the same month, and two columns: the timestamps as
+ * minutes since 1970-01-01 and the values as doubles. A query maps only the parts of both columns that
+ * belong to the requested months, in windows of {@value #MAP_WINDOW_ROWS} rows, so even ranges of billions of rows
+ * are read with a bounded address space per mapping. The rows are kept in file order, so the results are identical to
+ * reading the CSV file itself.
+ * <p>
+ * The cache remembers the size and modification time of the CSV file it was built from and is rebuilt
+ * automatically whenever they change.
+ */
+public class ColumnarCache {
+
+    public static final String SUFFIX = ".sdccol";
+
+    private static final int MAGIC = 0x53444343; // "SDCC"
+    private static final int VERSION = 1;
+    private static final int PREAMBLE_LENGTH = 4 + 4 + 8 + 8 + 4 + 4;
+    // 8 Mi řádků = 32 MB časových značek a 64 MB hodnot na jedno mapování.
+    static final int MAP_WINDOW_ROWS = 8 << 20;
+
+    private final Path csvPath;
+    private final Path cachePath;
+    private final int mapWindowRows;
+
+    /**
+     * Creates a cache for the given CSV file.
+     *
+     * @param filePath the path to the CSV file.
+     */
+    public ColumnarCache(String filePath) {
+        this(filePath, MAP_WINDOW_ROWS);
+    }
+
+    /**
+     * Creates a cache for the given CSV file that maps the columns in windows of the given number of rows.
+     *
+     * @param filePath      the path to the CSV file.
+     * @param mapWindowRows the maximum number of rows mapped at once.
+     */
+    ColumnarCache(String filePath, int mapWindowRows) {
+        this.csvPath = Path.of(filePath);
+        this.cachePath = Path.of(filePath + SUFFIX);
+        this.mapWindowRows = mapWindowRows;
+    }
+
+    /**
+     * Reads the rows within the month range from the cache, building or rebuilding it first if needed.
+     *
+     * @param headerLines    the number of non-empty header lines preceding the data in the CSV file.
+     * @param headerConsumer receives the raw header lines.
+     * @param fromIndex      the first month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param toIndex        the last month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param rowHandler     receives the data rows within the range in file order.
+     * @throws IOException if the CSV file or the cache cannot be read or written.
+     */
+    public void read(int headerLines, Consumer<String> headerConsumer,
+                     int fromIndex, int toIndex, RowHandler rowHandler) throws IOException {
+        Metadata metadata = loadMetadata(headerLines);
+        if (metadata == null) {
+            build(headerLines);
+            metadata = loadMetadata(headerLines);
+            if (metadata == null) {
+                throw new IOException("Nepodařilo se vytvořit cache souboru " + csvPath);
+            }
+        }
+        metadata.headers.forEach(headerConsumer);
+
+        try (FileChannel channel = FileChannel.open(cachePath, StandardOpenOption.READ)) {
+            long timestampsOffset = metadata.columnsOffset;
+            long valuesOffset = timestampsOffset + metadata.rowCount * Integer.BYTES;
+            long lastEpochDay = Long.MIN_VALUE;
+            int date = 0;
+            long rowsRead = 0;
+
+            // Sousední vybrané běhy se čtou jako jeden souvislý úsek.
+            int run = 0;
+            while (run < metadata.runCount) {
+                if (!isSelected(metadata.runMonths[run], fromIndex, toIndex)) {
+                    run++;
+                    continue;
+                }
+                long firstRow = metadata.runFirstRows[run];
+                long rows = 0;
+                while (run < metadata.runCount && isSelected(metadata.runMonths[run], fromIndex, toIndex)
+                        && metadata.runFirstRows[run] == firstRow + rows) {
+                    rows += metadata.runRowCounts[run];
+                    run++;
+                }
+                // Úsek se mapuje po oknech, jedno mapování nesmí přesáhnout 2 GB.
+                for (long windowStart = firstRow; windowStart < firstRow + rows; windowStart += mapWindowRows) {
+                    int windowRows = (int) Math.min(mapWindowRows, firstRow + rows - windowStart);
+                    IntBuffer timestamps = channel.map(FileChannel.MapMode.READ_ONLY,
+                            timestampsOffset + windowStart * Integer.BYTES, (long) windowRows * Integer.BYTES).asIntBuffer();
+                    DoubleBuffer values = channel.map(FileChannel.MapMode.READ_ONLY,
+                            valuesOffset + windowStart * Double.BYTES, (long) windowRows * Double.BYTES).asDoubleBuffer();
+                    for (int i = 0; i < windowRows; i++) {
+                        int epochMinute = timestamps.get(i);
+                        long epochDay = Math.floorDiv(epochMinute, CalendarMath.MINUTES_PER_DAY);
+                        if (epochDay != lastEpochDay) {
+                            date = CalendarMath.packedDateOfEpochDay(epochDay);
+                            lastEpochDay = epochDay;
+                        }
+                        rowHandler.handle(CalendarMath.packedYear(date), CalendarMath.packedMonth(date), CalendarMath.packedDayOfMonth(date),
+                                Math.floorMod(epochMinute, CalendarMath.MINUTES_PER_DAY), values.get(i));
+                    }
+                }
+                rowsRead += rows;
+            }
+            ProcessingMetrics.recordRows(rowsRead, 0, 0, rowsRead * (Integer.BYTES + Double.BYTES));
+        }
+    }
+
+    private static boolean isSelected(int monthIndex, int fromIndex, int toIndex) {
+        return monthIndex >= fromIndex && monthIndex <= toIndex;
+    }
+
+    /**
+     * Converts the CSV file into the columnar cache.
+     * The columns are streamed to temporary files first, so the conversion needs no memory proportional to the file size.
+     */
+    private void build(int headerLines) throws IOException {
+        SourceFingerprint source = SourceFingerprint.of(csvPath);
+        Path timestampsPath = Files.createTempFile(cachePath.toAbsolutePath().getParent(), "sdc-ts", ".tmp");
+        Path valuesPath = Files.createTempFile(cachePath.toAbsolutePath().getParent(), "sdc-val", ".tmp");
+        Path targetPath = Files.createTempFile(cachePath.toAbsolutePath().getParent(), "sdc-col", ".tmp");
+        try {
+            List<String> headers = new ArrayList<>();
+            RunIndex runIndex = new RunIndex();
+            try (DataOutputStream timestamps = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(timestampsPath), 1 << 16));
+                 DataOutputStream values = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(valuesPath), 1 << 16))) {
+                new SequentialCSVReader().read(csvPath.toString(), headerLines, headers::add, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                        (year, month, dayOfMonth, minuteOfDay, value) -> {
+                            try {
+                                long epochMinute = CalendarMath.epochDay(year, month, dayOfMonth) * CalendarMath.MINUTES_PER_DAY + minuteOfDay;
+                                timestamps.writeInt(Math.toIntExact(epochMinute));
+                                values.writeDouble(value);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                            runIndex.add(CalendarMath.monthIndex(year, month));
+                        });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(body)) {
+                out.writeInt(headers.size());
+                for (String header : headers) {
+                    out.writeUTF(header);
+                }
+                out.writeLong(runIndex.rowCount);
+                out.writeInt(runIndex.runCount);
+                for (int i = 0; i < runIndex.runCount; i++) {
+                    out.writeInt(runIndex.months[i]);
+                    out.writeLong(runIndex.firstRows[i]);
+                    out.writeInt(runIndex.rowCounts[i]);
+                }
+            }
+
+            try (FileChannel target = FileChannel.open(targetPath, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer preamble = ByteBuffer.allocate(PREAMBLE_LENGTH);
+                preamble.putInt(MAGIC).putInt(VERSION).putLong(source.size()).putLong(source.lastModified())
+                        .putInt(headerLines).putInt(body.size()).flip();
+                writeFully(target, preamble);
+                writeFully(target, ByteBuffer.wrap(body.toByteArray()));
+                appendFile(target, timestampsPath);
+                appendFile(target, valuesPath);
+            }
+            try {
+                Files.move(targetPath, cachePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(targetPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(timestampsPath);
+            Files.deleteIfExists(valuesPath);
+            Files.deleteIfExists(targetPath);
+        }
+    }
+
+    /**
+     * Loads the metadata of the cache.
+     *
+     * @return the metadata, or null if the cache is missing, damaged or out of date.
+     */
+    private Metadata loadMetadata(int headerLines) throws IOException {
+        if (!Files.isRegularFile(cachePath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(cachePath, StandardOpenOption.READ)) {
+            if (channel.size() < PREAMBLE_LENGTH) {
+                return null;
+            }
+            ByteBuffer preamble = ByteBuffer.allocate(PREAMBLE_LENGTH);
+            readFully(channel, preamble, 0);
+            preamble.flip();
+            if (preamble.getInt() != MAGIC || preamble.getInt() != VERSION
+                    || !SourceFingerprint.of(csvPath).matches(preamble.getLong(), preamble.getLong())
+                    || preamble.getInt() != headerLines) {
+                return null;
+            }
+            int bodyLength = preamble.getInt();
+            if (bodyLength < 0 || PREAMBLE_LENGTH + (long) bodyLength > channel.size()) {
+                return null;
+            }
+            ByteBuffer body = ByteBuffer.allocate(bodyLength);
+            readFully(channel, body, PREAMBLE_LENGTH);
+
+            Metadata metadata = new Metadata();
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body.array()))) {
+                int headerCount = in.readInt();
+                for (int i = 0; i < headerCount; i++) {
+                    metadata.headers.add(in.readUTF());
+                }
+                metadata.rowCount = in.readLong();
+                metadata.runCount = in.readInt();
+                metadata.runMonths = new int[metadata.runCount];
+                metadata.runFirstRows = new long[metadata.runCount];
+                metadata.runRowCounts = new int[metadata.runCount];
+                for (int i = 0; i < metadata.runCount; i++) {
+                    metadata.runMonths[i] = in.readInt();
+                    metadata.runFirstRows[i] = in.readLong();
+                    metadata.runRowCounts[i] = in.readInt();
+                }
+            }
+            metadata.columnsOffset = PREAMBLE_LENGTH + (long) bodyLength;
+            long expectedSize = metadata.columnsOffset + metadata.rowCount * (Integer.BYTES + Double.BYTES);
+            return channel.size() == expectedSize ? metadata : null;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Neočekávaný konec souboru cache.");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void appendFile(FileChannel target, Path source) throws IOException {
+        try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = input.size();
+            long position = 0;
+            while (position < size) {
+                position += input.transferTo(position, size - position, target);
+            }
+        }
+    }
+
+    /**
+     * Header lines and month run index of a cache file.
+     */
+    private static final class Metadata {
+        private final List<String> headers = new ArrayList<>();
+        private long rowCount;
+        private int runCount;
+        private int[] runMonths;
+        private long[] runFirstRows;
+        private int[] runRowCounts;
+        private long columnsOffset;
+    }
+
+    /**
+     * Collects runs of consecutive rows belonging to the same month while the cache is built.
+     */
+    private static final class RunIndex {
+        private int[] months = new int[64];
+        private long[] firstRows = new long[64];
+        private int[] rowCounts = new int[64];
+        private int runCount;
+        private long rowCount;
+
+        void add(int monthIndex) {
+            if (runCount == 0 || months[runCount - 1] != monthIndex) {
+                if (runCount == months.length) {
+                    months = Arrays.copyOf(months, runCount * 2);
+                    firstRows = Arrays.copyOf(firstRows, runCount * 2);
+                    rowCounts = Arrays.copyOf(rowCounts, runCount * 2);
+                }
+                months[runCount] = monthIndex;
+                firstRows[runCount] = rowCount;
+                runCount++;
+            }
+            rowCounts[runCount - 1]++;
+            rowCount++;
+        }
+    }
+}
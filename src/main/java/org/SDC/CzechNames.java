@@ -0,0 +1,48 @@
+package org.SDC;
+
+import java.time.DayOfWeek;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
+/**
+ * Czech display names of months and days of the week, resolved once instead of on every logged line.
+ */
+final class CzechNames {
+
+    private static final Locale CZECH = Locale.forLanguageTag("cs");
+    private static final String[] MONTHS = new String[13];
+    private static final String[] DAYS_OF_WEEK = new String[8];
+
+    static {
+        for (Month month : Month.values()) {
+            MONTHS[month.getValue()] = month.getDisplayName(TextStyle.FULL, CZECH);
+        }
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            DAYS_OF_WEEK[dayOfWeek.getValue()] = dayOfWeek.getDisplayName(TextStyle.FULL, CZECH);
+        }
+    }
+
+    private CzechNames() {
+    }
+
+    /**
+     * Returns the Czech name of a month.
+     *
+     * @param month the month of the year (1 = January, ..., 12 = December).
+     * @return the full name of the month, e.g. "leden".
+     */
+    static String month(int month) {
+        return MONTHS[month];
+    }
+
+    /**
+     * Returns the Czech name of a day of the week.
+     *
+     * @param dayOfWeek the day of the week (1 = Monday, ..., 7 = Sunday).
+     * @return the full name of the day, e.g. "pondělí".
+     */
+    static String dayOfWeek(int dayOfWeek) {
+        return DAYS_OF_WEEK[dayOfWeek];
+    }
+}
@@ -0,0 +1,143 @@
+package org.SDC;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Metadata of one data export, read without going through its rows: the header lines
+ * (location, coordinates, variable...) and the dates of the first and the last row.
+ * <p>
+ * The first row directly follows the header and the last row is found in the last few kilobytes of the file,
+ * so the cost does not depend on the size of the file.
+ * <p>
+ * With the lenient ingest (see `Quarantine`) a boundary row that cannot be decoded does not fail the read:
+ * the date of that end of the file is taken as unknown, so the file may overlap any period and is read,
+ * and the row is quarantined like any other malformed row.
+ *
+ * @param file      the data file.
+ * @param header    the header values by their keys, in file order.
+ * @param firstDate the date of the first row as yyyymmdd, see {@link CalendarMath#packDate(int, int, int)}; 0 if the file has no rows.
+ * @param lastDate  the date of the last row as yyyymmdd; 0 if the file has no rows.
+ */
+public record DataFileInfo(Path file, Map<String, String> header, int firstDate, int lastDate) {
+
+    private static final int TAIL_LENGTH = 4096;
+    // Data vadného krajního řádku v mírném režimu: soubor se pak může překrývat s jakýmkoli obdobím.
+    private static final int UNKNOWN_FIRST_DATE = CalendarMath.packDate(0, 1, 1);
+    private static final int UNKNOWN_LAST_DATE = CalendarMath.packDate(9999, 12, 31);
+
+    public DataFileInfo {
+        header = Collections.unmodifiableMap(new LinkedHashMap<>(header));
+    }
+
+    /**
+     * Reads the metadata of a data file.
+     *
+     * @param file        the data file.
+     * @param headerLines the number of non-empty header lines preceding the data.
+     * @return the metadata of the file.
+     * @throws IOException if the file cannot be read or its header is not valid, or if a boundary row is not valid
+     *                     and the lenient ingest is off.
+     */
+    public static DataFileInfo read(Path file, int headerLines) throws IOException {
+        Map<String, String> header = new LinkedHashMap<>();
+        CSVLineDecoder decoder = new CSVLineDecoder();
+        String firstRow = null;
+        // Stejné dekódování jako FileReader v původní aplikaci.
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file), Charset.defaultCharset()))) {
+            int currentLine = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                currentLine++;
+                if (currentLine <= headerLines) {
+                    try (CSVParser csvParser = CSVParser.parse(line, CSVFormat.DEFAULT)) {
+                        CSVRecord csvRecord = csvParser.iterator().next();
+                        header.put(csvRecord.get(0), csvRecord.size() > 1 ? csvRecord.get(1) : "");
+                    }
+                } else {
+                    firstRow = line;
+                    break;
+                }
+            }
+        }
+        if (firstRow == null) {
+            return new DataFileInfo(file, header, 0, 0);
+        }
+        int firstDate = boundaryDate(decoder, firstRow, UNKNOWN_FIRST_DATE);
+        int lastDate = boundaryDate(decoder, lastLine(file), UNKNOWN_LAST_DATE);
+        return new DataFileInfo(file, header, firstDate, lastDate);
+    }
+
+    private static int boundaryDate(CSVLineDecoder decoder, String row, int unknownDate) throws IOException {
+        try {
+            decoder.decodeSlow(row);
+        } catch (IOException | RuntimeException e) {
+            if (!Quarantine.enabled()) {
+                throw e;
+            }
+            // Řádek zaznamená karanténa až při čtení souboru, do té doby se počítá s nejširším rozsahem.
+            return unknownDate;
+        }
+        return CalendarMath.packDate(decoder.getYear(), decoder.getMonth(), decoder.getDayOfMonth());
+    }
+
+    private static String lastLine(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer tail = ByteBuffer.allocate((int) Math.min(TAIL_LENGTH, size));
+            while (tail.hasRemaining() && channel.read(tail, size - tail.capacity() + tail.position()) > 0) {
+                // Dočtení konce souboru.
+            }
+            String text = new String(tail.array(), Charset.defaultCharset()).stripTrailing();
+            return text.substring(text.lastIndexOf('\n') + 1).strip();
+        }
+    }
+
+    /**
+     * Returns the station the file belongs to: the location from the header, or the file name if the header has none.
+     *
+     * @return the station identifier.
+     */
+    public String station() {
+        String location = header.get("location");
+        return location == null || location.isBlank() ? file.getFileName().toString() : location;
+    }
+
+    /**
+     * Checks whether the file has rows.
+     *
+     * @return true if the file has at least one row.
+     */
+    public boolean hasRows() {
+        return firstDate != 0;
+    }
+
+    /**
+     * Checks whether the file has rows within the month range.
+     *
+     * @param fromIndex the first month of the range, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param toIndex   the last month of the range, see {@link CalendarMath#monthIndex(int, int)}.
+     * @return true if the months of the first and the last row overlap with the range.
+     */
+    public boolean overlaps(int fromIndex, int toIndex) {
+        return hasRows()
+                && CalendarMath.monthIndex(CalendarMath.packedYear(lastDate), CalendarMath.packedMonth(lastDate)) >= fromIndex
+                && CalendarMath.monthIndex(CalendarMath.packedYear(firstDate), CalendarMath.packedMonth(firstDate)) <= toIndex;
+    }
+}
@@ -1,177 +1,141 @@
 package org.SDC;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-
-import java.time.*;
-import java.time.format.TextStyle;
-import java.util.Locale;
+import java.io.IOException;
+import java.util.List;
 
 /**
  * Class responsible for processing solar radiation data.
  * <p>
- * This class handles calculations of total values over a season (defined by a date range),
+ * This class evaluates from/to/day queries: the total value over a season (defined by a date range),
  * monthly summaries, and daily performance for a specific day of the week if selected.
- * It also manages logging of results via Log4j.
+ * The results are returned as an immutable `ProcessingResult`, which can be logged, rendered
+ * or exported by a `ResultSink`.
+ * <p>
+ * The class holds no state of its own, so a single instance can be reused for any number of
+ * queries and called from multiple threads. The state of a running query is kept in a
+ * `QueryAccumulator`, one per query.
  * <p>
- * The class accumulates and stores data while processing the CSV file row by row.
+ * Statistics per hour of the day, day, week, month or window of minutes are computed by {@link #aggregate(DataQuery, RowSource, List)}.
  *
  * @author Matej Pella
  * @see CSVReaderService
+ * @see QueryAccumulator
  */
 public class DataProcessor {
 
-    private static final Logger logger = LogManager.getLogger(DataProcessor.class);
-
-    private double allSeasonValue = 0;
-    private double oneMonthValue = 0;
-    private double daySum = 0;
-    private double allValuesOfChosenDayInOneMonth = 0;
-    private double allValuesOfChosenDayInSeason = 0;
-    private int numberOfChosenDaysInMonth = 0;
-    private Month currentMonth = null;
-    private LocalDateTime actualInformationAboutDateTime = null;
-
     /**
-     * Processes a single row of solar radiation data.
-     * <p>
-     * This method manages the monthly and daily data logging, updates the current monthly and seasonal totals,
-     * and computes detailed results for a specific day of the week if provided by the user.
-     * It delegates the handling of month and day changes to specialized methods.
+     * Creates an accumulator for a query whose rows are supplied by the caller,
+     * e.g. when several queries are evaluated in a single pass over a file.
      *
-     * @param timestamp        The date and time of the data point.
-     * @param value            The solar radiation value for the given timestamp.
-     * @param chosenDay        Optional: Day of the week (1 = Monday, ..., 7 = Sunday) for additional calculations.
-     * @param theLastMonthYear The last year and month to determine the end of the period.
+     * @param query the query to evaluate.
+     * @return a new accumulator; it must be used by one thread at a time.
      */
-    public void processData(LocalDateTime timestamp, double value, Integer chosenDay, YearMonth theLastMonthYear) {
-        int toYear = theLastMonthYear.getYear();
-        Month toMonth = theLastMonthYear.getMonth();
-        Month month = timestamp.getMonth();
-        DayOfWeek chosenDayOfWeek = (chosenDay != null && chosenDay > 0) ? DayOfWeek.of(chosenDay) : null;
-        int dayOfMonth = timestamp.getDayOfMonth();
-
-        handleMonthChange(timestamp, month, chosenDayOfWeek, toYear, toMonth, chosenDay);
-
-        handleDayChange(dayOfMonth, toYear, toMonth, chosenDay);
-
-        if (!(timestamp.getMonth() == theLastMonthYear.getMonth() && timestamp.getYear() == theLastMonthYear.getYear())) {
-            allSeasonValue += value;
-            oneMonthValue += value;
+    public QueryAccumulator newAccumulator(DataQuery query) {
+        return newAccumulator(query, ResultListener.NONE);
+    }
 
-            if (chosenDayOfWeek != null && timestamp.getDayOfWeek().getValue() == chosenDay) {
-                daySum += value;
-                allValuesOfChosenDayInOneMonth += value;
-                allValuesOfChosenDayInSeason += value;
-                numberOfChosenDaysInMonth++;
-            }
-        }
-        actualInformationAboutDateTime = timestamp;
+    /**
+     * Creates an accumulator for a query whose rows are supplied by the caller and whose days and months
+     * are passed to the listener as soon as they are completed.
+     *
+     * @param query          the query to evaluate.
+     * @param resultListener receives the days and months as they are completed, e.g. a `ResultExporter`.
+     * @return a new accumulator; it must be used by one thread at a time.
+     */
+    public QueryAccumulator newAccumulator(DataQuery query, ResultListener resultListener) {
+        return new QueryAccumulator(query, resultListener);
     }
 
     /**
-     * Handles logic related to switching between months during data processing.
-     * <p>
-     * This method logs monthly results, resets monthly data when the month changes,
-     * and ensures that daily results are logged for the selected day of the week
-     * before the month transitions.
+     * Creates an accumulator for a query over a file that keeps growing. Unlike the other accumulators it counts
+     * the rows of the {@code to} month, which is usually the running month whose total is of interest.
      *
-     * @param timestamp       The current data point's timestamp.
-     * @param month           The current month being processed.
-     * @param chosenDayOfWeek The day of the week chosen by the user for specific analysis (1 = Monday, ..., 7 = Sunday).
-     * @param toYear          The year of the last month to determine the end of the period.
-     * @param toMonth         The month to determine the end of the period.
-     * @param chosenDay       The specific day of the week chosen by the user for detailed analysis.
+     * @param query the query to evaluate.
+     * @return a new accumulator; it must be used by one thread at a time.
+     * @see TailFollower
      */
-    private void handleMonthChange(LocalDateTime timestamp, Month month, DayOfWeek chosenDayOfWeek, int toYear, Month toMonth, Integer chosenDay) {
-        if (actualInformationAboutDateTime != null && actualInformationAboutDateTime.getMonth() != month) {
-            if (chosenDayOfWeek != null && actualInformationAboutDateTime.getDayOfWeek().getValue() == chosenDay && !actualInformationAboutDateTime.toLocalDate().equals(timestamp.toLocalDate())) {
-                if (!(actualInformationAboutDateTime.getYear() == toYear && actualInformationAboutDateTime.getMonth() == toMonth)) {
-                    logDailyResults();
-                }
-            }
-            logMonthlyResults(chosenDayOfWeek);
-            resetMonthlyData();
-        }
-        if (currentMonth == null || !currentMonth.equals(month)) {
-            currentMonth = month;
-        }
+    public QueryAccumulator newRunningAccumulator(DataQuery query) {
+        return new QueryAccumulator(query, ResultListener.NONE, true);
     }
 
     /**
-     * Handles logic related to switching between days during data processing.
-     * <p>
-     * This method logs daily results for the selected day of the week, resets daily totals when the day changes,
-     * and checks whether the current day is the last day of the month before logging.
+     * Evaluates a query over the rows of the given source.
      *
-     * @param dayOfMonth The current day of the month being processed.
-     * @param toYear     The year of the last month to determine the end of the period.
-     * @param toMonth    The month to determine the end of the period.
-     * @param chosenDay  The specific day of the week chosen by the user for detailed analysis.
+     * @param query     the query to evaluate.
+     * @param rowSource the source of the data rows.
+     * @return the result of the query.
+     * @throws IOException if the rows cannot be read.
      */
-    private void handleDayChange(int dayOfMonth, int toYear, Month toMonth, Integer chosenDay) {
-        if (actualInformationAboutDateTime != null && actualInformationAboutDateTime.getDayOfMonth() != dayOfMonth) {
-            boolean isLastDayOfMonth = actualInformationAboutDateTime.getMonth().length(actualInformationAboutDateTime.toLocalDate().isLeapYear()) == actualInformationAboutDateTime.getDayOfMonth();
-            if (actualInformationAboutDateTime.getDayOfWeek().getValue() == chosenDay && !isLastDayOfMonth) {
-                if (!(actualInformationAboutDateTime.getYear() == toYear && actualInformationAboutDateTime.getMonth() == toMonth)) {
-                    logDailyResults();
-                }
-            }
-            daySum = 0;
-        }
+    public ProcessingResult process(DataQuery query, RowSource rowSource) throws IOException {
+        return process(query, rowSource, ResultListener.NONE);
     }
 
     /**
-     * Logs the cumulative results for a specific day.
-     * <p>
-     * Outputs the daily solar radiation total to the logger for the last processed day.
+     * Evaluates a query over the rows of the given source, passing the days and months to the listener
+     * as soon as they are completed.
+     *
+     * @param query          the query to evaluate.
+     * @param rowSource      the source of the data rows.
+     * @param resultListener receives the days and months as they are completed, e.g. a `ResultExporter`.
+     * @return the result of the query.
+     * @throws IOException if the rows cannot be read.
      */
-    private void logDailyResults() {
-        String dayName = actualInformationAboutDateTime.getDayOfWeek().getDisplayName(TextStyle.FULL, Locale.forLanguageTag("cs"));
-        logger.info("Souhrnný výkon za " + dayName + " " + actualInformationAboutDateTime.toLocalDate() + ": " + daySum + " W/m²");
+    public ProcessingResult process(DataQuery query, RowSource rowSource, ResultListener resultListener) throws IOException {
+        long start = ProcessingMetrics.start();
+        QueryAccumulator accumulator = newAccumulator(query, resultListener);
+        rowSource.forEachRow(query.fromIndex(), query.toIndex(), ProcessingMetrics.timed(accumulator));
+        ProcessingResult result = accumulator.toResult();
+        ProcessingMetrics.recordQueries(start, 1);
+        return result;
     }
 
     /**
-     * Logs the cumulative results for a specific month.
-     * <p>
-     * Outputs the monthly solar radiation total and, if applicable,
-     * averages the data for the chosen day of the week.
+     * Evaluates a query over a dataset loaded in memory. The dataset sums its rows into day totals, in parallel
+     * for long periods, which are processed like the entries of an `AggregateIndex`; the results are identical to
+     * processing the rows of the dataset one by one.
      *
-     * @param chosenDayOfWeek The day of the week to log results for.
+     * @param query   the query to evaluate.
+     * @param dataset the dataset.
+     * @return the result of the query.
      */
-    private void logMonthlyResults(DayOfWeek chosenDayOfWeek) {
-        String monthName = currentMonth.getDisplayName(TextStyle.FULL, Locale.forLanguageTag("cs"));
-        logger.info("Měsíc: " + monthName + ", rok: " + actualInformationAboutDateTime.getYear() + ", Celkový výkon: " + oneMonthValue + " W/m²");
-        if (chosenDayOfWeek != null) {
-            String dayName = chosenDayOfWeek.getDisplayName(TextStyle.FULL, Locale.forLanguageTag("cs"));
-            double averageDayValue = allValuesOfChosenDayInOneMonth / numberOfChosenDaysInMonth;
-            logger.info("Průměrný výkon za zvolený den(" + dayName + ") za měsíc (" + monthName + ") roku " + actualInformationAboutDateTime.getYear() + ": " + averageDayValue + " W/m²");
-        }
+    public ProcessingResult process(DataQuery query, InMemoryDataset dataset) {
+        return process(query, dataset, ResultListener.NONE);
     }
 
     /**
-     * Resets monthly-specific data accumulators.
-     * <p>
-     * Called when moving to a new month in the dataset.
+     * Evaluates a query over a dataset loaded in memory, passing the days and months to the listener
+     * as soon as they are completed, see {@link #process(DataQuery, InMemoryDataset)}.
+     *
+     * @param query          the query to evaluate.
+     * @param dataset        the dataset.
+     * @param resultListener receives the days and months as they are completed, e.g. a `ResultExporter`.
+     * @return the result of the query.
      */
-    private void resetMonthlyData() {
-        oneMonthValue = 0;
-        allValuesOfChosenDayInOneMonth = 0;
-        numberOfChosenDaysInMonth = 0;
+    public ProcessingResult process(DataQuery query, InMemoryDataset dataset, ResultListener resultListener) {
+        long start = ProcessingMetrics.start();
+        QueryAccumulator accumulator = newAccumulator(query, resultListener);
+        dataset.forEachDay(query.fromIndex(), query.toIndex(), accumulator::processDay);
+        ProcessingResult result = accumulator.toResult();
+        ProcessingMetrics.recordQueries(start, 1);
+        return result;
     }
 
     /**
-     * Logs the total results for the entire period (season).
-     * <p>
-     * Outputs the total accumulated solar radiation for the period and, if applicable,
-     * additional details about the performance of specific days throughout the period.
+     * Aggregates the rows of the query period into time buckets of the given granularities in a single pass
+     * over the rows of the given source. Every row of the period counts, including the rows of its last month.
+     *
+     * @param query         the query whose period is aggregated; the chosen day of the week is ignored.
+     * @param rowSource     the source of the data rows.
+     * @param granularities the granularities to aggregate into, e.g. {@link TimeBucket#MONTH}.
+     * @return one series of buckets per granularity, in the order the granularities were given.
+     * @throws IOException if the rows cannot be read.
      */
-    public void logTotalResults() {
-        logger.info("Celkový výkon za období: " + allSeasonValue + " W/m²");
-        if (allValuesOfChosenDayInSeason == 0) {
-            logger.info("Detailnějnější data ohledně výkonů v konkrétních dnech v průběhu celého období můžete získat, pokud si den zvolíte při úvodním zadání parametrů.");
-        }
-        logger.info("Celkový výkon za celé zvolené období pro zvolené dny: " + allValuesOfChosenDayInSeason + " W/m²");
+    public List<BucketSeries> aggregate(DataQuery query, RowSource rowSource, List<TimeBucket> granularities) throws IOException {
+        long start = ProcessingMetrics.start();
+        BucketAggregator aggregator = new BucketAggregator(granularities);
+        rowSource.forEachRow(query.fromIndex(), query.toIndex(), ProcessingMetrics.timed(aggregator));
+        List<BucketSeries> result = aggregator.toResult();
+        ProcessingMetrics.recordQueries(start, 1);
+        return result;
     }
 }
-
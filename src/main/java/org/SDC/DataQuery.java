@@ -0,0 +1,89 @@
+package org.SDC;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * One from/to/day query over the solar data.
+ * <p>
+ * A query is written as {@code yyyyMM-yyyyMM} optionally followed by {@code /d},
+ * where d is the day of the week (1 = Monday, ..., 7 = Sunday), e.g. {@code 201001-201012/3}.
+ *
+ * @param from the first month of the period.
+ * @param to   the last month of the period.
+ * @param day  the chosen day of the week, 0 if none.
+ */
+public record DataQuery(YearMonth from, YearMonth to, int day) {
+
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMM");
+
+    /**
+     * Parses a query written as {@code yyyyMM-yyyyMM[/d]}.
+     *
+     * @param specification the text of the query.
+     * @return the parsed query.
+     * @throws IllegalArgumentException if the query is not valid.
+     */
+    public static DataQuery parse(String specification) {
+        String text = specification.trim();
+        int day = 0;
+        int slash = text.indexOf('/');
+        if (slash >= 0) {
+            try {
+                day = Integer.parseInt(text.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Neplatný den v dotazu \"" + specification + "\".");
+            }
+            if (day < 1 || day > 7) {
+                throw new IllegalArgumentException("Neplatný den v dotazu \"" + specification + "\". Zadejte číslo mezi 1 a 7.");
+            }
+            text = text.substring(0, slash);
+        }
+        String[] range = text.split("-");
+        if (range.length != 2 || range[0].length() != 6 || range[1].length() != 6) {
+            throw new IllegalArgumentException("Neplatný dotaz \"" + specification + "\". Očekávaný formát je yyyyMM-yyyyMM[/den].");
+        }
+        YearMonth from;
+        YearMonth to;
+        try {
+            from = YearMonth.parse(range[0], formatter);
+            to = YearMonth.parse(range[1], formatter);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Neplatné datum v dotazu \"" + specification + "\".");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Datum 'from' nemůže být po datu 'to' v dotazu \"" + specification + "\".");
+        }
+        return new DataQuery(from, to, day);
+    }
+
+    /**
+     * Returns the first month of the period as a comparable month index.
+     *
+     * @return see {@link CalendarMath#monthIndex(int, int)}.
+     */
+    public int fromIndex() {
+        return CalendarMath.monthIndex(from.getYear(), from.getMonthValue());
+    }
+
+    /**
+     * Returns the last month of the period as a comparable month index.
+     *
+     * @return see {@link CalendarMath#monthIndex(int, int)}.
+     */
+    public int toIndex() {
+        return CalendarMath.monthIndex(to.getYear(), to.getMonthValue());
+    }
+
+    /**
+     * Returns the query in the form accepted by {@link #parse(String)}.
+     *
+     * @return the text of the query.
+     */
+    @Override
+    public String toString() {
+        String range = from.format(formatter) + "-" + to.format(formatter);
+        return day == 0 ? range : range + "/" + day;
+    }
+}
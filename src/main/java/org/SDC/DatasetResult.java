@@ -0,0 +1,20 @@
+package org.SDC;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable result of one query over a `MultiFileDataset`.
+ *
+ * @param stations     the results of the individual stations, ordered by station.
+ * @param combined     the result of all stations together: the values of all stations are added up.
+ * @param fileCount    the number of files of the dataset.
+ * @param skippedFiles the number of files skipped because they have no rows in the requested period.
+ */
+public record DatasetResult(Map<String, ProcessingResult> stations, ProcessingResult combined, int fileCount, int skippedFiles) {
+
+    public DatasetResult {
+        stations = Collections.unmodifiableMap(new LinkedHashMap<>(stations));
+    }
+}
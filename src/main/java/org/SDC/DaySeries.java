@@ -0,0 +1,200 @@
+package org.SDC;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Day totals of a sequence of data rows: for every day the sum of the values and the number of rows, in date order.
+ * <p>
+ * A series is built by passing it the rows as a `RowHandler` and replayed into a `QueryAccumulator` through
+ * `processDay`, the same way as the entries of an `AggregateIndex`. Series of several files or stations are
+ * combined by {@link #merge(List)}.
+ * <p>
+ * The day totals are summed exactly, see `FixedPointSum`, so a day split across several files or chunks adds up
+ * to the same total as if it was read in one piece.
+ * <p>
+ * A series is stored by {@link #write(DataOutput)} and restored by {@link #read(DataInput)}, e.g. as the entries
+ * of an `AggregateIndex`.
+ */
+public final class DaySeries implements RowHandler {
+
+    private int[] dates;
+    private long[] totals;
+    private int[] rowCounts;
+    private int size;
+
+    /**
+     * Creates an empty series.
+     */
+    public DaySeries() {
+        this(512);
+    }
+
+    private DaySeries(int capacity) {
+        dates = new int[capacity];
+        totals = new long[capacity * FixedPointSum.SLOTS];
+        rowCounts = new int[capacity];
+    }
+
+    @Override
+    public void handle(int year, int month, int dayOfMonth, int minuteOfDay, double value) {
+        add(CalendarMath.packDate(year, month, dayOfMonth), value);
+    }
+
+    /**
+     * Adds a value to the last day of the series, or appends the day if the series ends with another day.
+     *
+     * @param date  the day, see {@link CalendarMath#packDate(int, int, int)}.
+     * @param value the value of one row.
+     */
+    void add(int date, double value) {
+        // Index dne se zjistí dřív, než se předá pole: přidání dne ho může zvětšit.
+        int day = day(date);
+        FixedPointSum.add(totals, day, value);
+        rowCounts[day]++;
+    }
+
+    /**
+     * Adds the totals of a day of another series to the last day of this series, or appends the day if this series
+     * ends with another day.
+     */
+    private void add(DaySeries other, int entry) {
+        int day = day(other.dates[entry]);
+        FixedPointSum.add(totals, day, other.totals, entry);
+        rowCounts[day] += other.rowCounts[entry];
+    }
+
+    /**
+     * Returns the index of the last day of the series, appending the given day if the series ends with another day.
+     */
+    private int day(int date) {
+        if (size == 0 || dates[size - 1] != date) {
+            if (size == dates.length) {
+                int capacity = Math.max(size * 2, 512);
+                dates = Arrays.copyOf(dates, capacity);
+                totals = Arrays.copyOf(totals, capacity * FixedPointSum.SLOTS);
+                rowCounts = Arrays.copyOf(rowCounts, capacity);
+            }
+            dates[size] = date;
+            size++;
+        }
+        return size - 1;
+    }
+
+    /**
+     * Appends the days of a series that continues this one, e.g. the series of the next chunk of the same file.
+     * A day split between the two series is added up into one day.
+     *
+     * @param next the series to append; it is not modified.
+     */
+    void append(DaySeries next) {
+        for (int i = 0; i < next.size; i++) {
+            add(next, i);
+        }
+    }
+
+    /**
+     * Passes the day totals to the consumer in date order.
+     *
+     * @param dayConsumer receives the day totals, e.g. {@code accumulator::processDay}.
+     */
+    public void forEachDay(AggregateIndex.DayConsumer dayConsumer) {
+        FixedPointSum total = new FixedPointSum();
+        for (int i = 0; i < size; i++) {
+            int date = dates[i];
+            total.set(totals, i);
+            dayConsumer.accept(CalendarMath.packedYear(date), CalendarMath.packedMonth(date), CalendarMath.packedDayOfMonth(date),
+                    total, rowCounts[i]);
+        }
+    }
+
+    /**
+     * Returns the number of days of the series.
+     *
+     * @return the number of days.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Writes the days of the series: their number, then for every day the date, the {@value FixedPointSum#SLOTS}
+     * {@code long}s of the total and the row count.
+     *
+     * @param out the output to write to.
+     * @throws IOException if the output cannot be written.
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(dates[i]);
+            for (int slot = i * FixedPointSum.SLOTS; slot < (i + 1) * FixedPointSum.SLOTS; slot++) {
+                out.writeLong(totals[slot]);
+            }
+            out.writeInt(rowCounts[i]);
+        }
+    }
+
+    /**
+     * Reads a series written by {@link #write(DataOutput)}.
+     *
+     * @param in the input to read from.
+     * @return the series.
+     * @throws IOException if the input cannot be read or ends early.
+     */
+    static DaySeries read(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Neplatný počet dní: " + count);
+        }
+        DaySeries series = new DaySeries(count);
+        for (int i = 0; i < count; i++) {
+            series.dates[i] = in.readInt();
+            for (int slot = i * FixedPointSum.SLOTS; slot < (i + 1) * FixedPointSum.SLOTS; slot++) {
+                series.totals[slot] = in.readLong();
+            }
+            series.rowCounts[i] = in.readInt();
+        }
+        series.size = count;
+        return series;
+    }
+
+    /**
+     * Combines several series into one ordered by date. Totals and row counts of the same day are added up,
+     * so the result describes all rows of the given series together.
+     *
+     * @param series the series to combine.
+     * @return the combined series.
+     */
+    public static DaySeries merge(List<DaySeries> series) {
+        int count = 0;
+        for (DaySeries part : series) {
+            count += part.size;
+        }
+        // Klíč = datum v horních 32 bitech a pořadí záznamu v dolních, řazení je tak stabilní.
+        long[] keys = new long[count];
+        int[] partOfKey = new int[count];
+        int[] entryOfKey = new int[count];
+        int k = 0;
+        for (int p = 0; p < series.size(); p++) {
+            DaySeries part = series.get(p);
+            for (int i = 0; i < part.size; i++) {
+                keys[k] = (long) part.dates[i] << 32 | k;
+                partOfKey[k] = p;
+                entryOfKey[k] = i;
+                k++;
+            }
+        }
+        Arrays.sort(keys);
+
+        DaySeries merged = new DaySeries();
+        for (long key : keys) {
+            int index = (int) key;
+            merged.add(series.get(partOfKey[index]), entryOfKey[index]);
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,48 @@
+package org.SDC;
+
+/**
+ * Format of the files written by `ResultExporter`.
+ */
+public enum ExportFormat {
+
+    /**
+     * Comma separated values with a header line; one line per day, month and the whole period.
+     */
+    CSV("csv"),
+
+    /**
+     * JSON Lines: one JSON object per day, month and the whole period.
+     */
+    JSON_LINES("jsonl");
+
+    private final String fileExtension;
+
+    ExportFormat(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+
+    /**
+     * Returns the extension of the exported files, without the leading dot.
+     *
+     * @return the file extension.
+     */
+    public String fileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Resolves the format from its file extension (case-insensitive).
+     *
+     * @param fileExtension the file extension, e.g. "csv" or "jsonl".
+     * @return the format.
+     * @throws IllegalArgumentException if no format uses the extension.
+     */
+    public static ExportFormat ofFileExtension(String fileExtension) {
+        for (ExportFormat format : values()) {
+            if (format.fileExtension.equalsIgnoreCase(fileExtension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Neznámý formát exportu: " + fileExtension);
+    }
+}
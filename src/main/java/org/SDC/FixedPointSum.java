@@ -0,0 +1,244 @@
+package org.SDC;
+
+/**
+ * Exact sum of doubles whose result does not depend on the order in which the values are added.
+ * <p>
+ * Every value is rounded once to a multiple of 2<sup>-64</sup> and added to a signed 128-bit fixed-point number,
+ * so the additions themselves are exact integer arithmetic. The sum is therefore the same for any order of the
+ * values and for any split into partitions that are summed separately and combined by {@link #add(FixedPointSum)},
+ * e.g. files or chunks processed in parallel. Only the final value is rounded to a double, once and correctly.
+ * <p>
+ * The rounding of a value to the grid changes it by at most 2<sup>-65</sup>, far below the resolution of measured
+ * data. The integer part of the sum is limited to the range of a {@code long}; a value of at least 2<sup>63</sup>
+ * in magnitude or a sum leaving the range fails with an `ArithmeticException`. Infinite and NaN values are summed
+ * separately in a double and make the sum infinite or NaN as ordinary addition would.
+ * <p>
+ * Sums kept in primitive arrays instead of accumulator objects, e.g. one per day or bucket, use {@value #SLOTS}
+ * consecutive {@code long}s per entry and the static methods of this class.
+ * <p>
+ * The accumulator is mutable and not thread-safe; every partition uses its own.
+ */
+public final class FixedPointSum {
+
+    /**
+     * The number of {@code long}s an entry of a sum array occupies.
+     */
+    static final int SLOTS = 3;
+
+    private static final double RANGE = 0x1p63;
+
+    private long high;
+    private long low;
+    private double nonFinite;
+
+    /**
+     * Adds a value.
+     *
+     * @param value the value to add.
+     * @throws ArithmeticException if the value or the sum is out of range.
+     */
+    public void add(double value) {
+        if (!Double.isFinite(value)) {
+            nonFinite += value;
+            return;
+        }
+        long valueLow = fixedLow(value);
+        long valueHigh = fixedHigh(value, valueLow);
+        long sumLow = low + valueLow;
+        high = Math.addExact(Math.addExact(high, valueHigh), carry(low, sumLow));
+        low = sumLow;
+    }
+
+    /**
+     * Adds the partial sum of another partition.
+     *
+     * @param other the partial sum to add; it is not modified.
+     * @throws ArithmeticException if the sum is out of range.
+     */
+    public void add(FixedPointSum other) {
+        long sumLow = low + other.low;
+        high = Math.addExact(Math.addExact(high, other.high), carry(low, sumLow));
+        low = sumLow;
+        nonFinite += other.nonFinite;
+    }
+
+    /**
+     * Returns the sum of the values added so far.
+     *
+     * @return the exact sum rounded to the nearest double.
+     */
+    public double sum() {
+        return nonFinite != 0 ? nonFinite : toDouble(high, low);
+    }
+
+    /**
+     * Sets the sum to zero.
+     */
+    public void reset() {
+        high = 0;
+        low = 0;
+        nonFinite = 0;
+    }
+
+    /**
+     * Replaces the sum by an entry of a sum array.
+     *
+     * @param sums  the sum array.
+     * @param index the index of the entry.
+     */
+    void set(long[] sums, int index) {
+        int slot = index * SLOTS;
+        high = sums[slot];
+        low = sums[slot + 1];
+        nonFinite = Double.longBitsToDouble(sums[slot + 2]);
+    }
+
+    /**
+     * Adds a value to an entry of a sum array.
+     *
+     * @param sums  the sum array, {@value #SLOTS} {@code long}s per entry.
+     * @param index the index of the entry.
+     * @param value the value to add.
+     * @throws ArithmeticException if the value or the sum is out of range.
+     */
+    static void add(long[] sums, int index, double value) {
+        int slot = index * SLOTS;
+        if (!Double.isFinite(value)) {
+            sums[slot + 2] = Double.doubleToRawLongBits(Double.longBitsToDouble(sums[slot + 2]) + value);
+            return;
+        }
+        long valueLow = fixedLow(value);
+        long valueHigh = fixedHigh(value, valueLow);
+        long sumLow = sums[slot + 1] + valueLow;
+        sums[slot] = Math.addExact(Math.addExact(sums[slot], valueHigh), carry(sums[slot + 1], sumLow));
+        sums[slot + 1] = sumLow;
+    }
+
+    /**
+     * Adds an entry of one sum array to an entry of another.
+     *
+     * @param sums        the sum array to add to.
+     * @param index       the index of the entry to add to.
+     * @param addends     the sum array to add from; it is not modified.
+     * @param addendIndex the index of the entry to add.
+     * @throws ArithmeticException if the sum is out of range.
+     */
+    static void add(long[] sums, int index, long[] addends, int addendIndex) {
+        int slot = index * SLOTS;
+        int addendSlot = addendIndex * SLOTS;
+        long sumLow = sums[slot + 1] + addends[addendSlot + 1];
+        sums[slot] = Math.addExact(Math.addExact(sums[slot], addends[addendSlot]), carry(sums[slot + 1], sumLow));
+        sums[slot + 1] = sumLow;
+        sums[slot + 2] = Double.doubleToRawLongBits(Double.longBitsToDouble(sums[slot + 2])
+                + Double.longBitsToDouble(addends[addendSlot + 2]));
+    }
+
+    /**
+     * Returns the value of an entry of a sum array.
+     *
+     * @param sums  the sum array.
+     * @param index the index of the entry.
+     * @return the exact sum rounded to the nearest double.
+     */
+    static double value(long[] sums, int index) {
+        int slot = index * SLOTS;
+        double nonFinite = Double.longBitsToDouble(sums[slot + 2]);
+        return nonFinite != 0 ? nonFinite : toDouble(sums[slot], sums[slot + 1]);
+    }
+
+    private static long carry(long low, long sumLow) {
+        return Long.compareUnsigned(sumLow, low) < 0 ? 1 : 0;
+    }
+
+    /**
+     * Returns the lower 64 bits of the value rounded to a multiple of 2<sup>-64</sup>, as a 128-bit two's complement number.
+     */
+    private static long fixedLow(double value) {
+        if (Math.abs(value) >= RANGE) {
+            throw new ArithmeticException("Hodnota " + value + " je mimo rozsah součtu.");
+        }
+        long magnitude = magnitudeLow(value);
+        return value < 0 ? -magnitude : magnitude;
+    }
+
+    /**
+     * Returns the upper 64 bits of the value rounded to a multiple of 2<sup>-64</sup>, as a 128-bit two's complement number.
+     */
+    private static long fixedHigh(double value, long fixedLow) {
+        long magnitude = magnitudeHigh(value);
+        // Záporná hodnota: horní polovina dvojkového doplňku, přenos jen při nulové dolní polovině.
+        return value < 0 ? ~magnitude + (fixedLow == 0 ? 1 : 0) : magnitude;
+    }
+
+    private static long magnitudeLow(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        long mantissa = mantissa(bits);
+        int shift = exponent(bits) + 64;
+        if (mantissa == 0 || shift >= 64) {
+            return 0;
+        }
+        if (shift >= 0) {
+            return mantissa << shift;
+        }
+        int dropped = -shift;
+        if (dropped > 54) {
+            // Méně než čtvrtina nejmenšího kroku se zaokrouhlí na nulu.
+            return 0;
+        }
+        // Zaokrouhlení na nejbližší, při shodě na sudou.
+        long quotient = mantissa >>> dropped;
+        long remainder = mantissa & ((1L << dropped) - 1);
+        long half = 1L << (dropped - 1);
+        return remainder > half || remainder == half && (quotient & 1) == 1 ? quotient + 1 : quotient;
+    }
+
+    private static long magnitudeHigh(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        long mantissa = mantissa(bits);
+        int shift = exponent(bits) + 64;
+        if (mantissa == 0 || shift <= 0) {
+            return 0;
+        }
+        return shift < 64 ? mantissa >>> (64 - shift) : mantissa << (shift - 64);
+    }
+
+    private static long mantissa(long bits) {
+        long fraction = bits & 0xFFFFFFFFFFFFFL;
+        return (bits >>> 52 & 0x7FF) == 0 ? fraction : fraction | 1L << 52;
+    }
+
+    private static int exponent(long bits) {
+        int biased = (int) (bits >>> 52 & 0x7FF);
+        return (biased == 0 ? 1 : biased) - 1075;
+    }
+
+    /**
+     * Rounds a 128-bit fixed-point number to the nearest double.
+     */
+    private static double toDouble(long high, long low) {
+        boolean negative = high < 0;
+        if (negative) {
+            high = ~high + (low == 0 ? 1 : 0);
+            low = -low;
+        }
+        int bitCount = high != 0 ? 128 - Long.numberOfLeadingZeros(high) : 64 - Long.numberOfLeadingZeros(low);
+        double magnitude;
+        if (bitCount <= 63) {
+            magnitude = Math.scalb((double) low, -64);
+        } else {
+            // Horních 63 bitů a příznak nenulových odříznutých bitů: převod na double pak zaokrouhlí správně.
+            int dropped = bitCount - 63;
+            long top;
+            long lost;
+            if (dropped < 64) {
+                top = high << (64 - dropped) | low >>> dropped;
+                lost = low << (64 - dropped);
+            } else {
+                top = high >>> (dropped - 64);
+                lost = dropped == 64 ? low : low | high << (128 - dropped);
+            }
+            magnitude = Math.scalb((double) (lost != 0 ? top | 1 : top), dropped - 64);
+        }
+        return negative ? -magnitude : magnitude;
+    }
+}
@@ -0,0 +1,240 @@
+package org.SDC;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Detects missing intervals in the data rows passed through it to another row handler and reports them per month,
+ * so that the results of long unattended runs can be trusted.
+ * <p>
+ * The rows are expected at a regular interval, e.g. every 15 minutes. Unless the interval is given, it is inferred as
+ * the most common distance of consecutive rows up to one day, so a single row off the grid, e.g. at :07 in data
+ * every 15 minutes, does not shrink it. For every month the detector keeps one bit per minute marking the minutes
+ * with a row; an interval is missing when none of its minutes has a row. The intervals start at the first row, and intervals before the first row and after
+ * the last row are not counted as missing.
+ * <p>
+ * The report is enabled by system properties, see {@link #fromSystemProperties(RowHandler)}.
+ * A detector belongs to one read and is not thread-safe.
+ */
+public final class GapDetector implements RowHandler {
+
+    private static final Logger logger = LogManager.getLogger(GapDetector.class);
+
+    private static final int MAX_MINUTES_PER_MONTH = 31 * CalendarMath.MINUTES_PER_DAY;
+
+    private final RowHandler rowHandler;
+    private final int intervalMinutes;
+    private final Map<Integer, long[]> minutesByMonth = new HashMap<>();
+    private int currentMonth = Integer.MIN_VALUE;
+    private long currentMonthStart;
+    private long[] currentMinutes;
+    private long firstMinute = Long.MAX_VALUE;
+    private long lastMinute = Long.MIN_VALUE;
+    private long previousMinute = Long.MIN_VALUE;
+    // Počty vzdáleností sousedních řádků po minutách, jen při odvozovaném intervalu.
+    private final int[] distanceCounts;
+
+    // Měsíc, ve kterém se při výpočtu mezer naposledy hledalo.
+    private long lookupStart;
+    private long lookupEnd = Long.MIN_VALUE;
+    private long[] lookupMinutes;
+    private YearMonth lookupMonth;
+
+    /**
+     * Missing intervals of one month.
+     *
+     * @param month               the month.
+     * @param expectedIntervals   the number of intervals of the month between the first and the last row.
+     * @param missingIntervals    the number of intervals without a row.
+     * @param longestGapStart     the start of the longest run of missing intervals within the month.
+     * @param longestGapIntervals the number of intervals of the longest run.
+     */
+    public record MonthGaps(YearMonth month, int expectedIntervals, int missingIntervals,
+                            LocalDateTime longestGapStart, int longestGapIntervals) {
+    }
+
+    /**
+     * Creates a detector passing the rows to a row handler.
+     *
+     * @param rowHandler      receives the rows.
+     * @param intervalMinutes the expected distance of the rows in minutes, 0 to infer it from the rows.
+     */
+    public GapDetector(RowHandler rowHandler, int intervalMinutes) {
+        if (intervalMinutes < 0) {
+            throw new IllegalArgumentException("Neplatný interval dat: " + intervalMinutes + " minut.");
+        }
+        this.rowHandler = rowHandler;
+        this.intervalMinutes = intervalMinutes;
+        this.distanceCounts = intervalMinutes == 0 ? new int[CalendarMath.MINUTES_PER_DAY + 1] : null;
+    }
+
+    /**
+     * Returns whether the report of missing intervals is enabled by the `sdc.gapReport` system property,
+     * by default together with the lenient ingest, see {@link Quarantine#enabled()}.
+     *
+     * @return true if the missing intervals are reported.
+     */
+    public static boolean enabled() {
+        return Boolean.parseBoolean(System.getProperty("sdc.gapReport", String.valueOf(Quarantine.enabled())));
+    }
+
+    /**
+     * Creates a detector if the report of missing intervals is enabled, see {@link #enabled()}.
+     * `sdc.intervalMinutes` sets the expected distance of the rows; without it the distance is inferred.
+     *
+     * @param rowHandler receives the rows.
+     * @return the detector, or null if the report is disabled.
+     */
+    public static GapDetector fromSystemProperties(RowHandler rowHandler) {
+        if (!enabled()) {
+            return null;
+        }
+        return new GapDetector(rowHandler, Integer.getInteger("sdc.intervalMinutes", 0));
+    }
+
+    @Override
+    public void handle(int year, int month, int dayOfMonth, int minuteOfDay, double value) {
+        int monthIndex = CalendarMath.monthIndex(year, month);
+        if (monthIndex != currentMonth) {
+            currentMonth = monthIndex;
+            currentMonthStart = CalendarMath.epochDay(year, month, 1) * CalendarMath.MINUTES_PER_DAY;
+            currentMinutes = minutesByMonth.computeIfAbsent(monthIndex, index -> new long[(MAX_MINUTES_PER_MONTH + 63) >>> 6]);
+        }
+        int minuteOfMonth = (dayOfMonth - 1) * CalendarMath.MINUTES_PER_DAY + minuteOfDay;
+        currentMinutes[minuteOfMonth >>> 6] |= 1L << minuteOfMonth;
+
+        long minute = currentMonthStart + minuteOfMonth;
+        if (distanceCounts != null && previousMinute != Long.MIN_VALUE) {
+            long distance = Math.abs(minute - previousMinute);
+            if (distance > 0 && distance < distanceCounts.length) {
+                distanceCounts[(int) distance]++;
+            }
+        }
+        previousMinute = minute;
+        firstMinute = Math.min(firstMinute, minute);
+        lastMinute = Math.max(lastMinute, minute);
+        rowHandler.handle(year, month, dayOfMonth, minuteOfDay, value);
+    }
+
+    /**
+     * Returns the distance of the rows used to detect the missing intervals.
+     *
+     * @return the given or inferred interval in minutes, 0 if no two consecutive rows are less than a day apart.
+     */
+    public long intervalMinutes() {
+        if (intervalMinutes > 0) {
+            return intervalMinutes;
+        }
+        // Nejčastější vzdálenost, při shodě ta kratší.
+        int mostCommon = 0;
+        for (int distance = 1; distance < distanceCounts.length; distance++) {
+            if (distanceCounts[distance] > distanceCounts[mostCommon]) {
+                mostCommon = distance;
+            }
+        }
+        return mostCommon;
+    }
+
+    /**
+     * Returns the months with missing intervals among the rows seen so far.
+     *
+     * @return the months with at least one missing interval, in chronological order.
+     */
+    public List<MonthGaps> gaps() {
+        List<MonthGaps> gaps = new ArrayList<>();
+        long interval = intervalMinutes();
+        if (interval == 0) {
+            return gaps;
+        }
+        YearMonth month = null;
+        int expected = 0;
+        int missing = 0;
+        int run = 0;
+        int longest = 0;
+        long runStart = 0;
+        long longestStart = 0;
+        for (long slot = firstMinute; slot <= lastMinute; slot += interval) {
+            seek(slot);
+            if (!lookupMonth.equals(month)) {
+                addGaps(gaps, month, expected, missing, longestStart, longest);
+                month = lookupMonth;
+                expected = 0;
+                missing = 0;
+                run = 0;
+                longest = 0;
+            }
+            expected++;
+            boolean present = false;
+            for (long minute = slot; minute < slot + interval && minute <= lastMinute && !present; minute++) {
+                present = hasRow(minute);
+            }
+            if (present) {
+                run = 0;
+            } else {
+                if (run++ == 0) {
+                    runStart = slot;
+                }
+                missing++;
+                if (run > longest) {
+                    longest = run;
+                    longestStart = runStart;
+                }
+            }
+        }
+        addGaps(gaps, month, expected, missing, longestStart, longest);
+        return gaps;
+    }
+
+    private static void addGaps(List<MonthGaps> gaps, YearMonth month, int expected, int missing, long longestStart, int longest) {
+        if (missing > 0) {
+            LocalDateTime start = LocalDate.ofEpochDay(Math.floorDiv(longestStart, CalendarMath.MINUTES_PER_DAY)).atStartOfDay()
+                    .plusMinutes(Math.floorMod(longestStart, CalendarMath.MINUTES_PER_DAY));
+            gaps.add(new MonthGaps(month, expected, missing, start, longest));
+        }
+    }
+
+    private void seek(long minute) {
+        if (minute >= lookupStart && minute < lookupEnd) {
+            return;
+        }
+        LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(minute, CalendarMath.MINUTES_PER_DAY));
+        lookupMonth = YearMonth.from(date);
+        lookupStart = date.withDayOfMonth(1).toEpochDay() * CalendarMath.MINUTES_PER_DAY;
+        lookupEnd = lookupStart + (long) date.lengthOfMonth() * CalendarMath.MINUTES_PER_DAY;
+        lookupMinutes = minutesByMonth.get(CalendarMath.monthIndex(date.getYear(), date.getMonthValue()));
+    }
+
+    private boolean hasRow(long minute) {
+        seek(minute);
+        if (lookupMinutes == null) {
+            return false;
+        }
+        int minuteOfMonth = (int) (minute - lookupStart);
+        return (lookupMinutes[minuteOfMonth >>> 6] & (1L << minuteOfMonth)) != 0;
+    }
+
+    /**
+     * Logs the months with missing intervals, or that no interval is missing.
+     *
+     * @param source the name of the data, e.g. the path of the data file.
+     */
+    public void logGaps(String source) {
+        List<MonthGaps> gaps = gaps();
+        for (MonthGaps month : gaps) {
+            logger.warn("{}: v měsíci {} chybí {} z {} intervalů po {} min, nejdelší mezera {} intervalů od {}.", source,
+                    month.month(), month.missingIntervals(), month.expectedIntervals(), intervalMinutes(),
+                    month.longestGapIntervals(), month.longestGapStart());
+        }
+        if (gaps.isEmpty() && intervalMinutes() > 0) {
+            logger.info("{}: v datech nechybí žádný interval po {} min.", source, intervalMinutes());
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package org.SDC;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Solar data export loaded into memory once, to answer many queries without rereading the file.
+ * <p>
+ * Rows are kept in file order in primitive arrays, the timestamps as minutes since 1970-01-01 in an {@code int}
+ * and the values as {@code float}s, i.e. 8 bytes per row, together with an index of runs of consecutive rows
+ * of the same month, so a query only visits the months it asks for. A float keeps about 7 significant digits,
+ * so the totals of the dataset may differ from reading the file from about the 7th significant digit on;
+ * the totals themselves are summed exactly, see `FixedPointSum`.
+ * <p>
+ * Queries are evaluated over day totals, see {@link #forEachDay(int, int, AggregateIndex.DayConsumer)}: the day
+ * totals of every month run are summed in a tight loop over the arrays, in parallel on the fork-join pool when
+ * the period has at least {@value #PARALLEL_THRESHOLD} rows. The dataset is immutable after loading and can be
+ * shared by any number of threads.
+ * <p>
+ * The interactive queries use a dataset shared by the whole application when {@code -Dsdc.inMemory=true},
+ * see {@link #shared(String, IngestMode)}. Because of the float values, this mode trades precision for speed:
+ * its totals match reading the file only to about 7 significant digits, and its results are therefore never
+ * stored in or taken from the `ResultCache`.
+ */
+public final class InMemoryDataset implements RowSource {
+
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    private static InMemoryDataset shared;
+    private static SourceFingerprint sharedSource;
+    private static IngestMode sharedIngestMode;
+
+    private final int[] epochMinutes;
+    private final float[] values;
+    private final int size;
+    private final int[] runMonths;
+    private final int[] runStarts;
+    private final int runCount;
+
+    private InMemoryDataset(Builder builder) {
+        this.epochMinutes = Arrays.copyOf(builder.epochMinutes, builder.size);
+        this.values = Arrays.copyOf(builder.values, builder.size);
+        this.size = builder.size;
+        this.runMonths = Arrays.copyOf(builder.runMonths, builder.runCount);
+        this.runStarts = Arrays.copyOf(builder.runStarts, builder.runCount);
+        this.runCount = builder.runCount;
+    }
+
+    /**
+     * Loads all data rows of the file into memory.
+     *
+     * @param filePath   the path to the CSV file.
+     * @param ingestMode the strategy used to read the CSV file.
+     * @return the loaded dataset.
+     * @throws IOException if the file cannot be read or processed.
+     */
+    public static InMemoryDataset load(String filePath, IngestMode ingestMode) throws IOException {
+        Builder builder = new Builder();
+        new CSVReaderService(new DataProcessor(), ingestMode).readRows(filePath, Integer.MIN_VALUE, Integer.MAX_VALUE, builder);
+        return new InMemoryDataset(builder);
+    }
+
+    /**
+     * Returns whether the interactive queries are answered from a dataset in memory, see the `sdc.inMemory` system property.
+     * The dataset keeps the values as floats, so the totals are precise to about 7 significant digits only.
+     *
+     * @return true if the queries use the shared dataset.
+     */
+    public static boolean enabled() {
+        return Boolean.getBoolean("sdc.inMemory");
+    }
+
+    /**
+     * Returns the dataset shared by the queries of the application, loading the file on first use and again
+     * whenever the file changes. Only the dataset of the last file asked for is kept.
+     *
+     * @param filePath   the path to the CSV file.
+     * @param ingestMode the strategy used to read the CSV file.
+     * @return the dataset of the current version of the file.
+     * @throws IOException if the file cannot be read or processed.
+     */
+    public static synchronized InMemoryDataset shared(String filePath, IngestMode ingestMode) throws IOException {
+        if (!isShared(filePath, ingestMode)) {
+            // Nejdřív se uvolní starý dataset, aby se v paměti nedržely oba najednou.
+            shared = null;
+            SourceFingerprint source = SourceFingerprint.of(Path.of(filePath));
+            shared = load(filePath, ingestMode);
+            sharedSource = source;
+            sharedIngestMode = ingestMode;
+        }
+        return shared;
+    }
+
+    /**
+     * Returns whether the shared dataset holds the current version of the file, so that {@link #shared(String, IngestMode)}
+     * does not read it.
+     *
+     * @param filePath   the path to the CSV file.
+     * @param ingestMode the strategy used to read the CSV file.
+     * @return true if the shared dataset of the file is loaded and up to date.
+     * @throws IOException if the attributes of the file cannot be read.
+     */
+    public static synchronized boolean isShared(String filePath, IngestMode ingestMode) throws IOException {
+        return shared != null && sharedIngestMode == ingestMode && sharedSource.equals(SourceFingerprint.of(Path.of(filePath)));
+    }
+
+    /**
+     * Passes the rows within the month range to the row handler in file order.
+     *
+     * @param fromIndex  the first month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param toIndex    the last month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param rowHandler receives the rows within the range.
+     */
+    @Override
+    public void forEachRow(int fromIndex, int toIndex, RowHandler rowHandler) {
+        long lastEpochDay = Long.MIN_VALUE;
+        int date = 0;
+        for (int run = 0; run < runCount; run++) {
+            if (runMonths[run] < fromIndex || runMonths[run] > toIndex) {
+                continue;
+            }
+            int end = runEnd(run);
+            for (int i = runStarts[run]; i < end; i++) {
+                int epochMinute = epochMinutes[i];
+                long epochDay = Math.floorDiv(epochMinute, CalendarMath.MINUTES_PER_DAY);
+                if (epochDay != lastEpochDay) {
+                    date = CalendarMath.packedDateOfEpochDay(epochDay);
+                    lastEpochDay = epochDay;
+                }
+                rowHandler.handle(CalendarMath.packedYear(date), CalendarMath.packedMonth(date), CalendarMath.packedDayOfMonth(date),
+                        Math.floorMod(epochMinute, CalendarMath.MINUTES_PER_DAY), values[i]);
+            }
+        }
+    }
+
+    /**
+     * Passes the day totals of the months within the range to the day consumer, in file order.
+     * <p>
+     * The rows of every month run are summed into day totals in a tight loop over the arrays; a new total starts
+     * whenever the day changes, so the day totals describe the rows exactly as they would be passed one by one.
+     * Periods of at least {@value #PARALLEL_THRESHOLD} rows sum their month runs in parallel; the day totals are
+     * still passed in file order, on the calling thread, and are identical to the sequential ones.
+     *
+     * @param fromIndex   the first month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param toIndex     the last month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param dayConsumer receives the day totals, e.g. {@code accumulator::processDay}.
+     */
+    public void forEachDay(int fromIndex, int toIndex, AggregateIndex.DayConsumer dayConsumer) {
+        forEachDay(fromIndex, toIndex, dayConsumer, PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Passes the day totals like {@link #forEachDay(int, int, AggregateIndex.DayConsumer)}, summing the month runs
+     * in parallel from the given number of rows of the period.
+     */
+    void forEachDay(int fromIndex, int toIndex, AggregateIndex.DayConsumer dayConsumer, long parallelThreshold) {
+        int[] runs = IntStream.range(0, runCount)
+                .filter(run -> runMonths[run] >= fromIndex && runMonths[run] <= toIndex)
+                .toArray();
+        long rows = 0;
+        for (int run : runs) {
+            rows += runEnd(run) - runStarts[run];
+        }
+        if (rows < parallelThreshold) {
+            for (int run : runs) {
+                dayTotals(run).forEachDay(dayConsumer);
+            }
+        } else {
+            List<DaySeries> days = IntStream.of(runs).parallel().mapToObj(this::dayTotals).toList();
+            for (DaySeries run : days) {
+                run.forEachDay(dayConsumer);
+            }
+        }
+    }
+
+    private int runEnd(int run) {
+        return run + 1 < runCount ? runStarts[run + 1] : size;
+    }
+
+    private DaySeries dayTotals(int run) {
+        DaySeries days = new DaySeries();
+        int end = runEnd(run);
+        int day = Integer.MIN_VALUE;
+        int date = 0;
+        for (int i = runStarts[run]; i < end; i++) {
+            int rowDay = Math.floorDiv(epochMinutes[i], CalendarMath.MINUTES_PER_DAY);
+            if (rowDay != day) {
+                day = rowDay;
+                date = CalendarMath.packedDateOfEpochDay(day);
+            }
+            days.add(date, values[i]);
+        }
+        return days;
+    }
+
+    /**
+     * Returns the number of rows of the dataset.
+     *
+     * @return the number of rows.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Collects rows while the file is being read.
+     */
+    private static final class Builder implements RowHandler {
+        private int[] epochMinutes = new int[1 << 14];
+        private float[] values = new float[1 << 14];
+        private int size;
+        private int[] runMonths = new int[64];
+        private int[] runStarts = new int[64];
+        private int runCount;
+
+        @Override
+        public void handle(int year, int month, int dayOfMonth, int minuteOfDay, double value) {
+            if (size == epochMinutes.length) {
+                epochMinutes = Arrays.copyOf(epochMinutes, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            int monthIndex = CalendarMath.monthIndex(year, month);
+            if (runCount == 0 || runMonths[runCount - 1] != monthIndex) {
+                if (runCount == runMonths.length) {
+                    runMonths = Arrays.copyOf(runMonths, runCount * 2);
+                    runStarts = Arrays.copyOf(runStarts, runCount * 2);
+                }
+                runMonths[runCount] = monthIndex;
+                runStarts[runCount] = size;
+                runCount++;
+            }
+            epochMinutes[size] = Math.toIntExact(CalendarMath.epochDay(year, month, dayOfMonth) * CalendarMath.MINUTES_PER_DAY + minuteOfDay);
+            values[size] = (float) value;
+            size++;
+        }
+    }
+}
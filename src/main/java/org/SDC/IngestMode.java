@@ -0,0 +1,53 @@
+package org.SDC;
+
+/**
+ * Strategies that `CSVReaderService` can use to read the solar data export.
+ */
+public enum IngestMode {
+
+    /**
+     * Reads the file record by record through commons-csv and `LocalDateTime.parse`.
+     * Slowest, but accepts any CSV that commons-csv understands.
+     */
+    COMMONS_CSV,
+
+    /**
+     * Scans the file bytes directly and decodes the fixed timestamp layout into primitive fields.
+     * Rows with an irregular layout are handed over to the commons-csv decoder one by one.
+     */
+    FAST,
+
+    /**
+     * Memory-maps the file and decodes line-aligned chunks of it on all available processors; a single query
+     * also sums every chunk into day totals on its worker. Intended for very large exports; the results are
+     * identical to the sequential modes.
+     */
+    PARALLEL_MAPPED,
+
+    /**
+     * Reads the requested months from a binary columnar copy of the file, which is created
+     * next to the CSV file on first use and rebuilt whenever the CSV file changes.
+     */
+    COLUMNAR_CACHE,
+
+    /**
+     * Answers the query from pre-aggregated day totals, which are computed once per data file and
+     * stored next to it. The day totals are exact sums, so the results are identical to the row-by-row modes.
+     */
+    AGGREGATE_INDEX,
+
+    /**
+     * Assumes the file is sorted by time: seeks to the first requested month by a binary search over the file
+     * and stops reading after the last one. Falls back to reading the whole file when the data is out of order.
+     */
+    ORDERED;
+
+    /**
+     * Resolves the ingest strategy from the `sdc.ingestMode` system property, defaulting to the fast path.
+     *
+     * @return the ingest mode to be used for reading the CSV file.
+     */
+    public static IngestMode fromSystemProperty() {
+        return valueOf(System.getProperty("sdc.ingestMode", FAST.name()));
+    }
+}
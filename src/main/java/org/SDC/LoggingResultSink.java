@@ -0,0 +1,127 @@
+package org.SDC;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
+/**
+ * Writes the result of a query to the log via Log4j, in the same form the console application always used:
+ * the chosen days and the summary of every month, followed by the totals for the whole period.
+ * <p>
+ * The lines are logged as parameterized messages with unboxed numbers, cached month and day names
+ * and dates assembled from cached two-digit strings, so Log4j can format them without creating garbage,
+ * and only when the level is enabled.
+ */
+public class LoggingResultSink implements ResultSink {
+
+    /**
+     * The zero-padded numbers 00 to 31, used for the month and the day of month of logged dates.
+     */
+    static final String[] TWO_DIGITS = new String[32];
+
+    static {
+        for (int i = 0; i < TWO_DIGITS.length; i++) {
+            TWO_DIGITS[i] = (i < 10 ? "0" : "") + i;
+        }
+    }
+
+    private final Logger logger;
+    private final boolean logDays;
+
+    /**
+     * Creates a sink that logs through the `DataProcessor` logger.
+     */
+    public LoggingResultSink() {
+        this(LogManager.getLogger(DataProcessor.class));
+    }
+
+    /**
+     * Creates a sink that logs through the given logger.
+     * Used when several queries are processed side by side and their output has to be told apart.
+     *
+     * @param logger the logger receiving the results.
+     */
+    public LoggingResultSink(Logger logger) {
+        this(logger, true);
+    }
+
+    /**
+     * Creates a sink that logs through the given logger, optionally without the lines of the individual chosen days.
+     *
+     * @param logger  the logger receiving the results.
+     * @param logDays whether the total of every chosen day is logged; the monthly and season results are logged always.
+     */
+    public LoggingResultSink(Logger logger, boolean logDays) {
+        this.logger = logger;
+        this.logDays = logDays;
+    }
+
+    @Override
+    public void accept(ProcessingResult result) {
+        long start = ProcessingMetrics.start();
+        List<ProcessingResult.DayResult> chosenDays = logDays ? result.chosenDays() : List.of();
+        int nextDay = 0;
+        for (ProcessingResult.MonthResult month : result.months()) {
+            // Dny se vypisují před souhrnem měsíce, do kterého patří.
+            int monthIndex = CalendarMath.monthIndex(month.year(), month.month());
+            while (nextDay < chosenDays.size() && monthIndex(chosenDays.get(nextDay)) <= monthIndex) {
+                logDailyResults(chosenDays.get(nextDay++));
+            }
+            logMonthlyResults(month, result.query().day());
+        }
+        while (nextDay < chosenDays.size()) {
+            logDailyResults(chosenDays.get(nextDay++));
+        }
+        logTotalResults(result);
+        ProcessingMetrics.recordLogging(start);
+    }
+
+    private static int monthIndex(ProcessingResult.DayResult day) {
+        return CalendarMath.monthIndex(day.year(), day.month());
+    }
+
+    /**
+     * Logs the cumulative results for a specific day.
+     *
+     * @param day the results of the day.
+     */
+    private void logDailyResults(ProcessingResult.DayResult day) {
+        if (logger.isInfoEnabled()) {
+            // Datum ve tvaru yyyy-MM-dd jako dřív z LocalDate, ale bez vytváření objektu pro každý řádek.
+            logger.info("Souhrnný výkon za {} {}-{}-{}: {} W/m²", CzechNames.dayOfWeek(day.dayOfWeek()), box(day.year()),
+                    TWO_DIGITS[day.month()], TWO_DIGITS[day.dayOfMonth()], box(day.total()));
+        }
+    }
+
+    /**
+     * Logs the cumulative results for a specific month and, if a day of the week was chosen,
+     * the average of the chosen day in the month.
+     *
+     * @param month     the results of the month.
+     * @param chosenDay the chosen day of the week, 0 if none.
+     */
+    private void logMonthlyResults(ProcessingResult.MonthResult month, int chosenDay) {
+        String monthName = CzechNames.month(month.month());
+        logger.info("Měsíc: {}, rok: {}, Celkový výkon: {} W/m²", monthName, box(month.year()), box(month.total()));
+        if (chosenDay > 0) {
+            logger.info("Průměrný výkon za zvolený den({}) za měsíc ({}) roku {}: {} W/m²", CzechNames.dayOfWeek(chosenDay), monthName,
+                    box(month.year()), box(month.chosenDayAverage()));
+        }
+    }
+
+    /**
+     * Logs the total results for the entire period (season).
+     *
+     * @param result the result of the query.
+     */
+    private void logTotalResults(ProcessingResult result) {
+        logger.info("Celkový výkon za období: {} W/m²", box(result.seasonTotal()));
+        if (result.chosenDaySeasonTotal() == 0) {
+            logger.info("Detailnějnější data ohledně výkonů v konkrétních dnech v průběhu celého období můžete získat, pokud si den zvolíte při úvodním zadání parametrů.");
+        }
+        logger.info("Celkový výkon za celé zvolené období pro zvolené dny: {} W/m²", box(result.chosenDaySeasonTotal()));
+    }
+}
@@ -1,21 +1,217 @@
 package org.SDC;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
 /**
  * The Main class serves as the entry point for the application.
- * It initializes and starts the program by invoking the ApplicationRunner class.
+ * It initializes and starts the program by invoking the ApplicationRunner class,
+ * runs the non-interactive batch mode when started with the {@code -batch} argument,
+ * starts the HTTP query service when started with the {@code -restApi} argument,
+ * follows a growing data file when started with the {@code -follow} argument,
+ * evaluates a query over many files and stations when started with the {@code -dataset} argument,
+ * or aggregates the data into time buckets when started with the {@code -buckets} argument.
  * <p>
  * Author: Matej Pella
  */
 public class Main {
 
+    private static final String DEFAULT_FILE = "src/main/resources/dataexport.csv";
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_POLL_SECONDS = 5;
+    private static final String USAGE = """
+            Použití:
+              -console                                    interaktivní režim (výchozí)
+              -batch <soubor.csv> <dotaz> [<dotaz> ...]   dávkové zpracování dotazů v jednom průchodu souborem
+              -batch <soubor.csv> -queries <soubor>       dávkové zpracování dotazů ze souboru (jeden dotaz na řádek)
+              -restApi [<soubor.csv>] [<port>]            HTTP server s JSON rozhraním GET /api/results?from=&to=&day=
+              -follow <soubor.csv> <dotaz> [<sekundy>]    průběžné zpracování řádků připisovaných na konec souboru
+              -dataset <adresář|glob> <dotaz>             dotaz nad více soubory, výsledky po stanicích i celkem
+              -buckets <soubor.csv> <dotaz> <členění>     počet, součet, průměr, minimum a maximum po časových úsecích;
+                                                          členění hour, day, week, month nebo <N>min, více oddělených čárkou
+            Dotaz má tvar yyyyMM-yyyyMM[/den], např. 201001-201012/3 (den: 1 = Pondělí, 7 = Neděle).
+            Měsíc 'to' se do výsledků nezapočítává, kromě režimu -follow, kde je to obvykle běžící měsíc.
+            Opakované dotazy lze brát z cache výsledků: -Dsdc.resultCacheSize=<počet> (výchozí 0 = vypnuto).
+            Výsledek v cache platí, dokud se nezmění cesta, velikost ani čas změny souboru s daty.""";
+
     /**
      * The main method is the starting point of the Java application.
-     * It creates an instance of ApplicationRunner and calls the `run` method to begin the program's execution.
+     * Without arguments (or with {@code -console}) it creates an instance of ApplicationRunner and calls
+     * the `run` method to begin the interactive program's execution.
      *
-     * @param args command-line arguments (not used in this application).
+     * @param args command-line arguments selecting the mode of the application (-console, -batch, -restApi, -follow, -dataset or -buckets).
      */
     public static void main(String[] args) {
-        new ApplicationRunner().run();
+        if (args.length == 0 || args[0].equals("-console")) {
+            new ApplicationRunner().run();
+        } else if (args[0].equals("-batch")) {
+            runBatch(args);
+        } else if (args[0].equals("-restApi")) {
+            runRestApi(args);
+        } else if (args[0].equals("-follow")) {
+            runFollow(args);
+        } else if (args[0].equals("-dataset")) {
+            runDataset(args);
+        } else if (args[0].equals("-buckets")) {
+            runBuckets(args);
+        } else {
+            System.out.println(USAGE);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Loads the data file into memory and starts the HTTP query service.
+     *
+     * @param args command-line arguments starting with {@code -restApi}.
+     */
+    private static void runRestApi(String[] args) {
+        try {
+            String filePath = args.length > 1 ? args[1] : DEFAULT_FILE;
+            int port = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PORT;
+            InMemoryDataset dataset = InMemoryDataset.load(filePath, IngestMode.fromSystemProperty());
+            RestApiServer server = new RestApiServer(dataset);
+            server.start(port);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        } catch (NumberFormatException e) {
+            System.out.println("Neplatné číslo portu.");
+            System.out.println(USAGE);
+            System.exit(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Evaluates a query over all files of a directory or glob pattern and logs the results of every station
+     * and of all stations together.
+     *
+     * @param args command-line arguments starting with {@code -dataset}.
+     */
+    private static void runDataset(String[] args) {
+        try {
+            if (args.length != 3) {
+                throw new IllegalArgumentException("Chybí soubory s daty nebo dotaz.");
+            }
+            DataQuery query = DataQuery.parse(args[2]);
+            DatasetResult result = MultiFileDataset.open(args[1]).process(new DataProcessor(), query);
+            result.stations().forEach((station, stationResult) -> {
+                Logger stationLogger = LogManager.getLogger("org.SDC.station." + station);
+                stationLogger.info("Stanice: {}", station);
+                new LoggingResultSink(stationLogger).accept(stationResult);
+            });
+            Logger datasetLogger = LogManager.getLogger("org.SDC.dataset");
+            datasetLogger.info("Všechny stanice ({}), zpracováno souborů: {} z {}", box(result.stations().size()),
+                    box(result.fileCount() - result.skippedFiles()), box(result.fileCount()));
+            new LoggingResultSink(datasetLogger).accept(result.combined());
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println(USAGE);
+            System.exit(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Aggregates the period of a query into time buckets of one or more granularities in a single pass over the file
+     * and logs the statistics of every bucket, one logger per granularity, e.g. {@code org.SDC.buckets.week}.
+     *
+     * @param args command-line arguments starting with {@code -buckets}.
+     */
+    private static void runBuckets(String[] args) {
+        try {
+            if (args.length != 4) {
+                throw new IllegalArgumentException("Chybí soubor s daty, dotaz nebo členění.");
+            }
+            DataQuery query = DataQuery.parse(args[2]);
+            List<TimeBucket> granularities = new ArrayList<>();
+            for (String granularity : args[3].split(",")) {
+                granularities.add(TimeBucket.parse(granularity));
+            }
+            DataProcessor dataProcessor = new DataProcessor();
+            CSVReaderService csvReaderService = new CSVReaderService(dataProcessor, IngestMode.fromSystemProperty());
+            for (BucketSeries series : dataProcessor.aggregate(query, csvReaderService.rowSource(args[1]), granularities)) {
+                Logger bucketLogger = LogManager.getLogger("org.SDC.buckets." + series.bucket());
+                for (int i = 0; i < series.size(); i++) {
+                    bucketLogger.info("{}: počet {}, součet {} W/m², průměr {} W/m², minimum {} W/m², maximum {} W/m²",
+                            series.label(i), box(series.count(i)), box(series.sum(i)), box(series.mean(i)), box(series.min(i)), box(series.max(i)));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println(USAGE);
+            System.exit(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Follows a growing data file and logs the running results of the query after every append.
+     *
+     * @param args command-line arguments starting with {@code -follow}.
+     */
+    private static void runFollow(String[] args) {
+        try {
+            if (args.length < 3 || args.length > 4) {
+                throw new IllegalArgumentException("Chybí soubor s daty nebo dotaz.");
+            }
+            DataQuery query = DataQuery.parse(args[2]);
+            int pollSeconds = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_POLL_SECONDS;
+            TailFollower follower = new CSVReaderService(new DataProcessor(), IngestMode.FAST).follower(args[1], query);
+            follower.follow(Duration.ofSeconds(pollSeconds), new RunningTotalsSink());
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println(USAGE);
+            System.exit(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs the batch mode with the queries given on the command line or in a query file.
+     *
+     * @param args command-line arguments starting with {@code -batch}.
+     */
+    private static void runBatch(String[] args) {
+        try {
+            if (args.length < 3) {
+                throw new IllegalArgumentException("Chybí soubor s daty nebo dotazy.");
+            }
+            List<DataQuery> queries = new ArrayList<>();
+            if (args[2].equals("-queries")) {
+                if (args.length != 4) {
+                    throw new IllegalArgumentException("Za -queries musí následovat právě jeden soubor s dotazy.");
+                }
+                queries.addAll(BatchRunner.readQueries(args[3]));
+            } else {
+                Arrays.stream(args, 2, args.length).map(DataQuery::parse).forEach(queries::add);
+            }
+            new BatchRunner(IngestMode.fromSystemProperty()).run(args[1], queries);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println(USAGE);
+            System.exit(1);
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
     }
 }
 
@@ -0,0 +1,23 @@
+package org.SDC;
+
+import java.io.IOException;
+
+/**
+ * Signals that the lenient ingest found more malformed rows in a data file than the allowed error rate,
+ * so the file is most likely not a solar data export and its read was aborted.
+ *
+ * @see Quarantine
+ */
+public class MalformedDataException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates the exception.
+     *
+     * @param message the description of the problem.
+     */
+    public MalformedDataException(String message) {
+        super(message);
+    }
+}
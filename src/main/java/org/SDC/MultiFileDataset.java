@@ -0,0 +1,162 @@
+package org.SDC;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Dataset made of many solar data exports, e.g. one export per station and year.
+ * <p>
+ * The files are given by a directory (all {@code .csv} files in it) or a glob pattern such as
+ * {@code data/**}{@code /basel-*.csv}. The station of a file is identified by the location in its header.
+ * <p>
+ * A query first reads the header and the boundary rows of every file, see `DataFileInfo`, and skips the files
+ * with no rows in the requested period without reading further. The remaining files are aggregated into day totals
+ * in parallel on the fork-join pool, one task per file. The day totals of each station are then combined in date order
+ * and evaluated by a `QueryAccumulator`; the combined result adds up the day totals of all stations.
+ * The day totals are exact sums, see `FixedPointSum`, so the results do not depend on how the rows are split
+ * into files and match row-by-row processing of the same rows.
+ * <p>
+ * The lenient ingest and the report of missing intervals apply to every file on its own, see `Quarantine` and `GapDetector`.
+ */
+public class MultiFileDataset {
+
+    private final List<Path> files;
+
+    private MultiFileDataset(List<Path> files) {
+        this.files = List.copyOf(files);
+    }
+
+    /**
+     * Opens a dataset of the files in a directory, the files matching a glob pattern, or a single file.
+     *
+     * @param location a directory, a glob pattern or a file.
+     * @return the dataset.
+     * @throws IOException if the files cannot be listed or no file is found.
+     */
+    public static MultiFileDataset open(String location) throws IOException {
+        List<Path> files = new ArrayList<>();
+        int globStart = indexOfGlob(location);
+        if (globStart >= 0) {
+            // Základní adresář je část cesty před prvním zástupným znakem.
+            int separator = Math.max(location.lastIndexOf('/', globStart), location.lastIndexOf('\\', globStart));
+            Path directory = Path.of(separator < 0 ? "." : location.substring(0, separator + 1));
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + location.substring(separator + 1));
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.filter(Files::isRegularFile).filter(path -> matcher.matches(directory.relativize(path))).forEach(files::add);
+            }
+        } else if (Files.isDirectory(Path.of(location))) {
+            try (Stream<Path> paths = Files.list(Path.of(location))) {
+                paths.filter(Files::isRegularFile).filter(path -> path.getFileName().toString().toLowerCase().endsWith(".csv")).forEach(files::add);
+            }
+        } else if (Files.isRegularFile(Path.of(location))) {
+            files.add(Path.of(location));
+        }
+        if (files.isEmpty()) {
+            throw new NoSuchFileException(location, null, "Nenalezen žádný soubor s daty.");
+        }
+        files.sort(Comparator.naturalOrder());
+        return new MultiFileDataset(files);
+    }
+
+    private static int indexOfGlob(String location) {
+        for (int i = 0; i < location.length(); i++) {
+            if ("*?[{".indexOf(location.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the files of the dataset.
+     *
+     * @return the files, sorted by path.
+     */
+    public List<Path> files() {
+        return files;
+    }
+
+    /**
+     * Evaluates a query over all files of the dataset.
+     *
+     * @param dataProcessor the processor creating the accumulators of the query.
+     * @param query         the query to evaluate.
+     * @return the results of the individual stations and of all stations together.
+     * @throws IOException if a file cannot be read or processed.
+     */
+    public DatasetResult process(DataProcessor dataProcessor, DataQuery query) throws IOException {
+        long start = ProcessingMetrics.start();
+        int fromIndex = query.fromIndex();
+        int toIndex = query.toIndex();
+        try {
+            List<DataFileInfo> overlapping = files.parallelStream()
+                    .map(MultiFileDataset::readInfo)
+                    .filter(info -> info.overlaps(fromIndex, toIndex))
+                    .sorted(Comparator.comparingInt(DataFileInfo::firstDate))
+                    .toList();
+            List<DaySeries> series = overlapping.parallelStream()
+                    .map(info -> readDays(info.file(), fromIndex, toIndex))
+                    .toList();
+
+            Map<String, List<DaySeries>> seriesByStation = new TreeMap<>();
+            for (int i = 0; i < overlapping.size(); i++) {
+                seriesByStation.computeIfAbsent(overlapping.get(i).station(), station -> new ArrayList<>()).add(series.get(i));
+            }
+            Map<String, ProcessingResult> stations = new TreeMap<>();
+            List<DaySeries> stationSeries = new ArrayList<>();
+            for (Map.Entry<String, List<DaySeries>> entry : seriesByStation.entrySet()) {
+                DaySeries days = DaySeries.merge(entry.getValue());
+                stationSeries.add(days);
+                stations.put(entry.getKey(), evaluate(dataProcessor, query, days));
+            }
+            ProcessingResult combined = evaluate(dataProcessor, query, DaySeries.merge(stationSeries));
+            ProcessingMetrics.recordQueries(start, 1);
+            return new DatasetResult(stations, combined, files.size(), files.size() - overlapping.size());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static ProcessingResult evaluate(DataProcessor dataProcessor, DataQuery query, DaySeries days) {
+        QueryAccumulator accumulator = dataProcessor.newAccumulator(query);
+        days.forEachDay(accumulator::processDay);
+        return accumulator.toResult();
+    }
+
+    private static DataFileInfo readInfo(Path file) {
+        try {
+            return DataFileInfo.read(file, CSVReaderService.HEADER_LINES);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static DaySeries readDays(Path file, int fromIndex, int toIndex) {
+        DaySeries days = new DaySeries();
+        long start = ProcessingMetrics.start();
+        RowHandler rowHandler = ProcessingMetrics.timed(days);
+        GapDetector gapDetector = GapDetector.fromSystemProperties(rowHandler);
+        try (Quarantine quarantine = Quarantine.fromSystemProperties(file)) {
+            new SequentialCSVReader().read(file.toString(), CSVReaderService.HEADER_LINES, header -> {
+            }, fromIndex, toIndex, gapDetector != null ? gapDetector : rowHandler, quarantine);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ProcessingMetrics.recordRead(start);
+        if (gapDetector != null) {
+            gapDetector.logGaps(file.toString());
+        }
+        return days;
+    }
+}
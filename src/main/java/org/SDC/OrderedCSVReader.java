@@ -0,0 +1,337 @@
+package org.SDC;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Reads chronologically sorted solar data exports, touching only the part of the file within the month range.
+ * <p>
+ * The first row of the range is found by a binary search over byte offsets: every probe reads a few kilobytes
+ * in the middle of the remaining interval, more if a row does not fit into them, and decodes the first row starting there. The file is then read
+ * sequentially from that point and reading stops at the first row after the range, so a query costs
+ * O(range) instead of O(file).
+ * <p>
+ * The order is checked on the way: the probes, including a few evenly spaced ones, must not contradict each other
+ * and the rows read must not go back in time. If the probes are inconsistent, the whole file is read as by
+ * `SequentialCSVReader`. If the rows read go back in time after rows before them have been skipped,
+ * an `UnorderedDataException` is thrown, because rows may be missing; callers then repeat the query with a full scan.
+ * Disorder in parts of the file that are neither probed nor read cannot be detected.
+ */
+public class OrderedCSVReader {
+
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+    private static final int PROBE_SIZE = 4096;
+    private static final long MIN_SEARCH_INTERVAL = 1 << 16;
+    private static final int ORDER_PROBES = 16;
+
+    private final CSVLineDecoder decoder = new CSVLineDecoder();
+
+    /**
+     * Reads the file, passing the header lines to the header consumer and the data rows
+     * within the month range to the row handler in file order.
+     *
+     * @param filePath       the path to the CSV file.
+     * @param headerLines    the number of non-empty header lines preceding the data.
+     * @param headerConsumer receives the raw header lines.
+     * @param fromIndex      the first month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param toIndex        the last month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param rowHandler     receives the data rows within the range.
+     * @throws UnorderedDataException if the file turns out not to be sorted after rows have been skipped.
+     * @throws IOException            if the file cannot be read or processed.
+     */
+    public void read(String filePath, int headerLines, Consumer<String> headerConsumer,
+                     int fromIndex, int toIndex, RowHandler rowHandler) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = readHeader(channel, headerLines, headerConsumer);
+            long start = findStart(channel, dataStart, size, fromIndex);
+            boolean ordered = start >= 0;
+            scan(channel, ordered ? start : dataStart, ordered, ordered && start > dataStart, fromIndex, toIndex, rowHandler);
+        }
+    }
+
+    private long readHeader(FileChannel channel, int headerLines, Consumer<String> headerConsumer) throws IOException {
+        byte[] bytes = new byte[PROBE_SIZE];
+        int filled = 0;
+        int position = 0;
+        int found = 0;
+        while (found < headerLines) {
+            int lineEnd = indexOfNewLine(bytes, position, filled);
+            if (lineEnd < 0) {
+                if (filled == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                int read = channel.read(ByteBuffer.wrap(bytes, filled, bytes.length - filled), filled);
+                if (read < 0) {
+                    break;
+                }
+                filled += read;
+                continue;
+            }
+            int end = lineEnd > position && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            if (end > position) {
+                headerConsumer.accept(new String(bytes, position, end - position, Charset.defaultCharset()));
+                found++;
+            }
+            position = lineEnd + 1;
+        }
+        return position;
+    }
+
+    /**
+     * Finds the offset of a line start before which no row of the range lies, provided the file is sorted.
+     *
+     * @return the offset, or -1 if the probes show that the file is not sorted.
+     */
+    private long findStart(FileChannel channel, long dataStart, long size, int fromIndex) throws IOException {
+        // Bez hlavičky chybí před prvním řádkem konec řádku, podle kterého sonda řádek pozná; soubor se pak čte celý.
+        if (dataStart == 0 || size <= dataStart || probe(channel, dataStart, size) < 0) {
+            return dataStart;
+        }
+        // Hranice platné pro seřazený soubor: žádný řádek nesmí být starší než první ani novější než poslední.
+        int lowMonth = CalendarMath.monthIndex(decoder.getYear(), decoder.getMonth());
+        int highMonth = probeLast(channel, size) ? CalendarMath.monthIndex(decoder.getYear(), decoder.getMonth()) : Integer.MAX_VALUE;
+        if (lowMonth > highMonth || !probesAscend(channel, dataStart, size, lowMonth, highMonth)) {
+            return -1;
+        }
+        if (lowMonth >= fromIndex) {
+            return dataStart;
+        }
+        // Měsíc řádku na "low" je menší než fromIndex, měsíc sondy na "high" ne.
+        long low = dataStart;
+        long high = size;
+        while (high - low > MIN_SEARCH_INTERVAL) {
+            long middle = low + (high - low) / 2;
+            long lineStart = probe(channel, middle, size);
+            if (lineStart < 0) {
+                // Od "middle" do konce souboru už žádný řádek nezačíná.
+                high = middle;
+                continue;
+            }
+            int month = CalendarMath.monthIndex(decoder.getYear(), decoder.getMonth());
+            if (month < lowMonth || month > highMonth) {
+                return -1;
+            }
+            if (month < fromIndex) {
+                low = lineStart;
+                lowMonth = month;
+            } else {
+                high = middle;
+                highMonth = month;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Checks the order at evenly spaced offsets of the file, so that a block of rows out of order is noticed
+     * even when the range lies before the first row and no binary search is needed.
+     *
+     * @return false if the months of the probes go back or leave the range of the first and the last row.
+     */
+    private boolean probesAscend(FileChannel channel, long dataStart, long size, int lowMonth, int highMonth) throws IOException {
+        int previousMonth = lowMonth;
+        for (int i = 1; i < ORDER_PROBES; i++) {
+            long offset = dataStart + (size - dataStart) * i / ORDER_PROBES;
+            if (offset <= dataStart || probe(channel, offset, size) < 0) {
+                continue;
+            }
+            int month = CalendarMath.monthIndex(decoder.getYear(), decoder.getMonth());
+            if (month < previousMonth || month > highMonth) {
+                return false;
+            }
+            previousMonth = month;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes the first row starting at or after the offset. The probe reads {@value #PROBE_SIZE} bytes and keeps
+     * reading until the row is complete, so a row longer than the probe is still found.
+     *
+     * @return the offset of the row, or -1 if no row starts at or after the offset.
+     */
+    private long probe(FileChannel channel, long offset, long size) throws IOException {
+        // Řádek začíná hned za znakem nového řádku, proto se čte od předchozího bajtu.
+        long from = offset - 1;
+        byte[] bytes = new byte[(int) Math.min(PROBE_SIZE, size - from)];
+        int limit = 0;
+        boolean endOfFile = false;
+        int newLine = -1;
+        int searched = 0;
+        while (true) {
+            int lineEnd = indexOfNewLine(bytes, searched, limit);
+            if (lineEnd < 0) {
+                if (!endOfFile) {
+                    // Dočtení dalšího úseku, dokud sonda neobsahuje celý řádek.
+                    searched = limit;
+                    if (limit == bytes.length) {
+                        bytes = Arrays.copyOf(bytes, (int) Math.min(Math.min(bytes.length * 2L, size - from), Integer.MAX_VALUE - 8));
+                    }
+                    int read = limit < bytes.length ? channel.read(ByteBuffer.wrap(bytes, limit, bytes.length - limit), from + limit) : -1;
+                    if (read < 0) {
+                        endOfFile = true;
+                    } else {
+                        limit += read;
+                        endOfFile = from + limit >= size;
+                    }
+                    continue;
+                }
+                if (newLine < 0) {
+                    return -1;
+                }
+                lineEnd = limit; // Poslední řádek bez konce řádku.
+            }
+            if (newLine >= 0) {
+                int start = newLine + 1;
+                int end = lineEnd > start && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                if (end > start) {
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                    if (!decoder.decode(buffer, start, end)) {
+                        decoder.decodeSlow(buffer, start, end);
+                    }
+                    return from + start;
+                }
+                if (lineEnd == limit) {
+                    return -1;
+                }
+            }
+            newLine = lineEnd;
+            searched = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Decodes the last row of the file.
+     *
+     * @return false if the last row does not fit into the probe.
+     */
+    private boolean probeLast(FileChannel channel, long size) throws IOException {
+        long from = Math.max(0, size - PROBE_SIZE);
+        ByteBuffer buffer = ByteBuffer.allocate((int) (size - from));
+        while (buffer.hasRemaining() && channel.read(buffer, from + buffer.position()) > 0) {
+            // Dočtení celé sondy.
+        }
+        byte[] bytes = buffer.array();
+        int end = buffer.position();
+        while (end > 0 && (bytes[end - 1] == '\n' || bytes[end - 1] == '\r')) {
+            end--;
+        }
+        int start = end;
+        while (start > 0 && bytes[start - 1] != '\n') {
+            start--;
+        }
+        if (start == 0 || end == start) {
+            return false;
+        }
+        if (!decoder.decode(buffer, start, end)) {
+            decoder.decodeSlow(buffer, start, end);
+        }
+        return true;
+    }
+
+    private void scan(FileChannel channel, long start, boolean ordered, boolean skipped,
+                      int fromIndex, int toIndex, RowHandler rowHandler) throws IOException {
+        byte[] bytes = new byte[READ_BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long filePosition = start; // Pozice bytes[0] v souboru.
+        int filled = 0;
+        int position = 0;
+        boolean endOfFile = false;
+        long previousMinute = Long.MIN_VALUE;
+        // Počítadla pro ProcessingMetrics, předávají se jednou za čtení.
+        long rows = 0;
+        long filteredRows = 0;
+        long slowRows = 0;
+        long bytesRead = 0;
+
+        try {
+            while (true) {
+                int lineEnd = indexOfNewLine(bytes, position, filled);
+                if (lineEnd < 0) {
+                    if (endOfFile) {
+                        if (position >= filled) {
+                            return;
+                        }
+                        lineEnd = filled; // Poslední řádek bez konce řádku.
+                    } else {
+                        // Přesun nedočteného řádku na začátek bufferu a dočtení dalších dat.
+                        int remaining = filled - position;
+                        if (remaining == bytes.length) {
+                            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                            buffer = ByteBuffer.wrap(bytes);
+                        } else {
+                            System.arraycopy(bytes, position, bytes, 0, remaining);
+                        }
+                        filePosition += position;
+                        position = 0;
+                        filled = remaining;
+                        int read = channel.read(ByteBuffer.wrap(bytes, filled, bytes.length - filled), filePosition + filled);
+                        if (read < 0) {
+                            endOfFile = true;
+                        } else {
+                            filled += read;
+                            bytesRead += read;
+                        }
+                        continue;
+                    }
+                }
+
+                int lineStart = position;
+                int end = lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                position = lineEnd + 1;
+                if (end == lineStart) { // Prázdné řádky commons-csv také přeskakuje.
+                    continue;
+                }
+
+                if (!decoder.decode(buffer, lineStart, end)) {
+                    decoder.decodeSlow(buffer, lineStart, end);
+                    slowRows++;
+                }
+                rows++;
+                int recordIndex = CalendarMath.monthIndex(decoder.getYear(), decoder.getMonth());
+
+                if (ordered) {
+                    long minute = CalendarMath.epochDay(decoder.getYear(), decoder.getMonth(), decoder.getDayOfMonth()) * CalendarMath.MINUTES_PER_DAY
+                            + decoder.getHour() * 60L + decoder.getMinute();
+                    if (minute < previousMinute) {
+                        if (skipped) {
+                            throw new UnorderedDataException("Data v souboru nejsou seřazena podle času (pozice " + (filePosition + lineStart) + ").");
+                        }
+                        // Nic nebylo přeskočeno, stačí dočíst soubor celý.
+                        ordered = false;
+                    }
+                    previousMinute = minute;
+                    if (ordered && recordIndex > toIndex) {
+                        return;
+                    }
+                }
+
+                // From/To filtration.
+                if (recordIndex >= fromIndex && recordIndex <= toIndex) {
+                    rowHandler.handle(decoder.getYear(), decoder.getMonth(), decoder.getDayOfMonth(),
+                            decoder.getHour() * 60 + decoder.getMinute(), decoder.getValue());
+                } else {
+                    filteredRows++;
+                }
+            }
+        } finally {
+            ProcessingMetrics.recordRows(rows, filteredRows, slowRows, bytesRead);
+        }
+    }
+
+    private static int indexOfNewLine(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,320 @@
+package org.SDC;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Reads large solar data exports in parallel.
+ * <p>
+ * The file is memory-mapped through a `FileChannel` and split into line-aligned chunks. Every chunk is
+ * decoded and filtered by the from/to month range on a separate worker thread. Only the decoding runs in parallel
+ * in {@link #read}: the decoded rows are handed over to the `RowHandler` strictly in file order, and the handler,
+ * e.g. the aggregation of `DataProcessor`, runs sequentially on the calling thread.
+ * <p>
+ * {@link #readDays} aggregates in parallel as well: every worker sums the rows of its chunk into day totals,
+ * see `DaySeries`, and the calling thread only merges the day totals of the chunks in file order, adding up a day
+ * split between two chunks. The sums are exact, see `FixedPointSum`, so the results are identical to a sequential run.
+ */
+public class ParallelCSVReader {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 8 << 20;
+    private static final int BOUNDARY_PROBE_SIZE = 4096;
+
+    private final int threads;
+
+    /**
+     * Creates a reader that uses one worker per available processor.
+     */
+    public ParallelCSVReader() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a reader with the given number of workers.
+     *
+     * @param threads the number of worker threads.
+     */
+    public ParallelCSVReader(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Reads the file, passing the header lines to the header consumer and the data rows
+     * within the month range to the row handler in file order.
+     *
+     * @param filePath       the path to the CSV file.
+     * @param headerLines    the number of non-empty header lines preceding the data.
+     * @param headerConsumer receives the raw header lines.
+     * @param fromIndex      the first month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param toIndex        the last month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param rowHandler     receives the data rows within the range.
+     * @throws IOException if the file cannot be read or processed.
+     */
+    public void read(String filePath, int headerLines, Consumer<String> headerConsumer,
+                     int fromIndex, int toIndex, RowHandler rowHandler) throws IOException {
+        readChunks(filePath, headerLines, headerConsumer, fromIndex, toIndex, ParsedChunk::new, rows -> rows.replay(rowHandler));
+    }
+
+    /**
+     * Reads the file, passing the header lines to the header consumer and the totals of the days within the month
+     * range to the day consumer in file order. The rows are aggregated into day totals on the worker threads.
+     *
+     * @param filePath       the path to the CSV file.
+     * @param headerLines    the number of non-empty header lines preceding the data.
+     * @param headerConsumer receives the raw header lines.
+     * @param fromIndex      the first month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param toIndex        the last month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param dayConsumer    receives the day totals within the range, e.g. {@code accumulator::processDay}.
+     * @throws IOException if the file cannot be read or processed.
+     */
+    public void readDays(String filePath, int headerLines, Consumer<String> headerConsumer,
+                         int fromIndex, int toIndex, AggregateIndex.DayConsumer dayConsumer) throws IOException {
+        DaySeries days = new DaySeries();
+        readChunks(filePath, headerLines, headerConsumer, fromIndex, toIndex, capacity -> new DaySeries(), days::append);
+        days.forEachDay(dayConsumer);
+    }
+
+    /**
+     * Decodes the chunks of the file on the workers into handlers created by the factory and passes the handlers
+     * to the chunk consumer on the calling thread, in file order.
+     */
+    private <T extends RowHandler> void readChunks(String filePath, int headerLines, Consumer<String> headerConsumer,
+                                                   int fromIndex, int toIndex, IntFunction<T> chunkFactory,
+                                                   Consumer<T> chunkConsumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            long dataStart = skipHeader(channel, headerLines, headerConsumer);
+            List<long[]> chunks = splitIntoChunks(channel, dataStart);
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "csv-chunk-reader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                // Omezený počet rozpracovaných bloků drží paměť pod kontrolou i u obřích souborů.
+                int window = threads * 2;
+                ArrayDeque<Future<DecodedChunk<T>>> inFlight = new ArrayDeque<>();
+                int next = 0;
+                // Počítadla pro ProcessingMetrics, předávají se jednou za čtení.
+                long rows = 0;
+                long filteredRows = 0;
+                long slowRows = 0;
+                while (next < chunks.size() || !inFlight.isEmpty()) {
+                    while (next < chunks.size() && inFlight.size() < window) {
+                        long[] chunk = chunks.get(next++);
+                        // Odhad počtu řádků bloku pro počáteční velikost polí.
+                        T handler = chunkFactory.apply((int) ((chunk[1] - chunk[0]) / 20) + 16);
+                        inFlight.add(executor.submit(() -> parseChunk(channel, chunk[0], chunk[1], fromIndex, toIndex, handler)));
+                    }
+                    DecodedChunk<T> chunk = awaitChunk(inFlight.poll());
+                    chunkConsumer.accept(chunk.handler);
+                    rows += chunk.rows;
+                    filteredRows += chunk.rows - chunk.acceptedRows;
+                    slowRows += chunk.slowRows;
+                }
+                ProcessingMetrics.recordRows(rows, filteredRows, slowRows, channel.size());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Reads the header lines from the beginning of the file.
+     *
+     * @return the byte offset of the first data line.
+     */
+    private long skipHeader(FileChannel channel, int headerLines, Consumer<String> headerConsumer) throws IOException {
+        long size = channel.size();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_CHUNK_SIZE));
+        int position = 0;
+        int found = 0;
+        while (found < headerLines && position < buffer.limit()) {
+            int lineEnd = indexOfNewLine(buffer, position, buffer.limit());
+            int next = lineEnd < 0 ? buffer.limit() : lineEnd + 1;
+            int end = lineEnd < 0 ? buffer.limit() : lineEnd;
+            if (end > position && buffer.get(end - 1) == '\r') {
+                end--;
+            }
+            if (end > position) {
+                byte[] bytes = new byte[end - position];
+                buffer.get(position, bytes);
+                headerConsumer.accept(new String(bytes, Charset.defaultCharset()));
+                found++;
+            }
+            position = next;
+        }
+        return position;
+    }
+
+    /**
+     * Splits the data part of the file into chunks that start and end on line boundaries.
+     *
+     * @return list of {start, end} byte offsets.
+     */
+    private List<long[]> splitIntoChunks(FileChannel channel, long dataStart) throws IOException {
+        long size = channel.size();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, (size - dataStart) / (threads * 4L)));
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE_SIZE);
+        long start = dataStart;
+        while (start < size) {
+            long end = Math.min(size, start + chunkSize);
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                int newLine = indexOfNewLine(probe, 0, Math.max(read, 0));
+                if (newLine >= 0) {
+                    end += newLine + 1;
+                    break;
+                }
+                end += Math.max(read, 0);
+                if (read <= 0) {
+                    end = size;
+                }
+            }
+            chunks.add(new long[]{start, Math.min(end, size)});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static <T extends RowHandler> DecodedChunk<T> parseChunk(FileChannel channel, long start, long end,
+                                                                     int fromIndex, int toIndex, T handler) {
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            CSVLineDecoder decoder = new CSVLineDecoder();
+            DecodedChunk<T> chunk = new DecodedChunk<>(handler);
+            int limit = buffer.limit();
+            int position = 0;
+            while (position < limit) {
+                int lineEnd = indexOfNewLine(buffer, position, limit);
+                int next = lineEnd < 0 ? limit : lineEnd + 1;
+                int lineStart = position;
+                int lineStop = lineEnd < 0 ? limit : lineEnd;
+                position = next;
+                if (lineStop > lineStart && buffer.get(lineStop - 1) == '\r') {
+                    lineStop--;
+                }
+                if (lineStop == lineStart) { // Prázdné řádky commons-csv také přeskakuje.
+                    continue;
+                }
+                if (!decoder.decode(buffer, lineStart, lineStop)) {
+                    decoder.decodeSlow(buffer, lineStart, lineStop);
+                    chunk.slowRows++;
+                }
+                chunk.rows++;
+                int recordIndex = CalendarMath.monthIndex(decoder.getYear(), decoder.getMonth());
+                if (recordIndex >= fromIndex && recordIndex <= toIndex) {
+                    handler.handle(decoder.getYear(), decoder.getMonth(), decoder.getDayOfMonth(),
+                            decoder.getHour() * 60 + decoder.getMinute(), decoder.getValue());
+                    chunk.acceptedRows++;
+                }
+            }
+            return chunk;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T extends RowHandler> DecodedChunk<T> awaitChunk(Future<DecodedChunk<T>> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Čtení souboru bylo přerušeno.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static int indexOfNewLine(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The handler that received the rows of one chunk, with the row counts of the chunk.
+     */
+    private static final class DecodedChunk<T extends RowHandler> {
+
+        private final T handler;
+        private int rows;
+        private int acceptedRows;
+        private int slowRows;
+
+        DecodedChunk(T handler) {
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * Decoded rows of one chunk, stored in primitive arrays.
+     */
+    private static final class ParsedChunk implements RowHandler {
+
+        private int[] dates;
+        private short[] minutes;
+        private double[] values;
+        private int size;
+
+        ParsedChunk(int capacity) {
+            dates = new int[capacity];
+            minutes = new short[capacity];
+            values = new double[capacity];
+        }
+
+        @Override
+        public void handle(int year, int month, int dayOfMonth, int minuteOfDay, double value) {
+            if (size == dates.length) {
+                int capacity = size * 2;
+                dates = Arrays.copyOf(dates, capacity);
+                minutes = Arrays.copyOf(minutes, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            dates[size] = CalendarMath.packDate(year, month, dayOfMonth);
+            minutes[size] = (short) minuteOfDay;
+            values[size] = value;
+            size++;
+        }
+
+        void replay(RowHandler rowHandler) {
+            for (int i = 0; i < size; i++) {
+                int date = dates[i];
+                rowHandler.handle(CalendarMath.packedYear(date), CalendarMath.packedMonth(date), CalendarMath.packedDayOfMonth(date),
+                        minutes[i], values[i]);
+            }
+        }
+    }
+}
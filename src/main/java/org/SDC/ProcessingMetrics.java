@@ -0,0 +1,282 @@
+package org.SDC;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Built-in metrics of reading and aggregating the data: rows and bytes read, rows filtered out by the requested
+ * period, slow-path rows and parse errors, the time spent parsing, aggregating and logging, and the wall time of queries.
+ * <p>
+ * The metrics are disabled by default and enabled by {@code -Dsdc.metrics=true}. They are then published through JMX
+ * as {@code org.SDC:type=ProcessingMetrics} and, with {@code -Dsdc.metrics.summarySeconds=N}, summarized in the log
+ * every N seconds. The switch is a static final field, so when the metrics are disabled the JIT compiler removes the
+ * instrumentation and the only cost left is a few local counters in the readers, reported once per read.
+ * <p>
+ * The aggregation time is measured around every row passed to the aggregation, the parse time is the rest of the read.
+ * The time to the first result is measured from the start of the JVM, so it includes the startup of the application;
+ * it is logged once, when the first query ends.
+ */
+public final class ProcessingMetrics implements ProcessingMetricsMBean {
+
+    private static final Logger logger = LogManager.getLogger(ProcessingMetrics.class);
+
+    /**
+     * Whether the metrics are collected, see {@code sdc.metrics}.
+     */
+    static final boolean ENABLED = Boolean.getBoolean("sdc.metrics");
+
+    private static final ProcessingMetrics INSTANCE = new ProcessingMetrics();
+
+    static {
+        if (ENABLED) {
+            INSTANCE.register();
+        }
+    }
+
+    private final LongAdder rowsRead = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder rowsFiltered = new LongAdder();
+    private final LongAdder slowPathRows = new LongAdder();
+    private final LongAdder parseErrors = new LongAdder();
+    private final LongAdder readNanos = new LongAdder();
+    private final LongAdder aggregationNanos = new LongAdder();
+    private final LongAdder loggingNanos = new LongAdder();
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder queryNanos = new LongAdder();
+    private volatile long lastQueryNanos;
+    private volatile long timeToFirstResultMillis = -1;
+
+    private ProcessingMetrics() {
+    }
+
+    /**
+     * Returns the metrics of the application.
+     *
+     * @return the metrics; their values stay zero while the metrics are disabled.
+     */
+    public static ProcessingMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the start of a measured interval.
+     *
+     * @return the current {@link System#nanoTime()}, or 0 if the metrics are disabled.
+     */
+    static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records the rows decoded by one read. Called once per read with the counters kept by the reader.
+     *
+     * @param rows         the number of decoded rows.
+     * @param filteredRows the number of decoded rows outside the requested period.
+     * @param slowRows     the number of rows decoded by the slow path.
+     * @param bytes        the number of bytes read.
+     */
+    static void recordRows(long rows, long filteredRows, long slowRows, long bytes) {
+        if (ENABLED) {
+            INSTANCE.rowsRead.add(rows);
+            INSTANCE.rowsFiltered.add(filteredRows);
+            INSTANCE.slowPathRows.add(slowRows);
+            INSTANCE.bytesRead.add(bytes);
+        }
+    }
+
+    /**
+     * Records the end of a read started by {@link #start()}.
+     *
+     * @param startNanos the start of the read.
+     */
+    static void recordRead(long startNanos) {
+        if (ENABLED) {
+            INSTANCE.readNanos.add(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Records a row that could not be parsed, which either failed the read or was quarantined by the lenient ingest.
+     */
+    static void recordParseError() {
+        if (ENABLED) {
+            INSTANCE.parseErrors.increment();
+        }
+    }
+
+    /**
+     * Records the end of logging started by {@link #start()}.
+     *
+     * @param startNanos the start of the logging.
+     */
+    static void recordLogging(long startNanos) {
+        if (ENABLED) {
+            INSTANCE.loggingNanos.add(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Records the end of queries started by {@link #start()}.
+     *
+     * @param startNanos the start of the queries.
+     * @param count      the number of queries evaluated together, e.g. in one batch.
+     */
+    static void recordQueries(long startNanos, int count) {
+        if (ENABLED) {
+            long nanos = System.nanoTime() - startNanos;
+            INSTANCE.queries.add(count);
+            INSTANCE.queryNanos.add(nanos);
+            INSTANCE.lastQueryNanos = nanos;
+            if (INSTANCE.timeToFirstResultMillis < 0) {
+                INSTANCE.recordFirstResult();
+            }
+        }
+    }
+
+    private synchronized void recordFirstResult() {
+        if (timeToFirstResultMillis < 0) {
+            timeToFirstResultMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+            logger.info("Čas do prvního výsledku od spuštění JVM: {} ms", timeToFirstResultMillis);
+        }
+    }
+
+    /**
+     * Wraps a row handler doing the aggregation so that the time spent in it is measured.
+     *
+     * @param rowHandler the row handler doing the aggregation.
+     * @return the measuring row handler, or the row handler itself if the metrics are disabled.
+     */
+    static RowHandler timed(RowHandler rowHandler) {
+        if (!ENABLED) {
+            return rowHandler;
+        }
+        LongAdder nanos = INSTANCE.aggregationNanos;
+        return (year, month, dayOfMonth, minuteOfDay, value) -> {
+            long start = System.nanoTime();
+            rowHandler.handle(year, month, dayOfMonth, minuteOfDay, value);
+            nanos.add(System.nanoTime() - start);
+        };
+    }
+
+    private void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("org.SDC:type=ProcessingMetrics"));
+        } catch (JMException e) {
+            logger.warn("Metriky nelze zveřejnit přes JMX: {}", e.getMessage());
+        }
+        int summarySeconds = Integer.getInteger("sdc.metrics.summarySeconds", 0);
+        if (summarySeconds > 0) {
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "sdc-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(() -> logger.info(summary()), summarySeconds, summarySeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Returns a one-line summary of the metrics.
+     *
+     * @return the summary.
+     */
+    public String summary() {
+        return String.format("Metriky: dotazy %d (%d ms, poslední %d ms, první výsledek %d ms od spuštění), řádky %d (%.0f/s), bajty %d (%.1f MB/s), "
+                        + "mimo období %d, pomalá cesta %d, chyby parsování %d, parsování %d ms, agregace %d ms, logování %d ms",
+                getQueries(), getQueryTimeMillis(), getLastQueryTimeMillis(), getTimeToFirstResultMillis(), getRowsRead(), getRowsPerSecond(),
+                getBytesRead(), getBytesPerSecond() / 1_000_000, getRowsFiltered(), getSlowPathRows(), getParseErrors(),
+                getParseTimeMillis(), getAggregationTimeMillis(), getLoggingTimeMillis());
+    }
+
+    @Override
+    public long getRowsRead() {
+        return rowsRead.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getRowsFiltered() {
+        return rowsFiltered.sum();
+    }
+
+    @Override
+    public long getSlowPathRows() {
+        return slowPathRows.sum();
+    }
+
+    @Override
+    public long getParseErrors() {
+        return parseErrors.sum();
+    }
+
+    @Override
+    public double getRowsPerSecond() {
+        return perSecond(rowsRead.sum(), readNanos.sum());
+    }
+
+    @Override
+    public double getBytesPerSecond() {
+        return perSecond(bytesRead.sum(), readNanos.sum());
+    }
+
+    private static double perSecond(long count, long nanos) {
+        return nanos == 0 ? 0 : count * 1e9 / nanos;
+    }
+
+    @Override
+    public long getParseTimeMillis() {
+        // Agregace probíhá uvnitř čtení, zbytek času čtení připadá na čtení souboru a parsování.
+        return TimeUnit.NANOSECONDS.toMillis(Math.max(0, readNanos.sum() - aggregationNanos.sum()));
+    }
+
+    @Override
+    public long getAggregationTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(aggregationNanos.sum());
+    }
+
+    @Override
+    public long getLoggingTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(loggingNanos.sum());
+    }
+
+    @Override
+    public long getQueries() {
+        return queries.sum();
+    }
+
+    @Override
+    public long getQueryTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(queryNanos.sum());
+    }
+
+    @Override
+    public long getLastQueryTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastQueryNanos);
+    }
+
+    @Override
+    public long getTimeToFirstResultMillis() {
+        return timeToFirstResultMillis;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : new LongAdder[]{rowsRead, bytesRead, rowsFiltered, slowPathRows, parseErrors,
+                readNanos, aggregationNanos, loggingNanos, queries, queryNanos}) {
+            adder.reset();
+        }
+        lastQueryNanos = 0;
+    }
+}
@@ -0,0 +1,85 @@
+package org.SDC;
+
+/**
+ * JMX view of the `ProcessingMetrics`, registered as {@code org.SDC:type=ProcessingMetrics}.
+ * <p>
+ * All values are cumulative since the start of the application or the last {@link #reset()}.
+ */
+public interface ProcessingMetricsMBean {
+
+    /**
+     * @return the number of data rows decoded from the files, including the rows outside the requested period.
+     */
+    long getRowsRead();
+
+    /**
+     * @return the number of bytes read from the data files and caches.
+     */
+    long getBytesRead();
+
+    /**
+     * @return the number of decoded rows skipped because they lie outside the requested period.
+     */
+    long getRowsFiltered();
+
+    /**
+     * @return the number of rows the fast path rejected and the slow path decoded.
+     */
+    long getSlowPathRows();
+
+    /**
+     * @return the number of rows that could not be parsed: rows that failed a read and rows quarantined by the lenient ingest.
+     */
+    long getParseErrors();
+
+    /**
+     * @return the number of decoded rows per second of reading.
+     */
+    double getRowsPerSecond();
+
+    /**
+     * @return the number of bytes read per second of reading.
+     */
+    double getBytesPerSecond();
+
+    /**
+     * @return the time spent reading and parsing the files, without the aggregation, in milliseconds.
+     */
+    long getParseTimeMillis();
+
+    /**
+     * @return the time spent aggregating the rows in milliseconds.
+     */
+    long getAggregationTimeMillis();
+
+    /**
+     * @return the time spent logging the results in milliseconds.
+     */
+    long getLoggingTimeMillis();
+
+    /**
+     * @return the number of evaluated queries.
+     */
+    long getQueries();
+
+    /**
+     * @return the wall time of all evaluated queries in milliseconds.
+     */
+    long getQueryTimeMillis();
+
+    /**
+     * @return the wall time of the last evaluated query in milliseconds.
+     */
+    long getLastQueryTimeMillis();
+
+    /**
+     * @return the time from the start of the JVM to the end of the first evaluated query in milliseconds,
+     * -1 before the first query.
+     */
+    long getTimeToFirstResultMillis();
+
+    /**
+     * Sets all counters to zero. The time to the first result describes the start of the application and is kept.
+     */
+    void reset();
+}
@@ -0,0 +1,45 @@
+package org.SDC;
+
+import java.util.List;
+
+/**
+ * Immutable result of one from/to/day query over the solar data.
+ *
+ * @param query                the query the result belongs to.
+ * @param months               the completed months of the period, in processing order.
+ * @param chosenDays           the totals of the individual chosen days of the week, in processing order.
+ * @param seasonTotal          the total solar radiation of the whole period.
+ * @param chosenDaySeasonTotal the total solar radiation of all chosen days of the week in the period, 0 if no day was chosen.
+ */
+public record ProcessingResult(DataQuery query, List<MonthResult> months, List<DayResult> chosenDays,
+                               double seasonTotal, double chosenDaySeasonTotal) {
+
+    public ProcessingResult {
+        months = List.copyOf(months);
+        chosenDays = List.copyOf(chosenDays);
+    }
+
+    /**
+     * Results of one month.
+     *
+     * @param year             the year of the month.
+     * @param month            the month (1 = January, ..., 12 = December).
+     * @param total            the total solar radiation of the month.
+     * @param chosenDayAverage the average value of the rows of the chosen day of the week in the month,
+     *                         NaN if no day was chosen.
+     */
+    public record MonthResult(int year, int month, double total, double chosenDayAverage) {
+    }
+
+    /**
+     * Total of one chosen day of the week.
+     *
+     * @param year       the year of the day.
+     * @param month      the month of the day (1 = January, ..., 12 = December).
+     * @param dayOfMonth the day of the month.
+     * @param dayOfWeek  the day of the week (1 = Monday, ..., 7 = Sunday).
+     * @param total      the total solar radiation of the day.
+     */
+    public record DayResult(int year, int month, int dayOfMonth, int dayOfWeek, double total) {
+    }
+}
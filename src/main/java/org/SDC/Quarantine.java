@@ -0,0 +1,139 @@
+package org.SDC;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Quarantine of the malformed data rows of one read in the lenient ingest. A row that cannot be decoded does not abort
+ * the read: it is counted and written with its line number and the error to a quarantine file next to the data file
+ * ({@code <soubor.csv>.quarantine}, one tab-separated line per row), and the read goes on with the next row.
+ * <p>
+ * The read is still aborted by a `MalformedDataException` when the share of malformed rows exceeds the allowed
+ * error rate, since then the file is most likely not a solar data export at all. The rate is checked once at least
+ * {@value #MIN_ROWS_FOR_RATE} rows have been read, and at the end of the read. A quarantine file left without rows
+ * is deleted when the quarantine is closed, so it never describes an older version of the data file.
+ * <p>
+ * The lenient ingest is enabled by system properties, see {@link #fromSystemProperties(Path)}.
+ * A quarantine belongs to one read and is not thread-safe.
+ */
+public final class Quarantine implements Closeable {
+
+    private static final Logger logger = LogManager.getLogger(Quarantine.class);
+
+    static final int MIN_ROWS_FOR_RATE = 1000;
+    private static final String DEFAULT_MAX_ERROR_RATE = "0.01";
+
+    private final Path file;
+    private final double maxErrorRate;
+    private final BufferedWriter writer;
+    private long malformedRows;
+
+    /**
+     * Creates a quarantine, replacing an existing quarantine file.
+     *
+     * @param file         the quarantine file.
+     * @param maxErrorRate the largest allowed share of malformed rows, between 0 and 1.
+     * @throws IOException if the quarantine file cannot be created.
+     */
+    public Quarantine(Path file, double maxErrorRate) throws IOException {
+        if (!(maxErrorRate >= 0 && maxErrorRate <= 1)) {
+            throw new IllegalArgumentException("Povolený podíl chybných řádků musí být mezi 0 a 1.");
+        }
+        this.file = file;
+        this.maxErrorRate = maxErrorRate;
+        this.writer = Files.newBufferedWriter(file, Charset.defaultCharset());
+    }
+
+    /**
+     * Returns whether the lenient ingest is enabled by the `sdc.lenient` system property.
+     *
+     * @return true if malformed rows are quarantined instead of aborting the read.
+     */
+    public static boolean enabled() {
+        return Boolean.getBoolean("sdc.lenient");
+    }
+
+    /**
+     * Creates the quarantine of a read of the data file if the lenient ingest is enabled by the `sdc.lenient`
+     * system property. `sdc.maxErrorRate` sets the largest allowed share of malformed rows
+     * ({@value #DEFAULT_MAX_ERROR_RATE} by default, i.e. 1 %).
+     *
+     * @param dataFile the data file to be read.
+     * @return the quarantine, or null if the lenient ingest is disabled.
+     * @throws IOException if the quarantine file cannot be created.
+     */
+    public static Quarantine fromSystemProperties(Path dataFile) throws IOException {
+        if (!enabled()) {
+            return null;
+        }
+        double maxErrorRate = Double.parseDouble(System.getProperty("sdc.maxErrorRate", DEFAULT_MAX_ERROR_RATE));
+        return new Quarantine(Path.of(dataFile + ".quarantine"), maxErrorRate);
+    }
+
+    /**
+     * Records a malformed row and aborts the read if too many rows are malformed.
+     *
+     * @param lineNumber the number of the line in the data file, starting at 1.
+     * @param line       the text of the line.
+     * @param cause      the error the row caused.
+     * @param rows       the number of rows decoded so far, without the malformed ones.
+     * @throws IOException if the row cannot be written, or a `MalformedDataException` if the share of malformed
+     *                     rows exceeds the allowed error rate.
+     */
+    public void reject(long lineNumber, String line, Exception cause, long rows) throws IOException {
+        malformedRows++;
+        ProcessingMetrics.recordParseError();
+        writer.write(lineNumber + "\t" + line + "\t" + (cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName()));
+        writer.newLine();
+        if (rows + malformedRows >= MIN_ROWS_FOR_RATE) {
+            checkErrorRate(rows);
+        }
+    }
+
+    /**
+     * Ends the read: reports the malformed rows and checks the error rate over the whole file.
+     *
+     * @param rows the number of rows decoded, without the malformed ones.
+     * @throws IOException if the quarantine file cannot be written, or a `MalformedDataException` if the share
+     *                     of malformed rows exceeds the allowed error rate.
+     */
+    public void finish(long rows) throws IOException {
+        writer.flush();
+        if (malformedRows > 0) {
+            logger.warn("Vynecháno {} chybných řádků z {}, jsou uloženy v souboru {}.", malformedRows, rows + malformedRows, file);
+            checkErrorRate(rows);
+        }
+    }
+
+    /**
+     * @return the number of malformed rows recorded so far.
+     */
+    public long malformedRows() {
+        return malformedRows;
+    }
+
+    private void checkErrorRate(long rows) throws IOException {
+        double errorRate = (double) malformedRows / (rows + malformedRows);
+        if (errorRate > maxErrorRate) {
+            writer.flush();
+            throw new MalformedDataException(String.format("Chybných řádků je %.2f %% (%d z %d), povoleno je nejvýše %.2f %%; "
+                            + "čtení souboru bylo přerušeno. Chybné řádky jsou v souboru %s.",
+                    errorRate * 100, malformedRows, rows + malformedRows, maxErrorRate * 100, file));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+        if (malformedRows == 0) {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package org.SDC;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accumulates the solar radiation data of one query while the rows are processed one by one.
+ * <p>
+ * This class calculates the total value over a season (defined by a date range), the monthly summaries,
+ * and the daily performance for a specific day of the week if selected. The results are collected into
+ * an immutable `ProcessingResult` by {@link #toResult()}.
+ * <p>
+ * All totals are summed exactly by a `FixedPointSum`, so they do not lose precision over long periods and do not
+ * depend on whether the rows are passed one by one or as day totals.
+ * <p>
+ * As in the original `DataProcessor`, the rows of the {@code to} month are not counted. An accumulator of
+ * a growing file counts them, because there the {@code to} month is usually the running month, see
+ * `DataProcessor.newRunningAccumulator`.
+ * <p>
+ * An accumulator holds the state of a single query and is not thread-safe; independent queries use
+ * independent accumulators, created by `DataProcessor`.
+ *
+ * @see DataProcessor
+ */
+public final class QueryAccumulator implements RowHandler {
+
+    private final DataQuery query;
+    private final ResultListener resultListener;
+    private final int chosenDay;
+    // Měsíc, jehož řádky se nezapočítávají: měsíc 'to', u rostoucího souboru až měsíc po něm.
+    private final int excludedYear;
+    private final int excludedMonth;
+
+    private final List<ProcessingResult.MonthResult> months = new ArrayList<>();
+    private final List<ProcessingResult.DayResult> chosenDays = new ArrayList<>();
+    // Přesné součty nezávislé na pořadí sčítání, viz FixedPointSum.
+    private final FixedPointSum allSeasonValue = new FixedPointSum();
+    private final FixedPointSum oneMonthValue = new FixedPointSum();
+    private final FixedPointSum daySum = new FixedPointSum();
+    private final FixedPointSum allValuesOfChosenDayInOneMonth = new FixedPointSum();
+    private final FixedPointSum allValuesOfChosenDayInSeason = new FixedPointSum();
+    private int numberOfChosenDaysInMonth = 0;
+    private boolean hasPreviousRecord = false;
+    private int previousYear;
+    private int previousMonth;
+    private int previousDayOfMonth;
+    private int previousDayOfWeek;
+
+    /**
+     * Creates an accumulator for the given query.
+     *
+     * @param query          the query whose results are accumulated.
+     * @param resultListener receives the days and months as they are completed.
+     */
+    QueryAccumulator(DataQuery query, ResultListener resultListener) {
+        this(query, resultListener, false);
+    }
+
+    /**
+     * Creates an accumulator for the given query.
+     *
+     * @param query          the query whose results are accumulated.
+     * @param resultListener receives the days and months as they are completed.
+     * @param includeToMonth whether the rows of the {@code to} month are counted too.
+     */
+    QueryAccumulator(DataQuery query, ResultListener resultListener, boolean includeToMonth) {
+        this.query = query;
+        this.resultListener = resultListener;
+        this.chosenDay = query.day();
+        YearMonth excluded = includeToMonth ? query.to().plusMonths(1) : query.to();
+        this.excludedYear = excluded.getYear();
+        this.excludedMonth = excluded.getMonthValue();
+    }
+
+    @Override
+    public void handle(int year, int month, int dayOfMonth, int minuteOfDay, double value) {
+        processData(year, month, dayOfMonth, value);
+    }
+
+    /**
+     * Processes a single row of solar radiation data.
+     *
+     * @param timestamp The date and time of the data point.
+     * @param value     The solar radiation value for the given timestamp.
+     */
+    public void processData(LocalDateTime timestamp, double value) {
+        processData(timestamp.getYear(), timestamp.getMonthValue(), timestamp.getDayOfMonth(), value);
+    }
+
+    /**
+     * Processes a single row of solar radiation data given as primitive date fields.
+     * <p>
+     * This method manages the monthly and daily results, updates the current monthly and seasonal totals,
+     * and computes detailed results for the chosen day of the week.
+     * It delegates the handling of month and day changes to specialized methods.
+     *
+     * @param year       The year of the data point.
+     * @param month      The month of the data point (1 = January, ..., 12 = December).
+     * @param dayOfMonth The day of the month of the data point.
+     * @param value      The solar radiation value for the given timestamp.
+     */
+    public void processData(int year, int month, int dayOfMonth, double value) {
+        int dayOfWeek = advance(year, month, dayOfMonth);
+        if (!(month == excludedMonth && year == excludedYear)) {
+            allSeasonValue.add(value);
+            oneMonthValue.add(value);
+
+            if (chosenDay > 0 && dayOfWeek == chosenDay) {
+                daySum.add(value);
+                allValuesOfChosenDayInOneMonth.add(value);
+                allValuesOfChosenDayInSeason.add(value);
+                numberOfChosenDaysInMonth++;
+            }
+        }
+    }
+
+    /**
+     * Processes the pre-aggregated total of one day instead of its individual rows.
+     * <p>
+     * Month and day transitions are handled exactly as if the rows of the day were processed one by one,
+     * and since the sums are exact, the results are identical to row-by-row processing.
+     *
+     * @param year       The year of the day.
+     * @param month      The month of the day (1 = January, ..., 12 = December).
+     * @param dayOfMonth The day of the month.
+     * @param dayTotal   The exact sum of the solar radiation values of the day; it is not modified.
+     * @param rowCount   The number of rows the day total consists of.
+     * @see AggregateIndex
+     */
+    public void processDay(int year, int month, int dayOfMonth, FixedPointSum dayTotal, int rowCount) {
+        int dayOfWeek = advance(year, month, dayOfMonth);
+        if (!(month == excludedMonth && year == excludedYear)) {
+            allSeasonValue.add(dayTotal);
+            oneMonthValue.add(dayTotal);
+
+            if (chosenDay > 0 && dayOfWeek == chosenDay) {
+                daySum.add(dayTotal);
+                allValuesOfChosenDayInOneMonth.add(dayTotal);
+                allValuesOfChosenDayInSeason.add(dayTotal);
+                numberOfChosenDaysInMonth += rowCount;
+            }
+        }
+    }
+
+    /**
+     * Completes the days and months the data moves past and remembers the given day as the current one.
+     *
+     * @return the day of the week of the given day.
+     */
+    private int advance(int year, int month, int dayOfMonth) {
+        int dayOfWeek = hasPreviousRecord && previousDayOfMonth == dayOfMonth && previousMonth == month && previousYear == year
+                ? previousDayOfWeek
+                : CalendarMath.dayOfWeek(year, month, dayOfMonth);
+
+        handleMonthChange(month);
+
+        handleDayChange(dayOfMonth);
+
+        hasPreviousRecord = true;
+        previousYear = year;
+        previousMonth = month;
+        previousDayOfMonth = dayOfMonth;
+        previousDayOfWeek = dayOfWeek;
+        return dayOfWeek;
+    }
+
+    /**
+     * Handles logic related to switching between months during data processing.
+     * <p>
+     * This method completes the monthly results, resets monthly data when the month changes,
+     * and ensures that the daily result is completed for the selected day of the week
+     * before the month transitions.
+     *
+     * @param month The current month being processed.
+     */
+    private void handleMonthChange(int month) {
+        if (hasPreviousRecord && previousMonth != month) {
+            if (chosenDay > 0 && previousDayOfWeek == chosenDay) {
+                if (!(previousYear == excludedYear && previousMonth == excludedMonth)) {
+                    completeDay();
+                }
+            }
+            completeMonth();
+            resetMonthlyData();
+        }
+    }
+
+    /**
+     * Handles logic related to switching between days during data processing.
+     * <p>
+     * This method completes the daily result for the selected day of the week, resets daily totals when the day changes,
+     * and checks whether the current day is the last day of the month (completed by the month change instead).
+     *
+     * @param dayOfMonth The current day of the month being processed.
+     */
+    private void handleDayChange(int dayOfMonth) {
+        if (hasPreviousRecord && previousDayOfMonth != dayOfMonth) {
+            boolean isLastDayOfMonth = CalendarMath.lengthOfMonth(previousYear, previousMonth) == previousDayOfMonth;
+            if (previousDayOfWeek == chosenDay && !isLastDayOfMonth) {
+                if (!(previousYear == excludedYear && previousMonth == excludedMonth)) {
+                    completeDay();
+                }
+            }
+            daySum.reset();
+        }
+    }
+
+    /**
+     * Records the cumulative result of the last processed day.
+     */
+    private void completeDay() {
+        ProcessingResult.DayResult day = currentDay();
+        chosenDays.add(day);
+        resultListener.dayCompleted(day);
+    }
+
+    private ProcessingResult.DayResult currentDay() {
+        return new ProcessingResult.DayResult(previousYear, previousMonth, previousDayOfMonth, previousDayOfWeek, daySum.sum());
+    }
+
+    /**
+     * Records the cumulative results of the last processed month and, if a day was chosen,
+     * the average of the chosen day of the week in it.
+     */
+    private void completeMonth() {
+        ProcessingResult.MonthResult month = currentMonth();
+        months.add(month);
+        resultListener.monthCompleted(month);
+    }
+
+    private ProcessingResult.MonthResult currentMonth() {
+        double averageDayValue = chosenDay > 0 ? allValuesOfChosenDayInOneMonth.sum() / numberOfChosenDaysInMonth : Double.NaN;
+        return new ProcessingResult.MonthResult(previousYear, previousMonth, oneMonthValue.sum(), averageDayValue);
+    }
+
+    /**
+     * Resets monthly-specific data accumulators.
+     * <p>
+     * Called when moving to a new month in the dataset.
+     */
+    private void resetMonthlyData() {
+        oneMonthValue.reset();
+        allValuesOfChosenDayInOneMonth.reset();
+        numberOfChosenDaysInMonth = 0;
+    }
+
+    /**
+     * Returns the results accumulated so far.
+     *
+     * @return an immutable snapshot of the results.
+     */
+    public ProcessingResult toResult() {
+        return new ProcessingResult(query, months, chosenDays, allSeasonValue.sum(), allValuesOfChosenDayInSeason.sum());
+    }
+
+    /**
+     * Returns the results accumulated so far, including the month and the chosen day that are still being processed.
+     * <p>
+     * Unlike {@link #toResult()}, which reports a month only once the data moves past it, this view is meant for
+     * data that keeps growing, where the last month is the one of interest.
+     *
+     * @return an immutable snapshot of the results including the running month and day.
+     */
+    public ProcessingResult toRunningResult() {
+        if (!hasPreviousRecord) {
+            return toResult();
+        }
+        List<ProcessingResult.MonthResult> runningMonths = new ArrayList<>(months);
+        runningMonths.add(currentMonth());
+        List<ProcessingResult.DayResult> runningDays = new ArrayList<>(chosenDays);
+        if (chosenDay > 0 && previousDayOfWeek == chosenDay && !(previousYear == excludedYear && previousMonth == excludedMonth)) {
+            runningDays.add(currentDay());
+        }
+        return new ProcessingResult(query, runningMonths, runningDays, allSeasonValue.sum(), allValuesOfChosenDayInSeason.sum());
+    }
+}
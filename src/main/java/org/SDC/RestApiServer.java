@@ -0,0 +1,208 @@
+package org.SDC;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
+/**
+ * Embedded HTTP server exposing the from/to/day computation of `DataProcessor` as a JSON endpoint.
+ * <p>
+ * The data file is loaded into an `InMemoryDataset` once at startup and shared by all requests; the dataset keeps
+ * the values as floats, so the totals are precise to about 7 significant digits.
+ * The shared `DataProcessor` keeps no state and every request gets its own accumulator,
+ * so concurrent requests never share accumulator state.
+ * Requests are served on virtual threads when the runtime supports them (Java 21+), otherwise on a cached thread pool.
+ * <p>
+ * Endpoint: {@code GET /api/results?from=yyyyMM&to=yyyyMM[&day=d]}
+ */
+public class RestApiServer {
+
+    private static final Logger logger = LogManager.getLogger(RestApiServer.class);
+    private static final String RESULTS_PATH = "/api/results";
+
+    private final DataProcessor dataProcessor = new DataProcessor();
+    private final InMemoryDataset dataset;
+    private HttpServer server;
+
+    /**
+     * Creates a server answering queries over the given dataset.
+     *
+     * @param dataset the dataset shared by all requests.
+     */
+    public RestApiServer(InMemoryDataset dataset) {
+        this.dataset = dataset;
+    }
+
+    /**
+     * Starts the server on the given port.
+     *
+     * @param port the TCP port to listen on.
+     * @throws IOException if the server cannot be started.
+     */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext(RESULTS_PATH, this::handleResults);
+        server.setExecutor(createExecutor());
+        server.start();
+        logger.info("REST API naslouchá na portu {}, dotazy: GET {}?from=yyyyMM&to=yyyyMM&day=d", box(server.getAddress().getPort()), RESULTS_PATH);
+    }
+
+    /**
+     * Returns the port the server listens on, e.g. the one chosen by the system when started on port 0.
+     *
+     * @return the TCP port.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, waiting at most one second for running requests.
+     */
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+        }
+    }
+
+    /**
+     * Creates a virtual thread per task executor when available, otherwise a cached thread pool.
+     * The project is compiled for Java 18, so the virtual thread factory is looked up reflectively.
+     */
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    private void handleResults(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                send(exchange, 405, error("Podporována je pouze metoda GET."));
+                return;
+            }
+            DataQuery query;
+            try {
+                Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+                String from = parameters.get("from");
+                String to = parameters.get("to");
+                if (from == null || to == null) {
+                    throw new IllegalArgumentException("Parametry 'from' a 'to' jsou povinné.");
+                }
+                String day = parameters.get("day");
+                query = DataQuery.parse(from + "-" + to + (day == null || day.isEmpty() ? "" : "/" + day));
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, error(e.getMessage()));
+                return;
+            }
+            send(exchange, 200, evaluate(query));
+        } catch (RuntimeException e) {
+            logger.error("Chyba při zpracování požadavku {}", exchange.getRequestURI(), e);
+        }
+    }
+
+    /**
+     * Evaluates a query over the shared dataset and renders the result as JSON.
+     *
+     * @param query the query to evaluate.
+     * @return the JSON document with monthly results, chosen day results and season totals.
+     */
+    String evaluate(DataQuery query) {
+        return toJson(dataProcessor.process(query, dataset));
+    }
+
+    private static String toJson(ProcessingResult result) {
+        DataQuery query = result.query();
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"from\":\"").append(query.from().getYear()).append(twoDigits(query.from().getMonthValue())).append('"')
+                .append(",\"to\":\"").append(query.to().getYear()).append(twoDigits(query.to().getMonthValue())).append('"')
+                .append(",\"day\":").append(query.day() == 0 ? "null" : Integer.toString(query.day()))
+                .append(",\"months\":[");
+        for (int i = 0; i < result.months().size(); i++) {
+            ProcessingResult.MonthResult month = result.months().get(i);
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"year\":").append(month.year()).append(",\"month\":").append(month.month())
+                    .append(",\"total\":").append(number(month.total()))
+                    .append(",\"chosenDayAverage\":").append(number(month.chosenDayAverage())).append('}');
+        }
+        json.append("],\"days\":[");
+        for (int i = 0; i < result.chosenDays().size(); i++) {
+            ProcessingResult.DayResult day = result.chosenDays().get(i);
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"date\":\"").append(day.year()).append('-').append(twoDigits(day.month())).append('-').append(twoDigits(day.dayOfMonth()))
+                    .append("\",\"total\":").append(number(day.total())).append('}');
+        }
+        return json.append("],\"seasonTotal\":").append(number(result.seasonTotal()))
+                .append(",\"chosenDaySeasonTotal\":").append(number(result.chosenDaySeasonTotal())).append('}')
+                .toString();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            parameters.put(name, value);
+        }
+        return parameters;
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + string(message) + "}";
+    }
+
+    /**
+     * Returns the text as a JSON string; the error messages repeat the query, which may contain any characters.
+     */
+    private static String string(String text) {
+        StringBuilder json = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    private static String number(double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+
+    private static String twoDigits(int value) {
+        return value < 10 ? "0" + value : Integer.toString(value);
+    }
+}
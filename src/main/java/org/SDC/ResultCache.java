@@ -0,0 +1,253 @@
+package org.SDC;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.DateTimeException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded cache of query results, so that a query repeated in the interactive loop is answered without
+ * reading the data file again.
+ * <p>
+ * A result is stored under the fingerprint of the data file (path, size and modification time), the ingest strategy
+ * that produced it and the from/to/day query; a changed file therefore never returns an old result. When the cache
+ * is full, the least recently used result is evicted. Queries evaluated with settings that change how the rows are
+ * read or what is reported about them bypass the cache, see {@link #applies()}.
+ * <p>
+ * The cache can be stored in a file, so that it survives restarts of the application. The file is rewritten after
+ * every new result and read when the cache is created; results of files that have changed since are dropped.
+ * <p>
+ * The cache is off unless enabled by system properties, see {@link #fromSystemProperties()}. Its methods are thread-safe.
+ */
+public class ResultCache {
+
+    private static final Logger logger = LogManager.getLogger(ResultCache.class);
+
+    private static final int MAGIC = 0x53444352; // "SDCR"
+    private static final int VERSION = 2;
+
+    private static ResultCache shared;
+    private static boolean sharedCreated;
+
+    private final int maxEntries;
+    private final Path file;
+    private final LinkedHashMap<Key, ProcessingResult> entries;
+
+    /**
+     * Key of a cached result.
+     *
+     * @param source     the fingerprint of the data file.
+     * @param ingestMode the strategy that read the file.
+     * @param query      the query.
+     */
+    public record Key(SourceFingerprint source, IngestMode ingestMode, DataQuery query) {
+    }
+
+    /**
+     * Creates an empty cache, or a cache loaded from a file.
+     *
+     * @param maxEntries the maximum number of results kept.
+     * @param file       the file the cache is stored in, null to keep it in memory only.
+     */
+    public ResultCache(int maxEntries, Path file) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Velikost cache výsledků musí být alespoň 1.");
+        }
+        this.maxEntries = maxEntries;
+        this.file = file;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ProcessingResult> eldest) {
+                return size() > ResultCache.this.maxEntries;
+            }
+        };
+        if (file != null) {
+            load();
+        }
+    }
+
+    /**
+     * Returns the cache shared by all queries of the application if it is enabled by the `sdc.resultCacheSize`
+     * system property (the maximum number of results; 0, the default, disables the cache).
+     * `sdc.resultCacheFile` names the file the cache is stored in between runs; without it the cache is kept in memory only.
+     *
+     * @return the shared cache, or null if it is disabled.
+     */
+    public static synchronized ResultCache fromSystemProperties() {
+        if (!sharedCreated) {
+            int size = Integer.getInteger("sdc.resultCacheSize", 0);
+            String cacheFile = System.getProperty("sdc.resultCacheFile");
+            shared = size > 0 ? new ResultCache(size, cacheFile == null || cacheFile.isBlank() ? null : Path.of(cacheFile)) : null;
+            sharedCreated = true;
+        }
+        return shared;
+    }
+
+    /**
+     * Returns whether query results may be taken from and stored in the cache with the current system properties.
+     * <p>
+     * The lenient ingest (`sdc.lenient`, `sdc.maxErrorRate`) and the report of missing intervals (`sdc.gapReport`)
+     * write their reports during the read, which a cached result would skip, and the lenient ingest drops rows a strict
+     * read rejects. The in-memory dataset (`sdc.inMemory`) stores the values as floats, so its results must not be
+     * returned to queries reading the file. Neither is part of the key; such queries bypass the cache instead.
+     *
+     * @return false if the queries have to be evaluated without the cache.
+     */
+    public static boolean applies() {
+        return !Quarantine.enabled() && !GapDetector.enabled() && !InMemoryDataset.enabled();
+    }
+
+    /**
+     * Returns the cached result of a query.
+     *
+     * @param key the key of the result.
+     * @return the result, or null if it is not cached.
+     */
+    public synchronized ProcessingResult get(Key key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Stores the result of a query, evicting the least recently used result if the cache is full.
+     *
+     * @param key    the key of the result.
+     * @param result the result.
+     */
+    public synchronized void put(Key key, ProcessingResult result) {
+        entries.put(key, result);
+        if (file != null) {
+            store();
+        }
+    }
+
+    /**
+     * Returns the number of cached results.
+     *
+     * @return the number of results.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.warn("Soubor {} není platná cache výsledků, bude přepsán.", file);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                Key key = readKey(in);
+                ProcessingResult result = readResult(in, key.query());
+                // Výsledky souborů, které se mezitím změnily, se zahazují.
+                Path source = key.source().path();
+                if (Files.isRegularFile(source) && SourceFingerprint.of(source).equals(key.source())) {
+                    entries.put(key, result);
+                }
+            }
+        } catch (IOException | IllegalArgumentException | DateTimeException e) {
+            logger.warn("Cache výsledků nelze načíst ({}), začíná se s prázdnou.", e.getMessage());
+            entries.clear();
+        }
+    }
+
+    private void store() {
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path tempPath = Files.createTempFile(directory, "sdc-results", ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath), 1 << 16))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                    out.writeInt(entries.size());
+                    // Pořadí od nejdéle nepoužitého zachová po načtení i pořadí pro LRU.
+                    for (Map.Entry<Key, ProcessingResult> entry : entries.entrySet()) {
+                        writeKey(out, entry.getKey());
+                        writeResult(out, entry.getValue());
+                    }
+                }
+                try {
+                    Files.move(tempPath, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempPath, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempPath);
+            }
+        } catch (IOException e) {
+            logger.warn("Cache výsledků nelze uložit do {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void writeKey(DataOutputStream out, Key key) throws IOException {
+        out.writeUTF(key.source().path().toString());
+        out.writeLong(key.source().size());
+        out.writeLong(key.source().lastModified());
+        out.writeUTF(key.ingestMode().name());
+        DataQuery query = key.query();
+        out.writeInt(query.from().getYear());
+        out.writeInt(query.from().getMonthValue());
+        out.writeInt(query.to().getYear());
+        out.writeInt(query.to().getMonthValue());
+        out.writeInt(query.day());
+    }
+
+    private static Key readKey(DataInputStream in) throws IOException {
+        SourceFingerprint source = new SourceFingerprint(Path.of(in.readUTF()), in.readLong(), in.readLong());
+        IngestMode ingestMode = IngestMode.valueOf(in.readUTF());
+        DataQuery query = new DataQuery(YearMonth.of(in.readInt(), in.readInt()), YearMonth.of(in.readInt(), in.readInt()), in.readInt());
+        return new Key(source, ingestMode, query);
+    }
+
+    private static void writeResult(DataOutputStream out, ProcessingResult result) throws IOException {
+        out.writeInt(result.months().size());
+        for (ProcessingResult.MonthResult month : result.months()) {
+            out.writeInt(month.year());
+            out.writeInt(month.month());
+            out.writeDouble(month.total());
+            out.writeDouble(month.chosenDayAverage());
+        }
+        out.writeInt(result.chosenDays().size());
+        for (ProcessingResult.DayResult day : result.chosenDays()) {
+            out.writeInt(CalendarMath.packDate(day.year(), day.month(), day.dayOfMonth()));
+            out.writeInt(day.dayOfWeek());
+            out.writeDouble(day.total());
+        }
+        out.writeDouble(result.seasonTotal());
+        out.writeDouble(result.chosenDaySeasonTotal());
+    }
+
+    private static ProcessingResult readResult(DataInputStream in, DataQuery query) throws IOException {
+        int monthCount = in.readInt();
+        List<ProcessingResult.MonthResult> months = new ArrayList<>(monthCount);
+        for (int i = 0; i < monthCount; i++) {
+            months.add(new ProcessingResult.MonthResult(in.readInt(), in.readInt(), in.readDouble(), in.readDouble()));
+        }
+        int dayCount = in.readInt();
+        List<ProcessingResult.DayResult> days = new ArrayList<>(dayCount);
+        for (int i = 0; i < dayCount; i++) {
+            int date = in.readInt();
+            days.add(new ProcessingResult.DayResult(CalendarMath.packedYear(date), CalendarMath.packedMonth(date),
+                    CalendarMath.packedDayOfMonth(date), in.readInt(), in.readDouble()));
+        }
+        return new ProcessingResult(query, months, days, in.readDouble(), in.readDouble());
+    }
+}
@@ -0,0 +1,290 @@
+package org.SDC;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams the results of a query to a CSV or JSON Lines file while the data is being processed.
+ * <p>
+ * The completed days and months are handed over to a background thread through a bounded queue;
+ * the thread formats them and writes them through a large buffer, optionally gzip-compressed,
+ * so the processing thread never waits for the disk unless the writer falls far behind.
+ * The totals of the whole period are written when the final result is accepted as a `ResultSink`.
+ * The file is complete once the exporter has been closed.
+ * <p>
+ * The export is enabled by system properties, see {@link #fromSystemProperties(DataQuery)}.
+ */
+public class ResultExporter implements ResultListener, ResultSink, AutoCloseable {
+
+    private static final String DEFAULT_DIRECTORY = ".";
+    private static final String FILE_NAME = "finalDataSet";
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+    private static final Object END = new Object();
+
+    private final Path file;
+    private final ExportFormat format;
+    private final DataQuery query;
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writerThread;
+    private volatile IOException failure;
+    private boolean closed;
+
+    /**
+     * Creates the export file and starts the background writer.
+     *
+     * @param file   the file to write; an existing file is overwritten.
+     * @param format the format of the file.
+     * @param gzip   whether the file is gzip-compressed.
+     * @param query  the exported query, written to the header of the file.
+     * @throws IOException if the file cannot be created.
+     */
+    public ResultExporter(Path file, ExportFormat format, boolean gzip, DataQuery query) throws IOException {
+        this(file, format, query, open(file, gzip));
+    }
+
+    /**
+     * Starts the background writer writing to the given writer.
+     *
+     * @param file   the file the writer writes to.
+     * @param format the format of the file.
+     * @param query  the exported query, written to the header of the file.
+     * @param writer the writer of the file, closed by the background writer.
+     */
+    ResultExporter(Path file, ExportFormat format, DataQuery query, Writer writer) {
+        this.file = file;
+        this.format = format;
+        this.query = query;
+        this.writerThread = new Thread(() -> writeAll(writer), "sdc-export-" + file.getFileName());
+        writerThread.start();
+    }
+
+    private static Writer open(Path file, boolean gzip) throws IOException {
+        OutputStream output = Files.newOutputStream(file);
+        try {
+            return new BufferedWriter(new OutputStreamWriter(
+                    gzip ? new GZIPOutputStream(output, WRITE_BUFFER_SIZE) : output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        } catch (IOException | RuntimeException e) {
+            output.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates an exporter for the query if the export is enabled by the `sdc.export` system property
+     * ({@code csv} or {@code jsonl}). The file {@code finalDataSet_<from>-<to>[_<day>].<format>} is created in
+     * the directory given by `sdc.exportDir` (by default the working directory); `sdc.exportGzip=true` compresses it
+     * and adds the {@code .gz} extension.
+     *
+     * @param query the exported query.
+     * @return the exporter, or null if the export is not enabled.
+     * @throws IOException              if the file cannot be created.
+     * @throws IllegalArgumentException if the format is not known.
+     */
+    public static ResultExporter fromSystemProperties(DataQuery query) throws IOException {
+        String formatName = System.getProperty("sdc.export");
+        if (formatName == null || formatName.isBlank()) {
+            return null;
+        }
+        ExportFormat format = ExportFormat.ofFileExtension(formatName.trim());
+        boolean gzip = Boolean.getBoolean("sdc.exportGzip");
+        Path directory = Path.of(System.getProperty("sdc.exportDir", DEFAULT_DIRECTORY));
+        Files.createDirectories(directory);
+        // Přípona názvu souboru je tvořena zadaným rozsahem from/to a případně dnem.
+        String name = FILE_NAME + "_" + query.toString().replace('/', '_') + "." + format.fileExtension() + (gzip ? ".gz" : "");
+        return new ResultExporter(directory.resolve(name), format, gzip, query);
+    }
+
+    /**
+     * Returns the exported file.
+     *
+     * @return the path of the file.
+     */
+    public Path file() {
+        return file;
+    }
+
+    @Override
+    public void monthCompleted(ProcessingResult.MonthResult month) {
+        enqueue(month);
+    }
+
+    @Override
+    public void dayCompleted(ProcessingResult.DayResult day) {
+        enqueue(day);
+    }
+
+    /**
+     * Writes the totals of the whole period. The days and months have already been written as they were completed.
+     *
+     * @param result the final result of the query.
+     */
+    @Override
+    public void accept(ProcessingResult result) {
+        enqueue(result);
+    }
+
+    /**
+     * Waits until all results are written and closes the file.
+     *
+     * @throws IOException if writing the file failed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            enqueue(END);
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Čekání na dokončení exportu bylo přerušeno.", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void enqueue(Object item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Export výsledků byl přerušen.", e);
+        }
+    }
+
+    /**
+     * Runs on the background thread: writes the queued results until the end marker arrives.
+     * After any failure, including an unexpected exception while formatting, the remaining results are only taken
+     * from the queue, so the processing never blocks; the failure is reported by {@link #close()}.
+     */
+    private void writeAll(Writer writer) {
+        StringBuilder line = new StringBuilder(128);
+        boolean ended = false;
+        try (writer) {
+            writeHeader(writer);
+            for (Object item = queue.take(); item != END; item = queue.take()) {
+                line.setLength(0);
+                format(item, line);
+                writer.append(line);
+            }
+            ended = true;
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            failure = new IOException("Zápis exportu byl přerušen.", e);
+        } catch (Throwable e) {
+            failure = new IOException("Zápis exportu selhal: " + e, e);
+        } finally {
+            if (!ended) {
+                drain();
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            while (queue.take() != END) {
+                // Výsledky se po chybě zápisu zahazují.
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeHeader(Writer writer) throws IOException {
+        if (format == ExportFormat.CSV) {
+            // Sloupce zvoleného dne mají smysl jen tehdy, když uživatel den zvolil.
+            writer.write(query.day() > 0 ? "type,date,dayOfWeek,total,chosenDayAverage,chosenDayTotal\n" : "type,date,total\n");
+        }
+    }
+
+    private void format(Object item, StringBuilder line) {
+        if (item instanceof ProcessingResult.DayResult day) {
+            formatDay(day, line);
+        } else if (item instanceof ProcessingResult.MonthResult month) {
+            formatMonth(month, line);
+        } else if (item instanceof ProcessingResult result) {
+            formatTotals(result, line);
+        }
+        line.append('\n');
+    }
+
+    private void formatDay(ProcessingResult.DayResult day, StringBuilder line) {
+        if (format == ExportFormat.CSV) {
+            line.append("day,");
+            appendDate(line, day.year(), day.month()).append('-');
+            appendTwoDigits(line, day.dayOfMonth()).append(',').append(day.dayOfWeek()).append(',').append(day.total()).append(",,");
+        } else {
+            line.append("{\"type\":\"day\",\"date\":\"");
+            appendDate(line, day.year(), day.month()).append('-');
+            appendTwoDigits(line, day.dayOfMonth()).append("\",\"dayOfWeek\":").append(day.dayOfWeek())
+                    .append(",\"total\":").append(day.total()).append('}');
+        }
+    }
+
+    private void formatMonth(ProcessingResult.MonthResult month, StringBuilder line) {
+        if (format == ExportFormat.CSV) {
+            line.append("month,");
+            appendDate(line, month.year(), month.month()).append(',');
+            if (query.day() > 0) {
+                // Měsíc bez zvoleného dne nemá průměr, pole zůstane prázdné jako null v JSON Lines.
+                line.append(',').append(month.total()).append(',');
+                if (Double.isFinite(month.chosenDayAverage())) {
+                    line.append(month.chosenDayAverage());
+                }
+                line.append(',');
+            } else {
+                line.append(month.total());
+            }
+        } else {
+            line.append("{\"type\":\"month\",\"date\":\"");
+            appendDate(line, month.year(), month.month()).append("\",\"total\":").append(month.total());
+            if (query.day() > 0) {
+                line.append(",\"chosenDayAverage\":").append(jsonNumber(month.chosenDayAverage()));
+            }
+            line.append('}');
+        }
+    }
+
+    private void formatTotals(ProcessingResult result, StringBuilder line) {
+        if (format == ExportFormat.CSV) {
+            line.append("period,").append(query).append(',');
+            if (query.day() > 0) {
+                line.append(',').append(result.seasonTotal()).append(",,").append(result.chosenDaySeasonTotal());
+            } else {
+                line.append(result.seasonTotal());
+            }
+        } else {
+            line.append("{\"type\":\"period\",\"date\":\"").append(query).append("\",\"total\":").append(result.seasonTotal());
+            if (query.day() > 0) {
+                line.append(",\"chosenDayTotal\":").append(result.chosenDaySeasonTotal());
+            }
+            line.append('}');
+        }
+    }
+
+    private static StringBuilder appendDate(StringBuilder line, int year, int month) {
+        line.append(year).append('-');
+        return appendTwoDigits(line, month);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder line, int value) {
+        return line.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private static String jsonNumber(double value) {
+        return Double.isFinite(value) ? Double.toString(value) : "null";
+    }
+}
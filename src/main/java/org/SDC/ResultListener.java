@@ -0,0 +1,57 @@
+package org.SDC;
+
+import java.util.List;
+
+/**
+ * Receives the results of a query as they are completed during processing, before the whole period is processed.
+ * Used to stream the results out, e.g. to an export file, without waiting for the final `ProcessingResult`.
+ * <p>
+ * The methods are called on the thread processing the rows and should return quickly.
+ */
+public interface ResultListener {
+
+    /**
+     * A listener ignoring all results.
+     */
+    ResultListener NONE = new ResultListener() {
+    };
+
+    /**
+     * Called when the data moves past a month.
+     *
+     * @param month the results of the completed month.
+     */
+    default void monthCompleted(ProcessingResult.MonthResult month) {
+    }
+
+    /**
+     * Called when the data moves past a chosen day of the week.
+     *
+     * @param day the total of the completed day.
+     */
+    default void dayCompleted(ProcessingResult.DayResult day) {
+    }
+
+    /**
+     * Passes the days and months of a finished result to a listener in the order in which
+     * they were completed during processing: the chosen days of a month precede the month.
+     *
+     * @param result         the finished result, e.g. taken from a `ResultCache`.
+     * @param resultListener receives the days and months.
+     */
+    static void replay(ProcessingResult result, ResultListener resultListener) {
+        List<ProcessingResult.DayResult> chosenDays = result.chosenDays();
+        int nextDay = 0;
+        for (ProcessingResult.MonthResult month : result.months()) {
+            int monthIndex = CalendarMath.monthIndex(month.year(), month.month());
+            while (nextDay < chosenDays.size()
+                    && CalendarMath.monthIndex(chosenDays.get(nextDay).year(), chosenDays.get(nextDay).month()) <= monthIndex) {
+                resultListener.dayCompleted(chosenDays.get(nextDay++));
+            }
+            resultListener.monthCompleted(month);
+        }
+        while (nextDay < chosenDays.size()) {
+            resultListener.dayCompleted(chosenDays.get(nextDay++));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.SDC;
+
+/**
+ * Consumes the result of a query, e.g. by logging, rendering or exporting it.
+ */
+@FunctionalInterface
+public interface ResultSink {
+
+    /**
+     * Handles the result of one query.
+     *
+     * @param result the result of the query.
+     */
+    void accept(ProcessingResult result);
+}
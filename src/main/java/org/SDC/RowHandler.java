@@ -0,0 +1,19 @@
+package org.SDC;
+
+/**
+ * Receives decoded data rows of the solar export as primitive fields.
+ */
+@FunctionalInterface
+public interface RowHandler {
+
+    /**
+     * Handles one data row.
+     *
+     * @param year        the year of the data point.
+     * @param month       the month of the data point (1 = January, ..., 12 = December).
+     * @param dayOfMonth  the day of the month of the data point.
+     * @param minuteOfDay the minute of the day of the data point (0 - 1439).
+     * @param value       the solar radiation value.
+     */
+    void handle(int year, int month, int dayOfMonth, int minuteOfDay, double value);
+}
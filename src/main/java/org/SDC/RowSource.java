@@ -0,0 +1,20 @@
+package org.SDC;
+
+import java.io.IOException;
+
+/**
+ * A source of data rows that can be restricted to a month range, e.g. a CSV file or an in-memory dataset.
+ */
+@FunctionalInterface
+public interface RowSource {
+
+    /**
+     * Passes the rows within the month range to the row handler in file order.
+     *
+     * @param fromIndex  the first month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param toIndex    the last month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param rowHandler receives the rows within the range.
+     * @throws IOException if the rows cannot be read.
+     */
+    void forEachRow(int fromIndex, int toIndex, RowHandler rowHandler) throws IOException;
+}
@@ -0,0 +1,37 @@
+package org.SDC;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+
+import static org.apache.logging.log4j.util.Unbox.box;
+
+/**
+ * Logs a short summary of a result that keeps changing: the running month, the last chosen day and the totals
+ * for the whole period. Used by the follow mode, where logging the full result after every append would repeat
+ * all the months already reported.
+ */
+public class RunningTotalsSink implements ResultSink {
+
+    private static final Logger logger = LogManager.getLogger(RunningTotalsSink.class);
+
+    @Override
+    public void accept(ProcessingResult result) {
+        List<ProcessingResult.MonthResult> months = result.months();
+        if (months.isEmpty()) {
+            logger.info("Zatím nejsou k dispozici žádná data pro zvolené období.");
+            return;
+        }
+        ProcessingResult.MonthResult month = months.get(months.size() - 1);
+        logger.info("Průběžně - měsíc: {}, rok: {}, Celkový výkon: {} W/m²", CzechNames.month(month.month()), box(month.year()), box(month.total()));
+
+        List<ProcessingResult.DayResult> chosenDays = result.chosenDays();
+        if (!chosenDays.isEmpty()) {
+            ProcessingResult.DayResult day = chosenDays.get(chosenDays.size() - 1);
+            logger.info("Průběžně - souhrnný výkon za {} {}-{}-{}: {} W/m²", CzechNames.dayOfWeek(day.dayOfWeek()), box(day.year()),
+                    LoggingResultSink.TWO_DIGITS[day.month()], LoggingResultSink.TWO_DIGITS[day.dayOfMonth()], box(day.total()));
+        }
+        logger.info("Průběžně - celkový výkon za období: {} W/m², pro zvolené dny: {} W/m²", box(result.seasonTotal()), box(result.chosenDaySeasonTotal()));
+    }
+}
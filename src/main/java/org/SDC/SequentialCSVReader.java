@@ -0,0 +1,155 @@
+package org.SDC;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Reads the solar data export sequentially on the calling thread.
+ * <p>
+ * The file bytes are scanned directly and every data row is decoded by `CSVLineDecoder` into
+ * primitive fields, so no intermediate objects are created for regular rows.
+ * <p>
+ * A malformed row aborts the read, unless a `Quarantine` of the lenient ingest is given; the row is then
+ * recorded in the quarantine and skipped.
+ */
+public class SequentialCSVReader {
+
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Reads the file, passing the header lines to the header consumer and the data rows
+     * within the month range to the row handler in file order.
+     *
+     * @param filePath       the path to the CSV file.
+     * @param headerLines    the number of non-empty header lines preceding the data.
+     * @param headerConsumer receives the raw header lines.
+     * @param fromIndex      the first month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param toIndex        the last month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param rowHandler     receives the data rows within the range.
+     * @throws IOException if the file cannot be read or processed.
+     */
+    public void read(String filePath, int headerLines, Consumer<String> headerConsumer,
+                     int fromIndex, int toIndex, RowHandler rowHandler) throws IOException {
+        read(filePath, headerLines, headerConsumer, fromIndex, toIndex, rowHandler, null);
+    }
+
+    /**
+     * Reads the file like {@link #read(String, int, Consumer, int, int, RowHandler)}, recording the malformed rows
+     * in the quarantine instead of aborting the read.
+     *
+     * @param filePath       the path to the CSV file.
+     * @param headerLines    the number of non-empty header lines preceding the data.
+     * @param headerConsumer receives the raw header lines.
+     * @param fromIndex      the first month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param toIndex        the last month to accept, see {@link CalendarMath#monthIndex(int, int)}.
+     * @param rowHandler     receives the data rows within the range.
+     * @param quarantine     receives the malformed rows, null to abort the read on the first one.
+     * @throws IOException if the file cannot be read or processed, or a `MalformedDataException` if too many rows are malformed.
+     */
+    public void read(String filePath, int headerLines, Consumer<String> headerConsumer,
+                     int fromIndex, int toIndex, RowHandler rowHandler, Quarantine quarantine) throws IOException {
+        CSVLineDecoder decoder = new CSVLineDecoder();
+        // Počítadla pro ProcessingMetrics, předávají se jednou za čtení.
+        long rows = 0;
+        long filteredRows = 0;
+        long slowRows = 0;
+        long bytesRead = 0;
+
+        try (InputStream input = new FileInputStream(filePath)) {
+            byte[] bytes = new byte[READ_BUFFER_SIZE];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            int currentLine = 0;
+            long lineNumber = 0; // Včetně prázdných řádků, pro karanténu.
+            int filled = 0;
+            int position = 0;
+            boolean endOfFile = false;
+
+            while (true) {
+                int lineEnd = indexOfNewLine(bytes, position, filled);
+                if (lineEnd < 0) {
+                    if (endOfFile) {
+                        if (position >= filled) {
+                            break;
+                        }
+                        lineEnd = filled; // Poslední řádek bez konce řádku.
+                    } else {
+                        // Přesun nedočteného řádku na začátek bufferu a dočtení dalších dat.
+                        int remaining = filled - position;
+                        if (remaining == bytes.length) {
+                            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                        } else {
+                            System.arraycopy(bytes, position, bytes, 0, remaining);
+                        }
+                        buffer = ByteBuffer.wrap(bytes);
+                        position = 0;
+                        filled = remaining;
+                        int read = input.read(bytes, filled, bytes.length - filled);
+                        if (read < 0) {
+                            endOfFile = true;
+                        } else {
+                            filled += read;
+                            bytesRead += read;
+                        }
+                        continue;
+                    }
+                }
+
+                int start = position;
+                int end = lineEnd > start && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                position = lineEnd + 1;
+                lineNumber++;
+                if (end == start) { // Prázdné řádky commons-csv také přeskakuje.
+                    continue;
+                }
+
+                currentLine++;
+                // Přeskočení hlavičky
+                if (currentLine <= headerLines) {
+                    headerConsumer.accept(new String(bytes, start, end - start, Charset.defaultCharset()));
+                    continue;
+                }
+
+                if (!decoder.decode(buffer, start, end)) {
+                    try {
+                        decoder.decodeSlow(buffer, start, end);
+                    } catch (IOException | RuntimeException e) {
+                        if (quarantine == null) {
+                            throw e;
+                        }
+                        quarantine.reject(lineNumber, new String(bytes, start, end - start, Charset.defaultCharset()), e, rows);
+                        continue;
+                    }
+                    slowRows++;
+                }
+                rows++;
+
+                // From/To filtration.
+                int recordIndex = CalendarMath.monthIndex(decoder.getYear(), decoder.getMonth());
+                if (recordIndex >= fromIndex && recordIndex <= toIndex) {
+                    rowHandler.handle(decoder.getYear(), decoder.getMonth(), decoder.getDayOfMonth(),
+                            decoder.getHour() * 60 + decoder.getMinute(), decoder.getValue());
+                } else {
+                    filteredRows++;
+                }
+            }
+        }
+        ProcessingMetrics.recordRows(rows, filteredRows, slowRows, bytesRead);
+        if (quarantine != null) {
+            quarantine.finish(rows);
+        }
+    }
+
+    private static int indexOfNewLine(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
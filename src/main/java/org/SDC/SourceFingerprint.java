@@ -0,0 +1,40 @@
+package org.SDC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Identifies a particular version of a data file by its path, size and modification time.
+ * <p>
+ * Files derived from the CSV export (caches, indexes) store the fingerprint of the source
+ * they were built from and are considered out of date as soon as it changes.
+ *
+ * @param path         the absolute, normalized path of the file.
+ * @param size         the size of the file in bytes.
+ * @param lastModified the modification time of the file in milliseconds since the epoch.
+ */
+public record SourceFingerprint(Path path, long size, long lastModified) {
+
+    /**
+     * Reads the current fingerprint of a file.
+     *
+     * @param path the path of the file.
+     * @return the fingerprint of the file.
+     * @throws IOException if the file attributes cannot be read.
+     */
+    public static SourceFingerprint of(Path path) throws IOException {
+        return new SourceFingerprint(path.toAbsolutePath().normalize(), Files.size(path), Files.getLastModifiedTime(path).toMillis());
+    }
+
+    /**
+     * Checks whether the stored size and modification time still describe this version of the file.
+     *
+     * @param size         the stored size.
+     * @param lastModified the stored modification time.
+     * @return true if both values are equal.
+     */
+    public boolean matches(long size, long lastModified) {
+        return this.size == size && this.lastModified == lastModified;
+    }
+}
@@ -0,0 +1,276 @@
+package org.SDC;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Follows a data export that keeps growing and keeps the results of one query up to date.
+ * <p>
+ * The follower remembers the byte offset after the last processed line together with the `QueryAccumulator`
+ * holding the state of the query at that point, so each {@link #poll()} only reads the bytes appended since
+ * the previous one. A line is processed only once its line terminator has been written; a trailing line without
+ * a terminator waits for the next append.
+ * <p>
+ * If the file has been rewritten rather than appended to (it was replaced, it is shorter than the processed part,
+ * or the bytes just before the remembered offset have changed), the state is dropped and the file is processed
+ * again from the beginning.
+ * <p>
+ * The {@code to} month of the query is usually the running month, so its rows are counted, unlike in the other modes.
+ *
+ * @see CSVReaderService#follower(String, DataQuery)
+ */
+public class TailFollower {
+
+    private static final Logger logger = LogManager.getLogger(TailFollower.class);
+    private static final int READ_BUFFER_SIZE = 1 << 20;
+    private static final int ANCHOR_LENGTH = 64;
+
+    private final Path file;
+    private final int headerLines;
+    private final Consumer<String> headerConsumer;
+    private final Supplier<QueryAccumulator> accumulatorFactory;
+    private final int fromIndex;
+    private final int toIndex;
+    private final CSVLineDecoder decoder = new CSVLineDecoder();
+
+    private QueryAccumulator accumulator;
+    private long offset;
+    private int headerLinesRead;
+    private byte[] anchor = new byte[0];
+    private Object fileKey;
+    // Počítadla pro ProcessingMetrics, předávají se jednou za kontrolu souboru.
+    private long rows;
+    private long filteredRows;
+    private long slowRows;
+
+    /**
+     * Creates a follower; nothing is read until the first {@link #poll()}.
+     *
+     * @param file               the followed file.
+     * @param headerLines        the number of non-empty header lines preceding the data.
+     * @param headerConsumer     receives the raw header lines, again after every rebuild.
+     * @param query              the query whose results are kept up to date.
+     * @param accumulatorFactory creates an empty accumulator of the query, at start and on every rebuild.
+     */
+    TailFollower(Path file, int headerLines, Consumer<String> headerConsumer, DataQuery query,
+                 Supplier<QueryAccumulator> accumulatorFactory) {
+        this.file = file;
+        this.headerLines = headerLines;
+        this.headerConsumer = headerConsumer;
+        this.accumulatorFactory = accumulatorFactory;
+        this.fromIndex = query.fromIndex();
+        this.toIndex = query.toIndex();
+        this.accumulator = accumulatorFactory.get();
+    }
+
+    /**
+     * Processes the lines appended since the previous call, or the whole file after a rewrite.
+     *
+     * @return true if any new line was processed.
+     * @throws IOException if the file cannot be read or processed.
+     */
+    public synchronized boolean poll() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Object currentFileKey = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+            long size = channel.size();
+            if (isRewritten(channel, currentFileKey, size)) {
+                logger.info("Soubor {} byl přepsán, data se zpracují znovu od začátku.", file);
+                reset();
+            }
+            fileKey = currentFileKey;
+            if (size == offset) {
+                return false;
+            }
+            long start = ProcessingMetrics.start();
+            long previousOffset = offset;
+            boolean processed = readAppendedLines(channel, size);
+            ProcessingMetrics.recordRows(rows, filteredRows, slowRows, offset - previousOffset);
+            ProcessingMetrics.recordRead(start);
+            rows = 0;
+            filteredRows = 0;
+            slowRows = 0;
+            storeAnchor(channel);
+            return processed;
+        }
+    }
+
+    /**
+     * Returns the results of the query for the data processed so far, including the running month and day.
+     *
+     * @return an immutable snapshot of the results.
+     */
+    public synchronized ProcessingResult result() {
+        return accumulator.toRunningResult();
+    }
+
+    /**
+     * Returns the offset after the last processed line.
+     *
+     * @return the number of processed bytes of the file.
+     */
+    public synchronized long offset() {
+        return offset;
+    }
+
+    /**
+     * Follows the file until the thread is interrupted, passing the results to the sink after every change.
+     * <p>
+     * Changes are reported by a `WatchService` on the directory of the file; the file is also checked at least
+     * once per poll interval, for file systems that do not report changes.
+     *
+     * @param pollInterval the longest time between two checks of the file.
+     * @param resultSink   receives the results after the initial read and after every change.
+     * @throws IOException          if the file cannot be read or processed.
+     * @throws InterruptedException if the thread is interrupted while waiting for changes.
+     */
+    public void follow(Duration pollInterval, ResultSink resultSink) throws IOException, InterruptedException {
+        Path directory = file.toAbsolutePath().getParent();
+        try (WatchService watchService = directory.getFileSystem().newWatchService()) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            while (true) {
+                boolean changed;
+                try {
+                    changed = poll();
+                } catch (NoSuchFileException e) {
+                    // Soubor může při přepisu krátce chybět, zkusí se to znovu při další změně.
+                    changed = false;
+                }
+                if (changed) {
+                    resultSink.accept(result());
+                }
+                WatchKey key = watchService.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+            }
+        }
+    }
+
+    private boolean isRewritten(FileChannel channel, Object currentFileKey, long size) throws IOException {
+        if (offset == 0) {
+            return false;
+        }
+        if (size < offset || (fileKey != null && !Objects.equals(fileKey, currentFileKey))) {
+            return true;
+        }
+        ByteBuffer current = ByteBuffer.allocate(anchor.length);
+        while (current.hasRemaining() && channel.read(current, offset - anchor.length + current.position()) > 0) {
+            // Dočtení celé kotvy.
+        }
+        return !Arrays.equals(anchor, current.array());
+    }
+
+    private void reset() {
+        accumulator = accumulatorFactory.get();
+        offset = 0;
+        headerLinesRead = 0;
+        anchor = new byte[0];
+    }
+
+    /**
+     * Reads the complete lines between the remembered offset and the given size and moves the offset after them.
+     */
+    private boolean readAppendedLines(FileChannel channel, long size) throws IOException {
+        byte[] bytes = new byte[READ_BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long filePosition = offset; // Pozice bytes[0] v souboru.
+        int filled = 0;
+        boolean processed = false;
+
+        while (filePosition + filled < size) {
+            int read = channel.read(ByteBuffer.wrap(bytes, filled, bytes.length - filled), filePosition + filled);
+            if (read < 0) {
+                break;
+            }
+            filled += read;
+
+            int position = 0;
+            int lineEnd;
+            while ((lineEnd = indexOfNewLine(bytes, position, filled)) >= 0) {
+                processLine(bytes, buffer, position, lineEnd);
+                position = lineEnd + 1;
+                processed = true;
+            }
+
+            // Přesun nedokončeného řádku na začátek bufferu.
+            int remaining = filled - position;
+            if (remaining == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                buffer = ByteBuffer.wrap(bytes);
+            } else {
+                System.arraycopy(bytes, position, bytes, 0, remaining);
+            }
+            filePosition += position;
+            filled = remaining;
+        }
+        offset = filePosition;
+        return processed;
+    }
+
+    private void processLine(byte[] bytes, ByteBuffer buffer, int start, int lineEnd) throws IOException {
+        int end = lineEnd > start && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+        if (end == start) { // Prázdné řádky commons-csv také přeskakuje.
+            return;
+        }
+        if (headerLinesRead < headerLines) {
+            headerLinesRead++;
+            headerConsumer.accept(new String(bytes, start, end - start, Charset.defaultCharset()));
+            return;
+        }
+
+        if (!decoder.decode(buffer, start, end)) {
+            decoder.decodeSlow(buffer, start, end);
+            slowRows++;
+        }
+        rows++;
+
+        // From/To filtration.
+        int recordIndex = CalendarMath.monthIndex(decoder.getYear(), decoder.getMonth());
+        if (recordIndex >= fromIndex && recordIndex <= toIndex) {
+            accumulator.handle(decoder.getYear(), decoder.getMonth(), decoder.getDayOfMonth(),
+                    decoder.getHour() * 60 + decoder.getMinute(), decoder.getValue());
+        } else {
+            filteredRows++;
+        }
+    }
+
+    /**
+     * Remembers the bytes just before the offset, to recognize a rewritten file on the next poll.
+     */
+    private void storeAnchor(FileChannel channel) throws IOException {
+        ByteBuffer current = ByteBuffer.allocate((int) Math.min(ANCHOR_LENGTH, offset));
+        while (current.hasRemaining() && channel.read(current, offset - current.capacity() + current.position()) > 0) {
+            // Dočtení celé kotvy.
+        }
+        anchor = current.array();
+    }
+
+    private static int indexOfNewLine(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,141 @@
+package org.SDC;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.util.Locale;
+
+/**
+ * Granularity of a bucketed aggregation: hour of the day, day, ISO week, month or a window of N minutes.
+ * <p>
+ * Every row is mapped to a numeric bucket key. Keys of consecutive buckets are consecutive numbers, so
+ * the buckets of a period can be stored in arrays indexed by the key. The hours of the day are the only
+ * recurring buckets: all rows of the same hour fall into one of 24 buckets, whatever their date.
+ * <p>
+ * A granularity is written as {@code hour}, {@code day}, {@code week}, {@code month} or {@code <N>min},
+ * e.g. {@code 15min}, see {@link #parse(String)}.
+ *
+ * @param unit    the kind of buckets.
+ * @param minutes the length of a window in minutes for {@link Unit#MINUTES}, 0 otherwise.
+ */
+public record TimeBucket(Unit unit, int minutes) {
+
+    public static final TimeBucket HOUR_OF_DAY = new TimeBucket(Unit.HOUR_OF_DAY, 0);
+    public static final TimeBucket DAY = new TimeBucket(Unit.DAY, 0);
+    public static final TimeBucket ISO_WEEK = new TimeBucket(Unit.ISO_WEEK, 0);
+    public static final TimeBucket MONTH = new TimeBucket(Unit.MONTH, 0);
+
+    private static final DateTimeFormatter MINUTE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    /**
+     * Kinds of buckets.
+     */
+    public enum Unit {
+        HOUR_OF_DAY, DAY, ISO_WEEK, MONTH, MINUTES
+    }
+
+    public TimeBucket {
+        if (unit == Unit.MINUTES ? minutes <= 0 : minutes != 0) {
+            throw new IllegalArgumentException("Neplatná délka okna: " + minutes + " minut.");
+        }
+    }
+
+    /**
+     * Returns windows of the given number of minutes, aligned to midnight of 1 January 1970.
+     *
+     * @param minutes the length of a window in minutes.
+     * @return the granularity.
+     * @throws IllegalArgumentException if the length is not positive.
+     */
+    public static TimeBucket minutes(int minutes) {
+        return new TimeBucket(Unit.MINUTES, minutes);
+    }
+
+    /**
+     * Parses a granularity written as {@code hour}, {@code day}, {@code week}, {@code month} or {@code <N>min}.
+     *
+     * @param specification the text of the granularity.
+     * @return the granularity.
+     * @throws IllegalArgumentException if the granularity is not valid.
+     */
+    public static TimeBucket parse(String specification) {
+        String text = specification.trim().toLowerCase(Locale.ROOT);
+        return switch (text) {
+            case "hour" -> HOUR_OF_DAY;
+            case "day" -> DAY;
+            case "week" -> ISO_WEEK;
+            case "month" -> MONTH;
+            default -> {
+                try {
+                    if (text.endsWith("min")) {
+                        yield minutes(Integer.parseInt(text.substring(0, text.length() - 3)));
+                    }
+                } catch (IllegalArgumentException e) {
+                    // Neplatné číslo nebo délka okna, ohlásí se níže.
+                }
+                throw new IllegalArgumentException("Neplatné členění \"" + specification
+                        + "\". Očekává se hour, day, week, month nebo <N>min, např. 15min.");
+            }
+        };
+    }
+
+    /**
+     * Returns the key of the bucket a row belongs to.
+     *
+     * @param year        the year of the row.
+     * @param month       the month of the row (1 = January, ..., 12 = December).
+     * @param epochDay    the day of the row, see {@link CalendarMath#epochDay(int, int, int)}.
+     * @param minuteOfDay the minute of the day of the row (0 - 1439).
+     * @return the bucket key.
+     */
+    public long key(int year, int month, long epochDay, int minuteOfDay) {
+        return switch (unit) {
+            case HOUR_OF_DAY -> minuteOfDay / 60;
+            case DAY -> epochDay;
+            // 1. 1. 1970 byl čtvrtek, posunem o tři dny začínají týdny pondělím.
+            case ISO_WEEK -> Math.floorDiv(epochDay + 3, 7);
+            case MONTH -> CalendarMath.monthIndex(year, month);
+            case MINUTES -> Math.floorDiv(epochDay * CalendarMath.MINUTES_PER_DAY + minuteOfDay, minutes);
+        };
+    }
+
+    /**
+     * Returns a readable label of a bucket, e.g. {@code 13:00}, {@code 2010-01-31}, {@code 2010-W04},
+     * {@code 2010-01} or {@code 2010-01-31 13:15}.
+     *
+     * @param key the bucket key.
+     * @return the label of the bucket.
+     */
+    public String label(long key) {
+        return switch (unit) {
+            case HOUR_OF_DAY -> String.format("%02d:00", key);
+            case DAY -> LocalDate.ofEpochDay(key).toString();
+            case ISO_WEEK -> {
+                LocalDate monday = LocalDate.ofEpochDay(key * 7 - 3);
+                yield String.format("%d-W%02d", monday.get(IsoFields.WEEK_BASED_YEAR), monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            }
+            case MONTH -> String.format("%d-%02d", Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1);
+            case MINUTES -> {
+                long epochMinute = key * minutes;
+                yield LocalDate.ofEpochDay(Math.floorDiv(epochMinute, CalendarMath.MINUTES_PER_DAY)).atStartOfDay()
+                        .plusMinutes(Math.floorMod(epochMinute, CalendarMath.MINUTES_PER_DAY)).format(MINUTE_FORMATTER);
+            }
+        };
+    }
+
+    /**
+     * Returns the granularity in the form accepted by {@link #parse(String)}.
+     *
+     * @return the text of the granularity.
+     */
+    @Override
+    public String toString() {
+        return switch (unit) {
+            case HOUR_OF_DAY -> "hour";
+            case DAY -> "day";
+            case ISO_WEEK -> "week";
+            case MONTH -> "month";
+            case MINUTES -> minutes + "min";
+        };
+    }
+}
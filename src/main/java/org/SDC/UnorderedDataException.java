@@ -0,0 +1,22 @@
+package org.SDC;
+
+import java.io.IOException;
+
+/**
+ * Signals that a data file expected to be sorted by time is not, so a read relying on the order may have missed rows.
+ *
+ * @see OrderedCSVReader
+ */
+public class UnorderedDataException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates the exception.
+     *
+     * @param message the description of the problem.
+     */
+    public UnorderedDataException(String message) {
+        super(message);
+    }
+}
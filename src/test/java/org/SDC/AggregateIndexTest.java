@@ -0,0 +1,76 @@
+package org.SDC;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AggregateIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void sumsTheRowsOfEveryDay() throws IOException {
+        Path file = TestData.write(directory, "export.csv",
+                "20200131T2300,1.5\n20200201T0000,\n20200201T0100,2.25\n20200201T0200,0.25\n20200202T0000,4\n");
+        List<String> headers = new ArrayList<>();
+        assertEquals(List.of("2020-1-31 1.5 1", "2020-2-1 2.5 3", "2020-2-2 4.0 1"), days(file, headers));
+        assertEquals(CSVReaderService.HEADER_LINES, headers.size());
+        assertEquals("location,Basilej", headers.get(0));
+    }
+
+    @Test
+    void answersFromTheStoredIndexWithinTheMonthRange() throws IOException {
+        Path file = TestData.write(directory, "export.csv",
+                "20200131T2300,1.5\n20200201T0100,2.25\n20200301T0000,4\n");
+        days(file, new ArrayList<>());
+        // Soubor se stejnou velikostí a časem změny se už nečte, odpověď dá uložený index.
+        FileTime modified = Files.getLastModifiedTime(file);
+        TestData.write(directory, "export.csv", "20200131T2300,9.5\n20200201T0100,9.25\n20200301T0000,9\n");
+        Files.setLastModifiedTime(file, modified);
+
+        List<String> days = new ArrayList<>();
+        new AggregateIndex(file.toString()).read(CSVReaderService.HEADER_LINES, line -> {
+                }, CalendarMath.monthIndex(2020, 2), CalendarMath.monthIndex(2020, 2),
+                (year, month, dayOfMonth, total, rowCount) -> days.add(year + "-" + month + "-" + dayOfMonth + " " + total.sum() + " " + rowCount));
+        assertEquals(List.of("2020-2-1 2.25 1"), days);
+    }
+
+    @Test
+    void rebuildsWhenTheModificationTimeChanges() throws IOException {
+        Path file = TestData.write(directory, "export.csv", "20200101T0000,1.25\n20200101T0100,2.50\n");
+        assertEquals(List.of("2020-1-1 3.75 2"), days(file, new ArrayList<>()));
+
+        FileTime modified = Files.getLastModifiedTime(file);
+        TestData.write(directory, "export.csv", "20200101T0000,9.75\n20200101T0100,2.50\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 2000));
+        assertEquals(List.of("2020-1-1 12.25 2"), days(file, new ArrayList<>()));
+    }
+
+    @Test
+    void rebuildsWhenTheSizeChanges() throws IOException {
+        Path file = TestData.write(directory, "export.csv", "20200101T0000,1.25\n");
+        assertEquals(List.of("2020-1-1 1.25 1"), days(file, new ArrayList<>()));
+
+        FileTime modified = Files.getLastModifiedTime(file);
+        Files.writeString(file, "20200102T0000,2.50\n", StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(file, modified);
+        assertEquals(List.of("2020-1-1 1.25 1", "2020-1-2 2.5 1"), days(file, new ArrayList<>()));
+    }
+
+    private static List<String> days(Path file, List<String> headers) throws IOException {
+        List<String> days = new ArrayList<>();
+        new AggregateIndex(file.toString()).read(CSVReaderService.HEADER_LINES, headers::add, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                (year, month, dayOfMonth, total, rowCount) -> days.add(year + "-" + month + "-" + dayOfMonth + " " + total.sum() + " " + rowCount));
+        return days;
+    }
+}
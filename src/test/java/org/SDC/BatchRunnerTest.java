@@ -0,0 +1,62 @@
+package org.SDC;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Compares the results of one pass over many queries with the results of the queries evaluated separately.
+ */
+class BatchRunnerTest {
+
+    // Překrývající se, vnořená i shodná období a dotazy mimo data.
+    private static final List<DataQuery> QUERIES = List.of(
+            DataQuery.parse("201801-201912/3"), DataQuery.parse("201806-201906/1"), DataQuery.parse("201806-201906"),
+            DataQuery.parse("201901-202002/7"), DataQuery.parse("201901-201901/2"), DataQuery.parse("201701-201712/4"),
+            DataQuery.parse("201801-201912/3"), DataQuery.parse("202101-202112"));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void onePassGivesTheResultsOfSeparateQueries() throws IOException {
+        Path file = TestData.write(directory, "export.csv", YearMonth.of(2018, 1), 26, 30);
+        for (IngestMode mode : new IngestMode[]{IngestMode.FAST, IngestMode.ORDERED, IngestMode.COMMONS_CSV}) {
+            assertEquals(separately(file, mode), new BatchRunner(mode).run(file.toString(), QUERIES), mode.toString());
+        }
+    }
+
+    @Test
+    void orderedBatchFallsBackToTheFullReadOfAnUnsortedFile() throws IOException {
+        // Řádek z roku 2018 za koncem roku 2019: zjistí se až po přeskočení začátku souboru.
+        Path file = TestData.write(directory, "unordered.csv", TestData.rows(YearMonth.of(2018, 1), 24, 60, 5)
+                + "20180105T0000,1.0\n" + TestData.rows(YearMonth.of(2020, 1), 2, 60, 5));
+        List<DataQuery> queries = List.of(
+                DataQuery.parse("201912-202001"), DataQuery.parse("201912-202001/2"), DataQuery.parse("202001-202002/5"));
+        // Samotné seřazené čtení soubor odmítne, dávka ho pak přečte celý.
+        assertThrows(UnorderedDataException.class, () -> new CSVReaderService(new DataProcessor(), IngestMode.ORDERED)
+                .readRows(file.toString(), queries.get(0).fromIndex(), queries.get(0).toIndex(), (year, month, dayOfMonth, minuteOfDay, value) -> {
+                }));
+        assertEquals(separately(file, IngestMode.FAST, queries), new BatchRunner(IngestMode.ORDERED).run(file.toString(), queries));
+    }
+
+    private static List<ProcessingResult> separately(Path file, IngestMode mode) throws IOException {
+        return separately(file, mode, QUERIES);
+    }
+
+    private static List<ProcessingResult> separately(Path file, IngestMode mode, List<DataQuery> queries) throws IOException {
+        List<ProcessingResult> results = new ArrayList<>();
+        for (DataQuery query : queries) {
+            results.add(new CSVReaderService(new DataProcessor(), mode).process(file.toString(), query));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,53 @@
+package org.SDC;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BucketAggregatorTest {
+
+    @Test
+    void aggregatesRowsIntoBucketsInAnyOrder() {
+        BucketAggregator aggregator = new BucketAggregator(List.of(TimeBucket.parse("day"), TimeBucket.minutes(60)));
+        aggregator.handle(2020, 1, 2, 30, 4.0);
+        aggregator.handle(2020, 1, 2, 45, 2.0);
+        // Řádek před dosud nejstarším kusem.
+        aggregator.handle(2020, 1, 1, 0, 1.0);
+        aggregator.handle(2020, 1, 3, 600, 8.0);
+
+        BucketSeries days = aggregator.toResult().get(0);
+        assertEquals(3, days.size());
+        assertEquals(List.of(1.0, 6.0, 8.0), List.of(days.sum(0), days.sum(1), days.sum(2)));
+        assertEquals(List.of(1L, 2L, 1L), List.of(days.count(0), days.count(1), days.count(2)));
+        assertEquals(2.0, days.min(1));
+        assertEquals(4.0, days.max(1));
+
+        BucketSeries hours = aggregator.toResult().get(1);
+        assertEquals(3, hours.size());
+        assertEquals(6.0, hours.sum(1));
+    }
+
+    @Test
+    void failsWithAClearMessageWhenTheSpanExceedsTheLimit() {
+        BucketAggregator aggregator = new BucketAggregator(List.of(TimeBucket.minutes(1)), 1000);
+        aggregator.handle(2020, 1, 1, 0, 1.0);
+        aggregator.handle(2020, 1, 1, 999, 1.0);
+        IllegalArgumentException failure = assertThrows(IllegalArgumentException.class, () -> aggregator.handle(2020, 1, 2, 0, 1.0));
+        assertTrue(failure.getMessage().contains("1min") && failure.getMessage().contains("1441")
+                && failure.getMessage().contains("1000"), failure.getMessage());
+        // Ani kus před prvním se nepřidá.
+        assertThrows(IllegalArgumentException.class, () -> aggregator.handle(2019, 12, 31, 1439, 1.0));
+    }
+
+    @Test
+    void failsBeforeAllocatingBucketsThatDoNotFitIntoTheHeap() {
+        BucketAggregator aggregator = new BucketAggregator(List.of(TimeBucket.minutes(1)));
+        aggregator.handle(1000, 1, 1, 0, 1.0);
+        // Osm tisíc let po minutách: přes 4 miliardy kusů, víc než se vejde do pole i do haldy.
+        assertThrows(IllegalArgumentException.class, () -> aggregator.handle(9000, 1, 1, 0, 1.0));
+    }
+}
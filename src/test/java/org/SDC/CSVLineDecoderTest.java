@@ -0,0 +1,88 @@
+package org.SDC;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CSVLineDecoderTest {
+
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmm");
+
+    private final CSVLineDecoder decoder = new CSVLineDecoder();
+
+    @Test
+    void decodesLikeCommonsCsv() throws IOException {
+        String[] lines = {
+                "20080101T0000,", "20080101T0100,0.0", "20220615T1345,812.37", "20220615T1345,-3.5", "20220615T1345,+3.5",
+                "20240229T2359,0.1", "20240229T2359,123456789012345", "20240229T2359,0.12345678901234567",
+                "20240229T2359,1e3", "20240229T2359,1.5E-7", "20240229T2359,.5", "20240229T2359,5.",
+                "\"20220615T1345\",\"812.37\"", "20220615T1345,812.37,extra", "20220615T1345, 812.37",
+                "20220615T1345,1.7976931348623157E308", "20220615T1345,-0.0",
+                // LocalDateTime.parse nepřípustný den měsíce zkrátí na poslední den, rychlá cesta řádek předá pomalé.
+                "20220230T1345,1.0", "20230229T1345,1.0"
+        };
+        for (String line : lines) {
+            assertDecodedLikeCommonsCsv(line);
+        }
+    }
+
+    @Test
+    void decodesRandomValuesExactly() throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            double value = (random.nextDouble() - 0.1) * Math.pow(10, random.nextInt(8));
+            String text = switch (i % 3) {
+                case 0 -> Double.toString(value);
+                case 1 -> String.format(Locale.ROOT, "%.2f", value);
+                default -> String.format(Locale.ROOT, "%." + random.nextInt(10) + "f", value);
+            };
+            assertDecodedLikeCommonsCsv("20100305T1015," + text);
+        }
+    }
+
+    @Test
+    void rejectsMalformedRowsLikeCommonsCsv() {
+        String[] lines = {"20221315T1345,1.0", "20220232T1345,1.0", "2022061T1345,1.0", "20220615T1345,abc", "20220615T1345"};
+        for (String line : lines) {
+            assertFalse(decode(line), line);
+            assertThrows(RuntimeException.class, () -> decoder.decodeSlow(line), line);
+        }
+    }
+
+    private void assertDecodedLikeCommonsCsv(String line) throws IOException {
+        if (!decode(line)) {
+            decoder.decodeSlow(line);
+        }
+        try (CSVParser csvParser = CSVParser.parse(line, CSVFormat.DEFAULT)) {
+            CSVRecord csvRecord = csvParser.iterator().next();
+            String valueStr = csvRecord.get(1).isEmpty() ? "0" : csvRecord.get(1);
+            LocalDateTime timestamp = LocalDateTime.parse(csvRecord.get(0), formatter);
+            assertEquals(timestamp.getYear(), decoder.getYear(), line);
+            assertEquals(timestamp.getMonthValue(), decoder.getMonth(), line);
+            assertEquals(timestamp.getDayOfMonth(), decoder.getDayOfMonth(), line);
+            assertEquals(timestamp.getHour(), decoder.getHour(), line);
+            assertEquals(timestamp.getMinute(), decoder.getMinute(), line);
+            // Porovnání bitů, rozliší i -0.0 od 0.0.
+            assertEquals(Double.doubleToRawLongBits(Double.parseDouble(valueStr)), Double.doubleToRawLongBits(decoder.getValue()), line);
+        }
+    }
+
+    private boolean decode(String line) {
+        byte[] bytes = ("x" + line + "\n").getBytes(StandardCharsets.UTF_8);
+        // Řádek uprostřed bufferu, jako při čtení souboru.
+        return decoder.decode(ByteBuffer.wrap(bytes), 1, bytes.length - 1);
+    }
+}
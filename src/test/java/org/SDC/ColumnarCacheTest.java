@@ -0,0 +1,76 @@
+package org.SDC;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ColumnarCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsTheSameRowsAsTheCsvFileInAnyWindowSize() throws IOException {
+        Path file = TestData.write(directory, "export.csv", YearMonth.of(2019, 11), 5, 60);
+        int fromIndex = CalendarMath.monthIndex(2019, 12);
+        int toIndex = CalendarMath.monthIndex(2020, 2);
+        List<String> expected = sequentialRows(file, fromIndex, toIndex);
+        for (int windowRows : new int[]{ColumnarCache.MAP_WINDOW_ROWS, 1000, 7, 1}) {
+            assertEquals(expected, cachedRows(new ColumnarCache(file.toString(), windowRows), fromIndex, toIndex), "okno " + windowRows);
+        }
+    }
+
+    @Test
+    void rebuildsWhenTheModificationTimeChanges() throws IOException {
+        Path file = TestData.write(directory, "export.csv", "20200101T0000,1.25\n20200101T0100,2.50\n");
+        ColumnarCache cache = new ColumnarCache(file.toString());
+        assertEquals(List.of("2020-1-1 0 1.25", "2020-1-1 60 2.5"), cachedRows(cache, Integer.MIN_VALUE, Integer.MAX_VALUE));
+
+        // Stejná velikost souboru, jiný obsah a čas změny.
+        FileTime modified = Files.getLastModifiedTime(file);
+        TestData.write(directory, "export.csv", "20200101T0000,9.75\n20200101T0100,2.50\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 2000));
+        assertEquals(List.of("2020-1-1 0 9.75", "2020-1-1 60 2.5"), cachedRows(cache, Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void rebuildsWhenTheSizeChanges() throws IOException {
+        Path file = TestData.write(directory, "export.csv", "20200101T0000,1.25\n");
+        ColumnarCache cache = new ColumnarCache(file.toString());
+        assertEquals(1, cachedRows(cache, Integer.MIN_VALUE, Integer.MAX_VALUE).size());
+        FileTime modified = Files.getLastModifiedTime(file);
+
+        // Připsaný řádek se stejným časem změny, jako když se soubor změní během jedné sekundy.
+        Files.writeString(file, "20200101T0100,2.50\n", StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(file, modified);
+        assertEquals(List.of("2020-1-1 0 1.25", "2020-1-1 60 2.5"), cachedRows(cache, Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    private static List<String> sequentialRows(Path file, int fromIndex, int toIndex) throws IOException {
+        List<String> rows = new ArrayList<>();
+        new SequentialCSVReader().read(file.toString(), CSVReaderService.HEADER_LINES, line -> {
+        }, fromIndex, toIndex, collector(rows));
+        return rows;
+    }
+
+    private static List<String> cachedRows(ColumnarCache cache, int fromIndex, int toIndex) throws IOException {
+        List<String> rows = new ArrayList<>();
+        cache.read(CSVReaderService.HEADER_LINES, line -> {
+        }, fromIndex, toIndex, collector(rows));
+        return rows;
+    }
+
+    private static RowHandler collector(List<String> rows) {
+        return (year, month, dayOfMonth, minuteOfDay, value) -> rows.add(year + "-" + month + "-" + dayOfMonth + " " + minuteOfDay + " " + value);
+    }
+}
@@ -0,0 +1,83 @@
+package org.SDC;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataFileInfoTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty("sdc.lenient");
+    }
+
+    @Test
+    void readsTheHeaderAndTheBoundaryRowsOfAFileShorterThanTheTail() throws IOException {
+        // Celý soubor je kratší než čtený konec, prázdné řádky na konci se vynechají.
+        Path file = TestData.write(directory, "export.csv", "20200131T2300,1.5\n20200201T0000,\n20200301T0100,2.0\r\n\n");
+        assertTrue(Files.size(file) < 4096);
+        DataFileInfo info = DataFileInfo.read(file, CSVReaderService.HEADER_LINES);
+        assertEquals("Basilej", info.station());
+        assertEquals("47.54694", info.header().get("lat"));
+        assertEquals(20200131, info.firstDate());
+        assertEquals(20200301, info.lastDate());
+    }
+
+    @Test
+    void readsTheLastRowFromTheEndOfALargeFile() throws IOException {
+        Path file = TestData.write(directory, "export.csv", YearMonth.of(2019, 11), 3, 15);
+        assertTrue(Files.size(file) > 4096);
+        DataFileInfo info = DataFileInfo.read(file, CSVReaderService.HEADER_LINES);
+        assertEquals(20191101, info.firstDate());
+        assertEquals(20200131, info.lastDate());
+    }
+
+    @Test
+    void overlapsThePeriodsBetweenTheMonthsOfTheFirstAndTheLastRow() throws IOException {
+        DataFileInfo info = DataFileInfo.read(TestData.write(directory, "export.csv", "20200131T2300,1.5\n20200301T0100,2.0\n"),
+                CSVReaderService.HEADER_LINES);
+        assertTrue(info.overlaps(CalendarMath.monthIndex(2019, 1), CalendarMath.monthIndex(2020, 1)));
+        assertTrue(info.overlaps(CalendarMath.monthIndex(2020, 2), CalendarMath.monthIndex(2020, 2)));
+        assertTrue(info.overlaps(CalendarMath.monthIndex(2020, 3), CalendarMath.monthIndex(2021, 1)));
+        assertFalse(info.overlaps(CalendarMath.monthIndex(2019, 1), CalendarMath.monthIndex(2019, 12)));
+        assertFalse(info.overlaps(CalendarMath.monthIndex(2020, 4), CalendarMath.monthIndex(2021, 1)));
+    }
+
+    @Test
+    void fileWithoutRowsOverlapsNoPeriod() throws IOException {
+        DataFileInfo info = DataFileInfo.read(TestData.write(directory, "export.csv", ""), CSVReaderService.HEADER_LINES);
+        assertFalse(info.hasRows());
+        assertFalse(info.overlaps(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void takesAMalformedBoundaryRowAsUnknownInTheLenientIngest() throws IOException {
+        Path file = TestData.write(directory, "export.csv", "20200131T2300,1.5\n20200201T0000,2.0\n2020xx01T0100,1.0\n");
+        assertThrows(DateTimeParseException.class, () -> DataFileInfo.read(file, CSVReaderService.HEADER_LINES));
+
+        System.setProperty("sdc.lenient", "true");
+        DataFileInfo info = DataFileInfo.read(file, CSVReaderService.HEADER_LINES);
+        assertEquals(20200131, info.firstDate());
+        // Soubor se může překrývat i s obdobím po posledním platném řádku.
+        assertTrue(info.overlaps(CalendarMath.monthIndex(2024, 1), CalendarMath.monthIndex(2024, 12)));
+        assertFalse(info.overlaps(CalendarMath.monthIndex(2019, 1), CalendarMath.monthIndex(2019, 12)));
+
+        Path startsMalformed = TestData.write(directory, "first.csv", "x\n20200201T0000,2.0\n");
+        assertTrue(DataFileInfo.read(startsMalformed, CSVReaderService.HEADER_LINES)
+                .overlaps(CalendarMath.monthIndex(2019, 1), CalendarMath.monthIndex(2019, 12)));
+    }
+}
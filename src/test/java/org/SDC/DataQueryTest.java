@@ -0,0 +1,43 @@
+package org.SDC;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DataQueryTest {
+
+    @Test
+    void parsesThePeriodAndTheOptionalDay() {
+        assertEquals(new DataQuery(YearMonth.of(2010, 1), YearMonth.of(2010, 12), 3), DataQuery.parse("201001-201012/3"));
+        assertEquals(new DataQuery(YearMonth.of(2010, 5), YearMonth.of(2010, 5), 0), DataQuery.parse(" 201005-201005 "));
+        assertEquals(new DataQuery(YearMonth.of(2009, 12), YearMonth.of(2011, 2), 7), DataQuery.parse("200912-201102/7"));
+    }
+
+    @Test
+    void writesTheQueryInTheParsedForm() {
+        for (String text : new String[]{"201001-201012/3", "201005-201005"}) {
+            assertEquals(text, DataQuery.parse(text).toString());
+        }
+    }
+
+    @Test
+    void rejectsInvalidQueries() {
+        String[] invalid = {
+                "", "201001", "201001-", "201001-201012-201112", "2010-201012", "20100-201012", "201001-2010120",
+                "201013-201101", "abcdef-201012", "201012-201001",
+                "201001-201012/", "201001-201012/x", "201001-201012/0", "201001-201012/8", "201001-201012/-1"};
+        for (String text : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> DataQuery.parse(text), text);
+        }
+    }
+
+    @Test
+    void comparesMonthsByIndex() {
+        DataQuery query = DataQuery.parse("200912-201001");
+        assertEquals(query.fromIndex() + 1, query.toIndex());
+        assertEquals(CalendarMath.monthIndex(2009, 12), query.fromIndex());
+    }
+}
@@ -0,0 +1,79 @@
+package org.SDC;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DaySeriesTest {
+
+    @Test
+    void sumsTheRowsOfEveryDayBeyondTheInitialCapacity() {
+        // Tři roky dní, víc než počáteční velikost polí.
+        String rows = TestData.rows(YearMonth.of(2019, 1), 36, 60, 11);
+        DaySeries series = new DaySeries();
+        QueryAccumulator rowByRow = new DataProcessor().newAccumulator(DataQuery.parse("201901-202112/3"));
+        for (String line : rows.split("\n")) {
+            int year = Integer.parseInt(line.substring(0, 4));
+            int month = Integer.parseInt(line.substring(4, 6));
+            int dayOfMonth = Integer.parseInt(line.substring(6, 8));
+            String value = line.substring(line.indexOf(',') + 1);
+            double parsed = value.isEmpty() ? 0 : Double.parseDouble(value);
+            series.handle(year, month, dayOfMonth, 0, parsed);
+            rowByRow.processData(year, month, dayOfMonth, parsed);
+        }
+        assertEquals(1096, series.size());
+
+        QueryAccumulator byDay = new DataProcessor().newAccumulator(DataQuery.parse("201901-202112/3"));
+        series.forEachDay(byDay::processDay);
+        assertEquals(rowByRow.toResult(), byDay.toResult());
+    }
+
+    @Test
+    void mergesSeriesOfSeveralFilesByDate() {
+        DaySeries first = new DaySeries();
+        DaySeries second = new DaySeries();
+        first.handle(2020, 1, 1, 0, 1.0);
+        first.handle(2020, 1, 2, 0, 2.0);
+        second.handle(2020, 1, 1, 60, 4.0);
+        second.handle(2020, 1, 3, 0, 8.0);
+        List<String> days = new ArrayList<>();
+        DaySeries.merge(List.of(first, second)).forEachDay((year, month, dayOfMonth, total, rowCount) ->
+                days.add(year + "-" + month + "-" + dayOfMonth + " " + total.sum() + " " + rowCount));
+        assertEquals(List.of("2020-1-1 5.0 2", "2020-1-2 2.0 1", "2020-1-3 8.0 1"), days);
+    }
+
+    @Test
+    void readsBackTheWrittenDays() throws IOException {
+        DaySeries series = new DaySeries();
+        for (String line : TestData.rows(YearMonth.of(2020, 1), 24, 60, 5).split("\n")) {
+            String value = line.substring(line.indexOf(',') + 1);
+            series.handle(Integer.parseInt(line.substring(0, 4)), Integer.parseInt(line.substring(4, 6)),
+                    Integer.parseInt(line.substring(6, 8)), 0, value.isEmpty() ? 0 : Double.parseDouble(value));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        series.write(new DataOutputStream(bytes));
+        DaySeries read = DaySeries.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(series.size(), read.size());
+        assertEquals(days(series), days(read));
+        // Načtená řada se dál zvětšuje jako nová.
+        read.handle(2030, 1, 1, 0, 1.0);
+        assertEquals(series.size() + 1, read.size());
+    }
+
+    private static List<String> days(DaySeries series) {
+        List<String> days = new ArrayList<>();
+        series.forEachDay((year, month, dayOfMonth, total, rowCount) ->
+                days.add(year + "-" + month + "-" + dayOfMonth + " " + total.sum() + " " + rowCount));
+        return days;
+    }
+}
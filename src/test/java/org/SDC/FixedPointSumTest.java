@@ -0,0 +1,108 @@
+package org.SDC;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FixedPointSumTest {
+
+    @Test
+    void shuffledPartitionsGiveTheSameBitsAsTheSequentialSum() {
+        Random random = new Random(42);
+        List<Double> values = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            // Naměřené hodnoty s dvěma desetinnými místy i hodnoty velmi rozdílných řádů a znamének.
+            values.add(i % 3 == 0
+                    ? Math.round(random.nextDouble() * 120_000) / 100.0
+                    : (random.nextBoolean() ? 1 : -1) * random.nextDouble() * Math.pow(10, random.nextInt(30) - 15));
+        }
+        FixedPointSum sequential = new FixedPointSum();
+        for (double value : values) {
+            sequential.add(value);
+        }
+
+        for (int round = 0; round < 5; round++) {
+            List<Double> shuffled = new ArrayList<>(values);
+            Collections.shuffle(shuffled, random);
+            int partitionCount = 1 + random.nextInt(16);
+            List<FixedPointSum> partitions = new ArrayList<>();
+            long[] arrayPartitions = new long[partitionCount * FixedPointSum.SLOTS];
+            for (int p = 0; p < partitionCount; p++) {
+                partitions.add(new FixedPointSum());
+            }
+            for (double value : shuffled) {
+                int partition = random.nextInt(partitionCount);
+                partitions.get(partition).add(value);
+                FixedPointSum.add(arrayPartitions, partition, value);
+            }
+            // Části se slučují v náhodném pořadí.
+            Collections.shuffle(partitions, random);
+            FixedPointSum merged = new FixedPointSum();
+            for (FixedPointSum partition : partitions) {
+                merged.add(partition);
+            }
+            long[] arrayMerged = new long[FixedPointSum.SLOTS];
+            for (int p = partitionCount - 1; p >= 0; p--) {
+                FixedPointSum.add(arrayMerged, 0, arrayPartitions, p);
+            }
+            assertEquals(Double.doubleToRawLongBits(sequential.sum()), Double.doubleToRawLongBits(merged.sum()), "kolo " + round);
+            assertEquals(Double.doubleToRawLongBits(sequential.sum()), Double.doubleToRawLongBits(FixedPointSum.value(arrayMerged, 0)),
+                    "kolo " + round);
+        }
+    }
+
+    @Test
+    void sumsValuesOnTheGridExactly() {
+        Random random = new Random(7);
+        FixedPointSum sum = new FixedPointSum();
+        BigDecimal exact = BigDecimal.ZERO;
+        for (int i = 0; i < 100_000; i++) {
+            // Násobky 2^-40 do 2^42: sčítají se beze ztráty, výsledek je správně zaokrouhlený přesný součet.
+            double value = Math.scalb((double) (random.nextLong() >> (10 + random.nextInt(54))), -40 + random.nextInt(30));
+            sum.add(value);
+            exact = exact.add(new BigDecimal(value));
+            assertEquals(exact.doubleValue(), sum.sum(), "hodnota " + i);
+        }
+    }
+
+    @Test
+    void keepsValuesThatCancelOut() {
+        FixedPointSum sum = new FixedPointSum();
+        sum.add(1e15);
+        sum.add(0.1);
+        sum.add(-1e15);
+        assertEquals(0.1, sum.sum(), 1e-18);
+        sum.reset();
+        sum.add(-0.25);
+        sum.add(-0.5);
+        assertEquals(-0.75, sum.sum());
+        sum.reset();
+        assertEquals(0.0, sum.sum());
+    }
+
+    @Test
+    void propagatesInfiniteAndNaNValues() {
+        FixedPointSum sum = new FixedPointSum();
+        sum.add(1.5);
+        sum.add(Double.POSITIVE_INFINITY);
+        assertEquals(Double.POSITIVE_INFINITY, sum.sum());
+        sum.add(Double.NEGATIVE_INFINITY);
+        assertEquals(Double.NaN, sum.sum());
+    }
+
+    @Test
+    void rejectsValuesAndSumsOutOfRange() {
+        FixedPointSum sum = new FixedPointSum();
+        assertThrows(ArithmeticException.class, () -> sum.add(0x1p63));
+        sum.add(0x1p62);
+        sum.add(0x1p62 - 1024);
+        assertThrows(ArithmeticException.class, () -> sum.add(1024.0));
+    }
+}
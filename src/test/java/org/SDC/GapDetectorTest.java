@@ -0,0 +1,68 @@
+package org.SDC;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GapDetectorTest {
+
+    private static final RowHandler NONE = (year, month, dayOfMonth, minuteOfDay, value) -> {
+    };
+
+    @Test
+    void infersTheIntervalOfTheRows() {
+        GapDetector detector = new GapDetector(NONE, 0);
+        assertEquals(0, detector.intervalMinutes());
+        rows(detector, 2020, 1, 1, 0, 24 * 60, 15);
+        assertEquals(15, detector.intervalMinutes());
+        assertEquals(List.of(), detector.gaps());
+    }
+
+    @Test
+    void ignoresARowOffTheGridWhenInferringTheInterval() {
+        GapDetector detector = new GapDetector(NONE, 0);
+        rows(detector, 2020, 1, 1, 0, 12 * 60, 15);
+        // Řádek v 12:07 mimo mřížku a chybějící řádek ve 12:15.
+        detector.handle(2020, 1, 1, 12 * 60 + 7, 1.0);
+        rows(detector, 2020, 1, 1, 12 * 60 + 30, 24 * 60, 15);
+        assertEquals(15, detector.intervalMinutes());
+        assertEquals(List.of(new GapDetector.MonthGaps(YearMonth.of(2020, 1), 96, 1, LocalDateTime.of(2020, 1, 1, 12, 15), 1)),
+                detector.gaps());
+    }
+
+    @Test
+    void reportsTheLongestGapOfEveryMonthAcrossTheMonthBoundary() {
+        GapDetector detector = new GapDetector(NONE, 60);
+        // Chybí 31. 1. od 20:00 a 1. 2. do 2:00 včetně.
+        rows(detector, 2020, 1, 30, 0, 24 * 60, 60);
+        rows(detector, 2020, 1, 31, 0, 20 * 60, 60);
+        rows(detector, 2020, 2, 1, 3 * 60, 24 * 60, 60);
+        // Kratší mezera v únoru se nestane nejdelší.
+        rows(detector, 2020, 2, 2, 0, 10 * 60, 60);
+        rows(detector, 2020, 2, 2, 11 * 60, 24 * 60, 60);
+        assertEquals(List.of(
+                new GapDetector.MonthGaps(YearMonth.of(2020, 1), 48, 4, LocalDateTime.of(2020, 1, 31, 20, 0), 4),
+                new GapDetector.MonthGaps(YearMonth.of(2020, 2), 48, 4, LocalDateTime.of(2020, 2, 1, 0, 0), 3)), detector.gaps());
+    }
+
+    @Test
+    void passesEveryRowOn() {
+        double[] total = new double[1];
+        GapDetector detector = new GapDetector((year, month, dayOfMonth, minuteOfDay, value) -> total[0] += value, 0);
+        rows(detector, 2020, 1, 1, 0, 60, 15);
+        assertEquals(4.0, total[0]);
+    }
+
+    /**
+     * Passes rows with the value 1 at the given interval between two minutes of a day.
+     */
+    private static void rows(GapDetector detector, int year, int month, int dayOfMonth, int fromMinute, int toMinute, int interval) {
+        for (int minute = fromMinute; minute < toMinute; minute += interval) {
+            detector.handle(year, month, dayOfMonth, minute, 1.0);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.SDC;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InMemoryDatasetTest {
+
+    private static final List<String> QUERIES = List.of("201901-202012/3", "201903-201907/6", "202002-202002/1", "201811-201902");
+    // Přesnost, kterou dokumentace slibuje: asi 7 platných číslic.
+    private static final double RELATIVE_TOLERANCE = 1e-6;
+
+    @TempDir
+    static Path directory;
+
+    private static Path file;
+    private static Path exactFile;
+
+    @BeforeAll
+    static void writeFiles() throws IOException {
+        String rows = TestData.rows(YearMonth.of(2019, 1), 24, 15, 9);
+        file = TestData.write(directory, "export.csv", rows);
+        // Násobky 1/4 se do floatu vejdou přesně.
+        exactFile = TestData.write(directory, "exact.csv", quarters(rows));
+    }
+
+    @Test
+    void sumsTheDaysInParallelWithTheSameResultsAsSequentially() throws IOException {
+        InMemoryDataset dataset = InMemoryDataset.load(exactFile.toString(), IngestMode.FAST);
+        for (String text : QUERIES) {
+            DataQuery query = DataQuery.parse(text);
+            ProcessingResult sequential = byDays(dataset, query, Long.MAX_VALUE);
+            assertEquals(sequential, byDays(dataset, query, 0), text);
+            assertEquals(sequential, new DataProcessor().process(query, dataset), text);
+            // Hodnoty přesně vyjádřitelné floatem: stejné výsledky jako čtení souboru.
+            assertEquals(new CSVReaderService(new DataProcessor()).process(exactFile.toString(), query), sequential, text);
+        }
+    }
+
+    @Test
+    void matchesReadingTheFileToTheDocumentedPrecision() throws IOException {
+        InMemoryDataset dataset = InMemoryDataset.load(file.toString(), IngestMode.FAST);
+        boolean anyDifference = false;
+        for (String text : QUERIES) {
+            DataQuery query = DataQuery.parse(text);
+            ProcessingResult expected = new CSVReaderService(new DataProcessor()).process(file.toString(), query);
+            ProcessingResult actual = new DataProcessor().process(query, dataset);
+            anyDifference |= !expected.equals(actual);
+            assertEquals(expected.months().size(), actual.months().size(), text);
+            for (int i = 0; i < expected.months().size(); i++) {
+                ProcessingResult.MonthResult month = expected.months().get(i);
+                assertClose(month.total(), actual.months().get(i).total(), text + " " + month);
+                assertClose(month.chosenDayAverage(), actual.months().get(i).chosenDayAverage(), text + " " + month);
+            }
+            assertEquals(expected.chosenDays().size(), actual.chosenDays().size(), text);
+            for (int i = 0; i < expected.chosenDays().size(); i++) {
+                assertClose(expected.chosenDays().get(i).total(), actual.chosenDays().get(i).total(), text + " " + expected.chosenDays().get(i));
+            }
+            assertClose(expected.seasonTotal(), actual.seasonTotal(), text);
+            assertClose(expected.chosenDaySeasonTotal(), actual.chosenDaySeasonTotal(), text);
+        }
+        // Hodnoty se dvěma desetinnými místy float přesně neuloží, výsledky se tedy opravdu liší.
+        assertTrue(anyDifference);
+    }
+
+    private static ProcessingResult byDays(InMemoryDataset dataset, DataQuery query, long parallelThreshold) {
+        QueryAccumulator accumulator = new DataProcessor().newAccumulator(query);
+        dataset.forEachDay(query.fromIndex(), query.toIndex(), accumulator::processDay, parallelThreshold);
+        return accumulator.toResult();
+    }
+
+    private static void assertClose(double expected, double actual, String message) {
+        if (Double.isNaN(expected)) {
+            assertEquals(expected, actual, message);
+        } else {
+            assertEquals(expected, actual, Math.abs(expected) * RELATIVE_TOLERANCE, message);
+        }
+    }
+
+    private static String quarters(String rows) {
+        StringBuilder exact = new StringBuilder();
+        for (String line : rows.split("\n")) {
+            int comma = line.indexOf(',');
+            String value = line.substring(comma + 1);
+            exact.append(line, 0, comma + 1);
+            if (!value.isEmpty()) {
+                exact.append(String.format(Locale.ROOT, "%.2f", Math.round(Double.parseDouble(value) * 4) / 4.0));
+            }
+            exact.append('\n');
+        }
+        return exact.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package org.SDC;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Evaluates the same queries over the same file with every ingest strategy.
+ */
+class IngestModeTest {
+
+    private static final List<String> QUERIES = List.of(
+            "200801-201212/3", "200903-201106/7", "201005-201005/1", "200501-200712/2", "201301-201512/4", "201211-201401/5");
+
+    @TempDir
+    static Path directory;
+
+    private static Path file;
+
+    @BeforeAll
+    static void writeFile() throws IOException {
+        // 5 let po 15 minutách, přes 3 MB, aby paralelní čtení soubor rozdělilo na více bloků.
+        file = TestData.write(directory, "export.csv", YearMonth.of(2008, 1), 60, 15);
+    }
+
+    @Test
+    void everyModeGivesTheSameResults() throws IOException {
+        for (String text : QUERIES) {
+            DataQuery query = DataQuery.parse(text);
+            ProcessingResult expected = process(IngestMode.COMMONS_CSV, query);
+            for (IngestMode mode : IngestMode.values()) {
+                assertEquals(expected, process(mode, query), mode + " " + query);
+            }
+        }
+    }
+
+    @Test
+    void parallelReaderGivesTheSameRowsWithAnyNumberOfWorkers() throws IOException {
+        DataQuery query = DataQuery.parse("200802-201211/2");
+        ProcessingResult expected = process(IngestMode.FAST, query);
+        for (int threads : new int[]{1, 2, 7}) {
+            ProcessingResult result = new DataProcessor().process(query, (fromIndex, toIndex, rowHandler) ->
+                    new ParallelCSVReader(threads).read(file.toString(), CSVReaderService.HEADER_LINES, line -> {
+                    }, fromIndex, toIndex, rowHandler));
+            assertEquals(expected, result, "vlákna " + threads);
+        }
+    }
+
+    @Test
+    void parallelDayTotalsGiveTheSameResultsWithAnyNumberOfWorkers() throws IOException {
+        // Bloky po 1 MB končí uprostřed dne, denní součty sousedních bloků se tedy slučují.
+        for (String text : QUERIES) {
+            DataQuery query = DataQuery.parse(text);
+            ProcessingResult expected = process(IngestMode.FAST, query);
+            for (int threads : new int[]{1, 2, 7}) {
+                QueryAccumulator accumulator = new DataProcessor().newAccumulator(query);
+                new ParallelCSVReader(threads).readDays(file.toString(), CSVReaderService.HEADER_LINES, line -> {
+                }, query.fromIndex(), query.toIndex(), accumulator::processDay);
+                assertEquals(expected, accumulator.toResult(), query + ", vlákna " + threads);
+            }
+        }
+    }
+
+    private static ProcessingResult process(IngestMode mode, DataQuery query) throws IOException {
+        return new CSVReaderService(new DataProcessor(), mode).process(file.toString(), query);
+    }
+}
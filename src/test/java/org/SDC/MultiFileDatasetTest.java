@@ -0,0 +1,115 @@
+package org.SDC;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultiFileDatasetTest {
+
+    private static final DataQuery QUERY = DataQuery.parse("201912-202002/3");
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty("sdc.lenient");
+    }
+
+    @Test
+    void opensAGlobADirectoryOrASingleFile() throws IOException {
+        Files.createDirectories(directory.resolve("basel"));
+        Files.createDirectories(directory.resolve("bern"));
+        Path basel2019 = TestData.write(directory.resolve("basel"), "basel-2019.csv", "20190101T0000,1.0\n");
+        Path basel2020 = TestData.write(directory.resolve("basel"), "basel-2020.csv", "20200101T0000,1.0\n");
+        Path bern = TestData.write(directory.resolve("bern"), "bern-2020.csv", "20200101T0000,1.0\n");
+        Files.writeString(directory.resolve("basel").resolve("notes.txt"), "poznámky");
+
+        assertEquals(List.of(basel2019, basel2020, bern), MultiFileDataset.open(directory + "/*/*-20*.csv").files());
+        assertEquals(List.of(basel2020, bern), MultiFileDataset.open(directory + "/**-2020.csv").files());
+        assertEquals(List.of(basel2019, basel2020), MultiFileDataset.open(directory.resolve("basel").toString()).files());
+        assertEquals(List.of(bern), MultiFileDataset.open(bern.toString()).files());
+        assertThrows(NoSuchFileException.class, () -> MultiFileDataset.open(directory + "/*.json"));
+    }
+
+    @Test
+    void mergesTheFilesOfEveryStationAndAllStations() throws IOException {
+        // Basilej ve dvou souborech rozdělených uprostřed dne 1. 1. 2020, Bern v jednom souboru.
+        List<String> basel = lines(TestData.rows(YearMonth.of(2019, 11), 4, 60, 1));
+        int split = 0;
+        while (!basel.get(split).startsWith("20200101T1200")) {
+            split++;
+        }
+        List<String> bern = lines(TestData.rows(YearMonth.of(2019, 12), 3, 30, 2));
+        write("basel-1.csv", "Basilej", basel.subList(0, split));
+        write("basel-2.csv", "Basilej", basel.subList(split, basel.size()));
+        write("bern.csv", "Bern", bern);
+        // Soubory mimo období: jeden končí před ním, druhý začíná až po něm.
+        write("basel-2015.csv", "Basilej", lines(TestData.rows(YearMonth.of(2015, 1), 2, 60, 3)));
+        write("basel-2021.csv", "Basilej", lines(TestData.rows(YearMonth.of(2021, 1), 1, 60, 4)));
+
+        DatasetResult result = MultiFileDataset.open(directory.toString()).process(new DataProcessor(), QUERY);
+        assertEquals(5, result.fileCount());
+        assertEquals(2, result.skippedFiles());
+        assertEquals(List.of("Basilej", "Bern"), new ArrayList<>(result.stations().keySet()));
+        assertEquals(expected("all-basel.csv", basel), result.stations().get("Basilej"));
+        assertEquals(expected("all-bern.csv", bern), result.stations().get("Bern"));
+
+        // Všechny stanice dohromady odpovídají řádkům obou stanic seřazeným podle času.
+        List<String> all = new ArrayList<>(basel);
+        all.addAll(bern);
+        all.sort(null);
+        assertEquals(expected("all.csv", all), result.combined());
+        assertTrue(result.combined().seasonTotal() > result.stations().get("Basilej").seasonTotal());
+    }
+
+    @Test
+    void quarantinesAMalformedLastRowInTheLenientIngest() throws IOException {
+        List<String> rows = lines(TestData.rows(YearMonth.of(2019, 12), 2, 60, 5));
+        List<String> malformed = new ArrayList<>(rows);
+        malformed.add("2020xx01T0100,1.0");
+        Path file = write("basel.csv", "Basilej", malformed);
+        assertThrows(DateTimeParseException.class, () -> MultiFileDataset.open(file.toString()).process(new DataProcessor(), QUERY));
+
+        System.setProperty("sdc.lenient", "true");
+        DatasetResult result = MultiFileDataset.open(file.toString()).process(new DataProcessor(), QUERY);
+        assertEquals(0, result.skippedFiles());
+        assertEquals(expected("valid.csv", rows), result.combined());
+        List<String> quarantined = Files.readAllLines(Path.of(file + ".quarantine"));
+        assertEquals(1, quarantined.size());
+        assertTrue(quarantined.get(0).startsWith((CSVReaderService.HEADER_LINES + malformed.size()) + "\t2020xx01T0100,1.0\t"),
+                quarantined.get(0));
+    }
+
+    private Path write(String name, String location, List<String> rows) throws IOException {
+        Path file = directory.resolve(name);
+        Files.writeString(file, TestData.HEADER.replace("location,Basilej", "location," + location)
+                + String.join("\n", rows) + "\n", StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private ProcessingResult expected(String name, List<String> rows) throws IOException {
+        Path reference = Files.createDirectories(directory.resolve("reference"));
+        Path file = TestData.write(reference, name, String.join("\n", rows) + "\n");
+        return new CSVReaderService(new DataProcessor()).process(file.toString(), QUERY);
+    }
+
+    private static List<String> lines(String rows) {
+        return Arrays.asList(rows.split("\n"));
+    }
+}
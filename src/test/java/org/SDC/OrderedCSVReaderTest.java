@@ -0,0 +1,81 @@
+package org.SDC;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderedCSVReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsExactlyTheRowsOfEveryRange() throws IOException {
+        Path file = TestData.write(directory, "export.csv", YearMonth.of(2018, 1), 36, 60);
+        assertSameRowsForAllRanges(file, YearMonth.of(2017, 11), YearMonth.of(2021, 2), 3);
+    }
+
+    @Test
+    void readsExactlyTheRowsOfEveryRangeWithRowsLongerThanTheProbe() throws IOException {
+        // Každý den jeden řádek delší než sonda: sonda uprostřed něj nenajde celý řádek.
+        StringBuilder rows = new StringBuilder();
+        String longValue = "1." + "0".repeat(6000) + "1";
+        for (String line : TestData.rows(YearMonth.of(2019, 1), 24, 60, 3).split("\n")) {
+            rows.append(line.substring(0, 14));
+            rows.append(line.startsWith("T12", 8) ? longValue : line.substring(14));
+            // Konce řádků i prázdné řádky jako v souborech z Windows.
+            rows.append(line.startsWith("T0000", 8) ? "\r\n\r\n" : "\n");
+        }
+        Path file = TestData.write(directory, "long.csv", rows.toString());
+        assertSameRowsForAllRanges(file, YearMonth.of(2018, 12), YearMonth.of(2021, 1), 2);
+    }
+
+    @Test
+    void reportsRowsOutOfOrderAfterSkippingRows() throws IOException {
+        String rows = TestData.rows(YearMonth.of(2018, 1), 24, 60, 5) + "20180105T0000,1.0\n" + TestData.rows(YearMonth.of(2020, 1), 1, 60, 5);
+        Path file = TestData.write(directory, "unordered.csv", rows);
+        assertThrows(UnorderedDataException.class, () -> ordered(file, CalendarMath.monthIndex(2019, 12), CalendarMath.monthIndex(2020, 1)));
+    }
+
+    private static void assertSameRowsForAllRanges(Path file, YearMonth first, YearMonth last, int step) throws IOException {
+        List<String> all = sequential(file, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        for (YearMonth from = first; !from.isAfter(last); from = from.plusMonths(step)) {
+            for (YearMonth to = from; !to.isAfter(last); to = to.plusMonths(5)) {
+                int fromIndex = CalendarMath.monthIndex(from.getYear(), from.getMonthValue());
+                int toIndex = CalendarMath.monthIndex(to.getYear(), to.getMonthValue());
+                List<String> expected = all.stream().filter(row -> {
+                    int monthIndex = Integer.parseInt(row.substring(0, row.indexOf(' ')));
+                    return monthIndex >= fromIndex && monthIndex <= toIndex;
+                }).toList();
+                assertEquals(expected, ordered(file, fromIndex, toIndex), from + "-" + to);
+            }
+        }
+    }
+
+    private static List<String> sequential(Path file, int fromIndex, int toIndex) throws IOException {
+        List<String> rows = new ArrayList<>();
+        new SequentialCSVReader().read(file.toString(), CSVReaderService.HEADER_LINES, line -> {
+        }, fromIndex, toIndex, collector(rows));
+        return rows;
+    }
+
+    private static List<String> ordered(Path file, int fromIndex, int toIndex) throws IOException {
+        List<String> rows = new ArrayList<>();
+        new OrderedCSVReader().read(file.toString(), CSVReaderService.HEADER_LINES, line -> {
+        }, fromIndex, toIndex, collector(rows));
+        return rows;
+    }
+
+    private static RowHandler collector(List<String> rows) {
+        return (year, month, dayOfMonth, minuteOfDay, value) ->
+                rows.add(CalendarMath.monthIndex(year, month) + " " + dayOfMonth + " " + minuteOfDay + " " + value);
+    }
+}
@@ -0,0 +1,101 @@
+package org.SDC;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Repeats queries over a file that turns out not to be sorted only after rows have been skipped.
+ */
+class OrderedFallbackTest {
+
+    private static final List<DataQuery> QUERIES = List.of(DataQuery.parse("201912-202001"), DataQuery.parse("201912-202001/2"));
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private PrintStream originalOut;
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Řádek z roku 2018 za koncem roku 2019: zjistí se až po přeskočení začátku souboru.
+        file = TestData.write(directory, "unordered.csv", TestData.rows(YearMonth.of(2018, 1), 24, 60, 5)
+                + "20180105T0000,1.0\n" + TestData.rows(YearMonth.of(2020, 1), 2, 60, 5));
+        originalOut = System.out;
+        System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(originalOut);
+        System.clearProperty("sdc.export");
+        System.clearProperty("sdc.exportDir");
+    }
+
+    @Test
+    void batchExportsOnlyTheResultsOfTheFullRead() throws IOException {
+        List<String> ordered = batchExports(IngestMode.ORDERED, directory.resolve("ordered"));
+        assertEquals(1, headerCount());
+        assertEquals(batchExports(IngestMode.FAST, directory.resolve("fast")), ordered);
+    }
+
+    @Test
+    void queryPassesOnlyTheResultsOfTheFullRead() throws IOException {
+        for (DataQuery query : QUERIES) {
+            out.reset();
+            List<Object> ordered = new ArrayList<>();
+            ProcessingResult result = new CSVReaderService(new DataProcessor(), IngestMode.ORDERED).process(file.toString(), query, recorder(ordered));
+            assertEquals(1, headerCount());
+            List<Object> fast = new ArrayList<>();
+            assertEquals(new CSVReaderService(new DataProcessor(), IngestMode.FAST).process(file.toString(), query, recorder(fast)), result);
+            assertEquals(fast, ordered);
+        }
+    }
+
+    private List<String> batchExports(IngestMode mode, Path exportDirectory) throws IOException {
+        System.setProperty("sdc.export", "csv");
+        System.setProperty("sdc.exportDir", exportDirectory.toString());
+        new BatchRunner(mode).run(file.toString(), QUERIES);
+        List<String> lines = new ArrayList<>();
+        try (var files = Files.list(exportDirectory)) {
+            for (Path export : files.sorted().toList()) {
+                lines.add(export.getFileName().toString());
+                lines.addAll(Files.readAllLines(export));
+            }
+        }
+        return lines;
+    }
+
+    private long headerCount() {
+        return out.toString(StandardCharsets.UTF_8).lines().filter("location: Basilej"::equals).count();
+    }
+
+    private static ResultListener recorder(List<Object> events) {
+        return new ResultListener() {
+            @Override
+            public void monthCompleted(ProcessingResult.MonthResult month) {
+                events.add(month);
+            }
+
+            @Override
+            public void dayCompleted(ProcessingResult.DayResult day) {
+                events.add(day);
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package org.SDC;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuarantineTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void checksTheErrorRateOnlyOnceEnoughRowsHaveBeenRead() throws IOException {
+        Path file = directory.resolve("export.csv.quarantine");
+        try (Quarantine quarantine = new Quarantine(file, 0.01)) {
+            // 10 % chybných řádků, ale méně než MIN_ROWS_FOR_RATE řádků celkem: čtení pokračuje.
+            for (int i = 0; i < 90; i++) {
+                quarantine.reject(i + 1, "x", new IOException("chyba"), i * 9L);
+            }
+            assertEquals(90, quarantine.malformedRows());
+            // Další chybný řádek po dosažení MIN_ROWS_FOR_RATE řádků čtení přeruší.
+            MalformedDataException failure = assertThrows(MalformedDataException.class,
+                    () -> quarantine.reject(1000, "x", new IOException("chyba"), Quarantine.MIN_ROWS_FOR_RATE - 91));
+            assertTrue(failure.getMessage().contains(file.toString()), failure.getMessage());
+        }
+    }
+
+    @Test
+    void keepsReadingWhileTheErrorRateIsAllowed() throws IOException {
+        try (Quarantine quarantine = new Quarantine(directory.resolve("export.csv.quarantine"), 0.01)) {
+            quarantine.reject(5, "x", new IOException("chyba"), 0);
+            // Jeden chybný řádek z více než tisíce: 0,1 %.
+            quarantine.reject(2000, "y", new IOException("chyba"), 1998);
+            quarantine.finish(2500);
+            assertEquals(2, quarantine.malformedRows());
+        }
+    }
+
+    @Test
+    void checksTheErrorRateOfAShortFileAtTheEnd() throws IOException {
+        try (Quarantine quarantine = new Quarantine(directory.resolve("export.csv.quarantine"), 0.01)) {
+            quarantine.reject(11, "x", new IOException("chyba"), 0);
+            assertThrows(MalformedDataException.class, () -> quarantine.finish(50));
+        }
+    }
+
+    @Test
+    void deletesAQuarantineFileWithoutRowsOnClose() throws IOException {
+        Path file = directory.resolve("export.csv.quarantine");
+        // Soubor z dřívějšího čtení se nahradí.
+        Files.writeString(file, "11\tstarý řádek\tchyba\n");
+        try (Quarantine quarantine = new Quarantine(file, 0.01)) {
+            quarantine.finish(100);
+        }
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void recordsTheLineNumbersOfTheMalformedRows() throws IOException {
+        // Prázdný řádek se do čísel řádků počítá, stejně jako řádky hlavičky.
+        Path data = TestData.write(directory, "export.csv",
+                "20200101T0000,1.0\n20200101T01xx,2.0\n\n20200101T0200,4.0\n20200101T0300,abc\n");
+        for (int i = 0; i < 200; i++) {
+            Files.writeString(data, "20200102T0000,1.0\n", StandardOpenOption.APPEND);
+        }
+        Path file = directory.resolve("export.csv.quarantine");
+        double[] total = new double[1];
+        try (Quarantine quarantine = new Quarantine(file, 0.01)) {
+            new SequentialCSVReader().read(data.toString(), CSVReaderService.HEADER_LINES, line -> {
+            }, Integer.MIN_VALUE, Integer.MAX_VALUE, (year, month, dayOfMonth, minuteOfDay, value) -> total[0] += value, quarantine);
+        }
+        assertEquals(205.0, total[0]);
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("12\t20200101T01xx,2.0\t"), lines.get(0));
+        assertTrue(lines.get(1).startsWith("15\t20200101T0300,abc\t"), lines.get(1));
+    }
+}
@@ -0,0 +1,153 @@
+package org.SDC;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares `QueryAccumulator` with the original stateful `DataProcessor`, kept here as {@link Baseline}.
+ */
+class QueryAccumulatorTest {
+
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmm");
+
+    @Test
+    void matchesTheOriginalDataProcessor() {
+        String rows = TestData.rows(YearMonth.of(2019, 1), 26, 60, 7);
+        for (String text : List.of("201901-202102", "201901-202102/1", "201902-201905/3", "202002-202003/6", "201912-202001/7")) {
+            DataQuery query = DataQuery.parse(text);
+            QueryAccumulator accumulator = new DataProcessor().newAccumulator(query);
+            Baseline baseline = new Baseline();
+            for (String line : rows.split("\n")) {
+                String[] fields = line.split(",", -1);
+                LocalDateTime timestamp = LocalDateTime.parse(fields[0], formatter);
+                double value = fields[1].isEmpty() ? 0 : Double.parseDouble(fields[1]);
+                int monthIndex = CalendarMath.monthIndex(timestamp.getYear(), timestamp.getMonthValue());
+                if (monthIndex >= query.fromIndex() && monthIndex <= query.toIndex()) {
+                    accumulator.processData(timestamp, value);
+                    baseline.processData(timestamp, value, query.day(), query.to());
+                }
+            }
+            assertMatches(baseline, accumulator.toResult(), text);
+        }
+    }
+
+    private static void assertMatches(Baseline baseline, ProcessingResult result, String message) {
+        assertEquals(baseline.months.size(), result.months().size(), message);
+        for (int i = 0; i < baseline.months.size(); i++) {
+            ProcessingResult.MonthResult expected = baseline.months.get(i);
+            ProcessingResult.MonthResult actual = result.months().get(i);
+            assertEquals(expected.year(), actual.year(), message);
+            assertEquals(expected.month(), actual.month(), message);
+            // Původní výpočet sčítal přímo v double, výsledky se proto liší v posledních číslicích.
+            assertClose(expected.total(), actual.total(), message);
+            assertClose(expected.chosenDayAverage(), actual.chosenDayAverage(), message);
+        }
+        assertEquals(baseline.days.size(), result.chosenDays().size(), message);
+        for (int i = 0; i < baseline.days.size(); i++) {
+            ProcessingResult.DayResult expected = baseline.days.get(i);
+            ProcessingResult.DayResult actual = result.chosenDays().get(i);
+            assertEquals(List.of(expected.year(), expected.month(), expected.dayOfMonth(), expected.dayOfWeek()),
+                    List.of(actual.year(), actual.month(), actual.dayOfMonth(), actual.dayOfWeek()), message);
+            assertClose(expected.total(), actual.total(), message);
+        }
+        assertClose(baseline.allSeasonValue, result.seasonTotal(), message);
+        assertClose(baseline.allValuesOfChosenDayInSeason, result.chosenDaySeasonTotal(), message);
+    }
+
+    private static void assertClose(double expected, double actual, String message) {
+        if (Double.isNaN(expected)) {
+            assertEquals(expected, actual, message);
+        } else {
+            assertEquals(expected, actual, Math.abs(expected) * 1e-12, message);
+        }
+    }
+
+    /**
+     * The processing of the original `DataProcessor`, recording the logged values instead of logging them.
+     */
+    private static final class Baseline {
+
+        private final List<ProcessingResult.MonthResult> months = new ArrayList<>();
+        private final List<ProcessingResult.DayResult> days = new ArrayList<>();
+        private double allSeasonValue = 0;
+        private double oneMonthValue = 0;
+        private double daySum = 0;
+        private double allValuesOfChosenDayInOneMonth = 0;
+        private double allValuesOfChosenDayInSeason = 0;
+        private int numberOfChosenDaysInMonth = 0;
+        private LocalDateTime actualInformationAboutDateTime = null;
+
+        void processData(LocalDateTime timestamp, double value, Integer chosenDay, YearMonth theLastMonthYear) {
+            int toYear = theLastMonthYear.getYear();
+            Month toMonth = theLastMonthYear.getMonth();
+            Month month = timestamp.getMonth();
+            DayOfWeek chosenDayOfWeek = (chosenDay != null && chosenDay > 0) ? DayOfWeek.of(chosenDay) : null;
+            int dayOfMonth = timestamp.getDayOfMonth();
+
+            handleMonthChange(timestamp, month, chosenDayOfWeek, toYear, toMonth, chosenDay);
+
+            handleDayChange(dayOfMonth, toYear, toMonth, chosenDay);
+
+            if (!(timestamp.getMonth() == theLastMonthYear.getMonth() && timestamp.getYear() == theLastMonthYear.getYear())) {
+                allSeasonValue += value;
+                oneMonthValue += value;
+
+                if (chosenDayOfWeek != null && timestamp.getDayOfWeek().getValue() == chosenDay) {
+                    daySum += value;
+                    allValuesOfChosenDayInOneMonth += value;
+                    allValuesOfChosenDayInSeason += value;
+                    numberOfChosenDaysInMonth++;
+                }
+            }
+            actualInformationAboutDateTime = timestamp;
+        }
+
+        private void handleMonthChange(LocalDateTime timestamp, Month month, DayOfWeek chosenDayOfWeek, int toYear, Month toMonth, Integer chosenDay) {
+            if (actualInformationAboutDateTime != null && actualInformationAboutDateTime.getMonth() != month) {
+                if (chosenDayOfWeek != null && actualInformationAboutDateTime.getDayOfWeek().getValue() == chosenDay
+                        && !actualInformationAboutDateTime.toLocalDate().equals(timestamp.toLocalDate())) {
+                    if (!(actualInformationAboutDateTime.getYear() == toYear && actualInformationAboutDateTime.getMonth() == toMonth)) {
+                        logDailyResults();
+                    }
+                }
+                logMonthlyResults(chosenDayOfWeek);
+                oneMonthValue = 0;
+                allValuesOfChosenDayInOneMonth = 0;
+                numberOfChosenDaysInMonth = 0;
+            }
+        }
+
+        private void handleDayChange(int dayOfMonth, int toYear, Month toMonth, Integer chosenDay) {
+            if (actualInformationAboutDateTime != null && actualInformationAboutDateTime.getDayOfMonth() != dayOfMonth) {
+                boolean isLastDayOfMonth = actualInformationAboutDateTime.getMonth().length(actualInformationAboutDateTime.toLocalDate().isLeapYear())
+                        == actualInformationAboutDateTime.getDayOfMonth();
+                if (actualInformationAboutDateTime.getDayOfWeek().getValue() == chosenDay && !isLastDayOfMonth) {
+                    if (!(actualInformationAboutDateTime.getYear() == toYear && actualInformationAboutDateTime.getMonth() == toMonth)) {
+                        logDailyResults();
+                    }
+                }
+                daySum = 0;
+            }
+        }
+
+        private void logDailyResults() {
+            days.add(new ProcessingResult.DayResult(actualInformationAboutDateTime.getYear(), actualInformationAboutDateTime.getMonthValue(),
+                    actualInformationAboutDateTime.getDayOfMonth(), actualInformationAboutDateTime.getDayOfWeek().getValue(), daySum));
+        }
+
+        private void logMonthlyResults(DayOfWeek chosenDayOfWeek) {
+            double averageDayValue = chosenDayOfWeek != null ? allValuesOfChosenDayInOneMonth / numberOfChosenDaysInMonth : Double.NaN;
+            months.add(new ProcessingResult.MonthResult(actualInformationAboutDateTime.getYear(), actualInformationAboutDateTime.getMonthValue(),
+                    oneMonthValue, averageDayValue));
+        }
+    }
+}
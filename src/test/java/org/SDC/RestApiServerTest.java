@@ -0,0 +1,88 @@
+package org.SDC;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RestApiServerTest {
+
+    @TempDir
+    Path directory;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private RestApiServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        // 1. 1. 2020 je středa, v únoru žádná středa v datech není.
+        Path file = TestData.write(directory, "export.csv",
+                "20200101T0000,1.5\n20200101T0100,2.5\n20200102T0000,0.5\n20200203T0000,4.0\n20200301T0000,8.0\n");
+        server = new RestApiServer(InMemoryDataset.load(file.toString(), IngestMode.FAST));
+        server.start(0);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop();
+    }
+
+    @Test
+    void answersAValidQueryWithJson() throws Exception {
+        HttpResponse<String> response = get("from=202001&to=202003&day=3");
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json; charset=utf-8", response.headers().firstValue("Content-Type").orElse(null));
+        // Průměr zvolených dní v únoru není definovaný a zapíše se jako null.
+        assertEquals("{\"from\":\"202001\",\"to\":\"202003\",\"day\":3,\"months\":["
+                + "{\"year\":2020,\"month\":1,\"total\":4.5,\"chosenDayAverage\":2.0},"
+                + "{\"year\":2020,\"month\":2,\"total\":4.0,\"chosenDayAverage\":null}],"
+                + "\"days\":[{\"date\":\"2020-01-01\",\"total\":4.0}],"
+                + "\"seasonTotal\":8.5,\"chosenDaySeasonTotal\":4.0}", response.body());
+
+        assertEquals("{\"from\":\"202001\",\"to\":\"202002\",\"day\":null,\"months\":["
+                + "{\"year\":2020,\"month\":1,\"total\":4.5,\"chosenDayAverage\":null}],"
+                + "\"days\":[],\"seasonTotal\":4.5,\"chosenDaySeasonTotal\":0.0}", get("from=202001&to=202002").body());
+    }
+
+    @Test
+    void rejectsAMalformedQuery() throws Exception {
+        HttpResponse<String> missing = get("from=202001");
+        assertEquals(400, missing.statusCode());
+        assertEquals("{\"error\":\"Parametry 'from' a 'to' jsou povinné.\"}", missing.body());
+
+        assertEquals(400, get("from=202001&to=202003&day=9").statusCode());
+        assertEquals(400, get("from=202003&to=202001").statusCode());
+
+        // Uvozovky a řídicí znaky z dotazu se v chybové zprávě escapují.
+        HttpResponse<String> escaped = get("from=2020%220&to=2020%0A3");
+        assertEquals(400, escaped.statusCode());
+        assertEquals("{\"error\":\"Neplatné datum v dotazu \\\"2020\\\"0-2020\\u000a3\\\".\"}", escaped.body());
+    }
+
+    @Test
+    void rejectsMethodsOtherThanGet() throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("from=202001&to=202003"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, response.statusCode());
+        assertEquals("GET", response.headers().firstValue("Allow").orElse(null));
+        assertTrue(response.body().startsWith("{\"error\":"), response.body());
+    }
+
+    private HttpResponse<String> get(String query) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(query)).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String query) {
+        return URI.create("http://localhost:" + server.port() + "/api/results?" + query);
+    }
+}
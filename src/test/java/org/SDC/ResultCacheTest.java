@@ -0,0 +1,88 @@
+package org.SDC;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultCacheTest {
+
+    private static final DataQuery QUERY = DataQuery.parse("202001-202003/3");
+    private static final String ROWS = "20200101T0000,1.0\n20200102T0000,2.0\n20200201T0000,4.0\n";
+    // Stejná délka jako ROWS, jiné hodnoty.
+    private static final String CHANGED_ROWS = "20200101T0000,3.0\n20200102T0000,2.0\n20200201T0000,4.0\n";
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty("sdc.lenient");
+        System.clearProperty("sdc.gapReport");
+        System.clearProperty("sdc.inMemory");
+    }
+
+    @Test
+    void answersRepeatedQueriesUntilTheFileChanges() throws IOException {
+        Path file = TestData.write(directory, "export.csv", ROWS);
+        ResultCache cache = new ResultCache(16, null);
+        ProcessingResult first = service(cache).process(file.toString(), QUERY);
+        assertEquals(1, cache.size());
+
+        // Obsah se změní, velikost a čas změny ne: výsledek se vezme z cache.
+        FileTime modified = Files.getLastModifiedTime(file);
+        TestData.write(directory, "export.csv", CHANGED_ROWS);
+        Files.setLastModifiedTime(file, modified);
+        assertEquals(first, service(cache).process(file.toString(), QUERY));
+
+        // Jiný čas změny: soubor se přečte znovu.
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 60_000));
+        ProcessingResult changed = service(cache).process(file.toString(), QUERY);
+        assertNotEquals(first, changed);
+        assertEquals(service(null).process(file.toString(), QUERY), changed);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void storesTheResultsInAFileAndDropsThoseOfChangedFiles() throws IOException {
+        Path file = TestData.write(directory, "export.csv", ROWS);
+        Path cacheFile = directory.resolve("results.cache");
+        ProcessingResult result = service(new ResultCache(16, cacheFile)).process(file.toString(), QUERY);
+        ResultCache.Key key = new ResultCache.Key(SourceFingerprint.of(file), IngestMode.FAST, QUERY);
+        assertEquals(result, new ResultCache(16, cacheFile).get(key));
+
+        TestData.write(directory, "export.csv", ROWS + "20200301T0000,8.0\n");
+        ResultCache reloaded = new ResultCache(16, cacheFile);
+        assertEquals(0, reloaded.size());
+        assertNull(reloaded.get(key));
+    }
+
+    @Test
+    void bypassesTheCacheWhenTheSettingsChangeTheRead() throws IOException {
+        Path file = TestData.write(directory, "export.csv", ROWS);
+        ResultCache cache = new ResultCache(16, null);
+        for (String property : new String[]{"sdc.lenient", "sdc.gapReport", "sdc.inMemory"}) {
+            System.setProperty(property, "true");
+            assertFalse(ResultCache.applies(), property);
+            service(cache).process(file.toString(), QUERY);
+            assertEquals(0, cache.size(), property);
+            System.clearProperty(property);
+        }
+        assertTrue(ResultCache.applies());
+    }
+
+    private static CSVReaderService service(ResultCache cache) {
+        return new CSVReaderService(new DataProcessor(), IngestMode.FAST, result -> {
+        }, cache);
+    }
+}
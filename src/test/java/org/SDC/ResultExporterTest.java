@@ -0,0 +1,83 @@
+package org.SDC;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResultExporterTest {
+
+    private static final DataQuery QUERY = DataQuery.parse("202001-202003/3");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesDaysMonthsAndTotals() throws IOException {
+        Path file = directory.resolve("export.csv");
+        try (ResultExporter exporter = new ResultExporter(file, ExportFormat.CSV, false, QUERY)) {
+            exporter.dayCompleted(new ProcessingResult.DayResult(2020, 1, 8, 3, 12.5));
+            exporter.monthCompleted(new ProcessingResult.MonthResult(2020, 1, 100.0, 1.5));
+            // Únor bez zvoleného dne.
+            exporter.monthCompleted(new ProcessingResult.MonthResult(2020, 2, 50.0, Double.NaN));
+            exporter.accept(new ProcessingResult(QUERY, List.of(), List.of(), 100.0, 12.5));
+        }
+        assertEquals(List.of(
+                "type,date,dayOfWeek,total,chosenDayAverage,chosenDayTotal",
+                "day,2020-01-08,3,12.5,,",
+                "month,2020-01,,100.0,1.5,",
+                "month,2020-02,,50.0,,",
+                "period,202001-202003/3,,100.0,,12.5"), Files.readAllLines(file));
+    }
+
+    @Test
+    void writesNullForAMonthWithoutChosenDaysInJsonLines() throws IOException {
+        Path file = directory.resolve("export.jsonl");
+        try (ResultExporter exporter = new ResultExporter(file, ExportFormat.JSON_LINES, false, QUERY)) {
+            exporter.monthCompleted(new ProcessingResult.MonthResult(2020, 2, 50.0, Double.NaN));
+        }
+        assertEquals(List.of("{\"type\":\"month\",\"date\":\"2020-02\",\"total\":50.0,\"chosenDayAverage\":null}"),
+                Files.readAllLines(file));
+    }
+
+    @Test
+    void doesNotBlockTheProcessingAfterAnUnexpectedWriterFailure() {
+        Writer failing = new StringWriter() {
+            @Override
+            public StringWriter append(CharSequence text) {
+                throw new IllegalStateException("selhání zápisu");
+            }
+        };
+        ResultExporter exporter = new ResultExporter(directory.resolve("export.csv"), ExportFormat.CSV, QUERY, failing);
+        // Více výsledků, než se vejde do fronty: bez vyprázdnění fronty by zpracování čekalo navždy.
+        IOException failure = assertThrows(IOException.class, () -> assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 20_000; i++) {
+                exporter.monthCompleted(new ProcessingResult.MonthResult(2020, 1, i, Double.NaN));
+            }
+            exporter.close();
+        }));
+        assertTrue(failure.getMessage().contains("selhání zápisu"), failure.getMessage());
+    }
+
+    @Test
+    void writesToTheWorkingDirectoryByDefault() throws IOException {
+        System.setProperty("sdc.export", "jsonl");
+        try (ResultExporter exporter = ResultExporter.fromSystemProperties(QUERY)) {
+            assertEquals(Path.of(".").toAbsolutePath().normalize(), exporter.file().toAbsolutePath().normalize().getParent());
+            Files.deleteIfExists(exporter.file());
+        } finally {
+            System.clearProperty("sdc.export");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.SDC;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TailFollowerTest {
+
+    private static final DataQuery QUERY = DataQuery.parse("202001-202012/3");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsOnlyTheAppendedLines() throws IOException {
+        Path file = TestData.write(directory, "export.csv", "20200101T0000,1.0\n20200101T0100,2.0\n");
+        TailFollower follower = follower(file);
+        assertTrue(follower.poll());
+        assertEquals(3.0, follower.result().seasonTotal());
+        assertFalse(follower.poll());
+
+        // Řádek bez konce řádku se zpracuje až po jeho dopsání.
+        append(file, "20200101T0200,4.0\n20200101T03");
+        assertTrue(follower.poll());
+        assertEquals(7.0, follower.result().seasonTotal());
+        long offset = follower.offset();
+        append(file, "00,8.0\n");
+        assertTrue(follower.poll());
+        assertEquals(15.0, follower.result().seasonTotal());
+        assertTrue(follower.offset() > offset);
+        assertEquals(expected(file), follower.result());
+    }
+
+    @Test
+    void countsTheRunningToMonth() throws IOException {
+        // Období končí prosincem, který se právě dopisuje; 2. 12. 2020 je středa.
+        Path file = TestData.write(directory, "export.csv", "20201130T0000,1.0\n");
+        TailFollower follower = follower(file);
+        follower.poll();
+        append(file, "20201201T0000,2.0\n20201202T0000,4.0\n20201202T0100,8.0\n");
+        assertTrue(follower.poll());
+
+        ProcessingResult result = follower.result();
+        ProcessingResult.MonthResult running = result.months().get(result.months().size() - 1);
+        assertEquals(List.of(2020, 12, 14.0), List.of(running.year(), running.month(), running.total()));
+        assertEquals(6.0, running.chosenDayAverage());
+        ProcessingResult.DayResult day = result.chosenDays().get(result.chosenDays().size() - 1);
+        assertEquals(List.of(2, 12.0), List.of(day.dayOfMonth(), day.total()));
+        assertEquals(15.0, result.seasonTotal());
+        assertEquals(12.0, result.chosenDaySeasonTotal());
+    }
+
+    @Test
+    void startsAgainWhenTheFileIsShorter() throws IOException {
+        Path file = TestData.write(directory, "export.csv", "20200101T0000,1.0\n20200101T0100,2.0\n");
+        TailFollower follower = follower(file);
+        follower.poll();
+        TestData.write(directory, "export.csv", "20200101T0000,5.0\n");
+        assertTrue(follower.poll());
+        assertEquals(5.0, follower.result().seasonTotal());
+    }
+
+    @Test
+    void startsAgainWhenTheProcessedPartChanges() throws IOException {
+        Path file = TestData.write(directory, "export.csv", "20200101T0000,1.0\n20200101T0100,2.0\n");
+        TailFollower follower = follower(file);
+        follower.poll();
+        // Stejný začátek délky zpracované části, ale jiný obsah před pamatovanou pozicí.
+        TestData.write(directory, "export.csv", "20200101T0000,1.0\n20200101T0100,9.0\n20200101T0200,1.0\n");
+        assertTrue(follower.poll());
+        assertEquals(11.0, follower.result().seasonTotal());
+        assertEquals(expected(file), follower.result());
+    }
+
+    @Test
+    void startsAgainWhenTheFileIsReplaced() throws IOException {
+        Path file = TestData.write(directory, "export.csv", "20200101T0000,1.0\n20200101T0100,2.0\n");
+        TailFollower follower = follower(file);
+        follower.poll();
+        // Nový soubor se stejným začátkem přesunutý na místo původního.
+        Path replacement = TestData.write(directory, "replacement.csv", "20200101T0000,1.0\n20200101T0100,2.0\n20200101T0200,4.0\n");
+        Files.move(replacement, file, StandardCopyOption.REPLACE_EXISTING);
+        assertTrue(follower.poll());
+        assertEquals(7.0, follower.result().seasonTotal());
+    }
+
+    private TailFollower follower(Path file) {
+        return new CSVReaderService(new DataProcessor()).follower(file.toString(), QUERY);
+    }
+
+    private ProcessingResult expected(Path file) throws IOException {
+        TailFollower fresh = follower(file);
+        fresh.poll();
+        return fresh.result();
+    }
+
+    private static void append(Path file, String text) throws IOException {
+        Files.writeString(file, text, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,72 @@
+package org.SDC;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Synthetic solar data exports in the layout of the real ones, for the tests.
+ */
+final class TestData {
+
+    static final String HEADER = """
+            location,Basilej
+            lat,47.54694
+            lon,7.56892
+            asl,283.697
+            variable,Shortwave Radiation
+            unit,W/m²
+            level,sfc
+            resolution,hourly
+            aggregation,None
+            timestamp,Basilej Shortwave Radiation
+            """;
+
+    private static final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmm");
+
+    private TestData() {
+    }
+
+    /**
+     * Returns the data rows of the given months: zero at night, a noisy curve during the day,
+     * an empty value at every midnight of the 1st day of a month, as in the real exports.
+     */
+    static String rows(YearMonth from, int months, int intervalMinutes, long seed) {
+        Random random = new Random(seed);
+        StringBuilder rows = new StringBuilder();
+        LocalDateTime end = from.plusMonths(months).atDay(1).atStartOfDay();
+        for (LocalDateTime time = from.atDay(1).atStartOfDay(); time.isBefore(end); time = time.plusMinutes(intervalMinutes)) {
+            rows.append(time.format(formatter)).append(',');
+            if (time.getDayOfMonth() == 1 && time.getHour() == 0 && time.getMinute() == 0) {
+                rows.append('\n');
+                continue;
+            }
+            double hour = time.getHour() + time.getMinute() / 60.0;
+            double value = hour < 6 || hour > 20 ? 0 : Math.sin((hour - 6) / 14 * Math.PI) * 800 * random.nextDouble();
+            rows.append(String.format(Locale.ROOT, "%.2f", value)).append('\n');
+        }
+        return rows.toString();
+    }
+
+    /**
+     * Writes an export with the header and the data rows of the given months.
+     */
+    static Path write(Path directory, String name, YearMonth from, int months, int intervalMinutes) throws IOException {
+        return write(directory, name, rows(from, months, intervalMinutes, from.hashCode()));
+    }
+
+    /**
+     * Writes an export with the header and the given data rows.
+     */
+    static Path write(Path directory, String name, String rows) throws IOException {
+        Path file = directory.resolve(name);
+        Files.writeString(file, HEADER + rows, StandardCharsets.UTF_8);
+        return file;
+    }
+}